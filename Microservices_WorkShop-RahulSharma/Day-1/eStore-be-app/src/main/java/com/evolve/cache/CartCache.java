@@ -0,0 +1,249 @@
+package com.evolve.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import com.evolve.model.Cart;
+import com.evolve.repository.CartRepository;
+import com.evolve.service.CartUpdateStream;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Redis cache for carts in front of {@link CartRepository}.
+ *
+ * <p>Reads go to Redis first and fall back to the database on a miss or a
+ * Redis error. The fill only sets an absent key, so a read that raced a
+ * newer {@link #put} never overwrites it. Writes happen after the database save
+ * and follow {@code estore.cart-cache.write-mode}:
+ * <ul>
+ *   <li>{@code write-through}: the Redis write is part of the request.</li>
+ *   <li>{@code write-behind}: the cart is parked in a pending map keyed by
+ *   cart id, so repeated updates coalesce, and flushed every
+ *   {@code flush-interval}. Cached reads may lag the database by up to one
+ *   interval. Past {@code max-pending} entries callers write through.</li>
+ * </ul>
+ * At most {@code max-in-flight} Redis writes run at once; a write that finds
+ * no free slot is parked in the pending map instead of waiting. With
+ * {@code max-pending} carts already parked it is written by the caller
+ * anyway, outside that limit, and counted in
+ * {@code cart.cache.pending.overflow}: a cache write is never skipped, so
+ * the cache cannot keep a stale cart. A cart written directly takes its
+ * older parked version out of the pending map, so a later flush can't
+ * overwrite it.
+ * Redis failures on the write side are logged and counted, never thrown:
+ * the database already holds the truth and entries expire after {@code ttl}.
+ */
+@Slf4j
+@Component
+public class CartCache {
+
+    public enum WriteMode { WRITE_THROUGH, WRITE_BEHIND }
+
+    private final CartRepository cartRepository;
+    private final ReactiveRedisTemplate<String, Cart> redisCartTemplate;
+    private final ReactiveRedisTemplate<String, List<Cart>> redisCartListTemplate;
+    private final CartUpdateStream cartUpdates;
+    private final WriteMode writeMode;
+    private final Duration ttl;
+    private final Duration flushInterval;
+    private final int maxInFlight;
+    private final int maxPending;
+
+    private final Semaphore inFlight;
+    private final Map<Long, Cart> pending = new ConcurrentHashMap<>();
+    private Disposable flusher;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter readErrors;
+    private final Counter writes;
+    private final Counter coalesced;
+    private final Counter writeErrors;
+    private final Counter overflow;
+
+    public CartCache(CartRepository cartRepository,
+                     ReactiveRedisTemplate<String, Cart> redisCartTemplate,
+                     ReactiveRedisTemplate<String, List<Cart>> redisCartListTemplate,
+                     CartUpdateStream cartUpdates,
+                     MeterRegistry meterRegistry,
+                     @Value("${estore.cart-cache.write-mode:write-through}") WriteMode writeMode,
+                     @Value("${estore.cart-cache.ttl:30m}") Duration ttl,
+                     @Value("${estore.cart-cache.flush-interval:200ms}") Duration flushInterval,
+                     @Value("${estore.cart-cache.max-in-flight:64}") int maxInFlight,
+                     @Value("${estore.cart-cache.max-pending:10000}") int maxPending) {
+        this.cartRepository = cartRepository;
+        this.redisCartTemplate = redisCartTemplate;
+        this.redisCartListTemplate = redisCartListTemplate;
+        this.cartUpdates = cartUpdates;
+        this.writeMode = writeMode;
+        this.ttl = ttl;
+        this.flushInterval = flushInterval;
+        this.maxInFlight = maxInFlight;
+        this.maxPending = maxPending;
+        this.inFlight = new Semaphore(maxInFlight);
+
+        this.hits = meterRegistry.counter("cart.cache.reads", "result", "hit");
+        this.misses = meterRegistry.counter("cart.cache.reads", "result", "miss");
+        this.readErrors = meterRegistry.counter("cart.cache.reads", "result", "error");
+        this.writes = meterRegistry.counter("cart.cache.writes", "result", "ok");
+        this.coalesced = meterRegistry.counter("cart.cache.writes", "result", "coalesced");
+        this.writeErrors = meterRegistry.counter("cart.cache.writes", "result", "error");
+        this.overflow = meterRegistry.counter("cart.cache.pending.overflow");
+        meterRegistry.gauge("cart.cache.pending", pending, Map::size);
+        meterRegistry.gauge("cart.cache.in-flight", inFlight, s -> maxInFlight - s.availablePermits());
+    }
+
+    static String idKey(Long cartId) {
+        return "cart:id:" + cartId;
+    }
+
+    static String userKey(Long userId) {
+        return "carts:user:" + userId;
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher = Flux.interval(flushInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> flush(), 1)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) {
+            flusher.dispose();
+        }
+        flush().timeout(Duration.ofSeconds(5), Mono.empty()).block();
+    }
+
+    public Mono<Cart> findById(Long id) {
+        return redisCartTemplate.opsForValue().get(idKey(id))
+                .doOnNext(cart -> hits.increment())
+                .onErrorResume(e -> {
+                    readErrors.increment();
+                    log.warn("Cart cache read failed for {}: {}", id, e.getMessage());
+                    return Mono.empty();
+                })
+                .switchIfEmpty(Mono.defer(() -> {
+                    misses.increment();
+                    return cartRepository.findById(id)
+                            .flatMap(cart -> redisCartTemplate.opsForValue().setIfAbsent(idKey(id), cart, ttl)
+                                    .onErrorResume(e -> Mono.just(false))
+                                    .thenReturn(cart));
+                }));
+    }
+
+    public Flux<Cart> findAllByUserId(Long userId) {
+        String key = userKey(userId);
+        return redisCartListTemplate.opsForValue().get(key)
+                .doOnNext(carts -> hits.increment())
+                .onErrorResume(e -> {
+                    readErrors.increment();
+                    log.warn("Cart cache read failed for user {}: {}", userId, e.getMessage());
+                    return Mono.empty();
+                })
+                .switchIfEmpty(Mono.defer(() -> {
+                    misses.increment();
+                    return cartRepository.findAllByUserId(userId).collectList()
+                            .flatMap(carts -> redisCartListTemplate.opsForValue().setIfAbsent(key, carts, ttl)
+                                    .onErrorResume(e -> Mono.just(false))
+                                    .thenReturn(carts));
+                }))
+                .flatMapMany(Flux::fromIterable);
+    }
+
+    /** Caches a cart that was just saved to the database. */
+    public Mono<Void> put(Cart cart) {
+        return Mono.defer(() -> {
+            if (writeMode == WriteMode.WRITE_BEHIND && enqueue(cart)) {
+                return Mono.empty();
+            }
+            if (inFlight.tryAcquire()) {
+                // An older parked version would otherwise be flushed over this one
+                pending.remove(cart.getId());
+                return write(cart).doFinally(signal -> inFlight.release());
+            }
+            if (enqueue(cart)) {
+                return Mono.empty();
+            }
+            overflow.increment();
+            return write(cart);
+        });
+    }
+
+    /** Drops a deleted cart from every key it may live under. */
+    public Mono<Void> evict(Cart cart) {
+        pending.remove(cart.getId());
+        return redisCartTemplate.delete(idKey(cart.getId()), userKey(cart.getUserId()))
+                .doOnError(e -> {
+                    writeErrors.increment();
+                    log.warn("Cart cache evict failed for {}: {}", cart.getId(), e.getMessage());
+                })
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+
+    // False when max-pending other carts are parked; a cart that is already parked is always replaced
+    private boolean enqueue(Cart cart) {
+        if (pending.size() >= maxPending && !pending.containsKey(cart.getId())) {
+            return false;
+        }
+        if (pending.put(cart.getId(), cart) != null) {
+            coalesced.increment();
+        }
+        return true;
+    }
+
+    // Carts that find no free write slot stay pending until the next tick
+    private Mono<Void> flush() {
+        if (pending.isEmpty()) {
+            return Mono.empty();
+        }
+        return Flux.fromIterable(new ArrayList<>(pending.keySet()))
+                .flatMap(id -> {
+                    if (!inFlight.tryAcquire()) {
+                        return Mono.empty();
+                    }
+                    Cart cart = pending.remove(id);
+                    if (cart == null) {
+                        inFlight.release();
+                        return Mono.empty();
+                    }
+                    return write(cart).doFinally(signal -> inFlight.release());
+                }, maxInFlight)
+                .then();
+    }
+
+    // Latest cart per user for the SSE stream, the cart itself, and a dropped user list
+    private Mono<Void> write(Cart cart) {
+        return Mono.when(
+                        redisCartTemplate.opsForValue().set(CartUpdateStream.key(cart.getUserId()), cart, ttl),
+                        redisCartTemplate.opsForValue().set(idKey(cart.getId()), cart, ttl),
+                        redisCartTemplate.delete(userKey(cart.getUserId())))
+                .then(cartUpdates.publish(cart))
+                .doOnSuccess(v -> writes.increment())
+                .doOnError(e -> {
+                    writeErrors.increment();
+                    log.warn("Cart cache write failed for {}: {}", cart.getId(), e.getMessage());
+                })
+                .onErrorResume(e -> Mono.empty());
+    }
+
+}
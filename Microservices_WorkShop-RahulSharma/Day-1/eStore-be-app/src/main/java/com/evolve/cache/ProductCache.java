@@ -0,0 +1,102 @@
+package com.evolve.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.evolve.model.Product;
+import com.evolve.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Size-bounded, TTL-aware near cache in front of {@link ProductRepository}.
+ * Misses are loaded from the database; entries are dropped locally by
+ * {@link #invalidate(Long)} and cluster-wide by {@link ProductCacheInvalidator}.
+ *
+ * <p>Every invalidation stamps its key (or, for {@link #invalidateAll()},
+ * the whole cache) with the next generation. A load remembers the
+ * generation it started at and only fills the cache if nothing it read was
+ * invalidated since, so a read that raced an update can't put the old
+ * product back.
+ */
+public class ProductCache {
+
+    private final ProductRepository productRepo;
+    private final Cache<Long, Product> cache;
+    private final AtomicLong generation = new AtomicLong();
+    // One entry per product invalidated since the last invalidateAll, which clears them
+    private final Map<Long, Long> invalidatedAt = new ConcurrentHashMap<>();
+    private volatile long allInvalidatedAt;
+
+    public ProductCache(ProductRepository productRepo, long maximumSize, Duration ttl) {
+        this.productRepo = productRepo;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public Mono<Product> findById(Long id) {
+        Product cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return Mono.defer(() -> {
+            long loadedAt = generation.get();
+            return productRepo.findById(id).doOnNext(product -> fill(product, loadedAt));
+        });
+    }
+
+    /** Cached products first, then every miss in a single findAllById query. */
+    public Flux<Product> findAllById(Collection<Long> ids) {
+        Map<Long, Product> cached = cache.getAllPresent(ids);
+        if (cached.size() == ids.size()) {
+            return Flux.fromIterable(cached.values());
+        }
+        List<Long> missing = new ArrayList<>(ids.size() - cached.size());
+        for (Long id : ids) {
+            if (!cached.containsKey(id)) {
+                missing.add(id);
+            }
+        }
+        return Flux.fromIterable(cached.values())
+                .concatWith(Flux.defer(() -> {
+                    long loadedAt = generation.get();
+                    return productRepo.findAllById(missing).doOnNext(product -> fill(product, loadedAt));
+                }));
+    }
+
+    public void invalidate(Long id) {
+        // Stamped before the entry goes, so a load that fills after this sees it
+        invalidatedAt.put(id, generation.incrementAndGet());
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        long now = generation.incrementAndGet();
+        allInvalidatedAt = now;
+        invalidatedAt.values().removeIf(stamp -> stamp <= now);
+        cache.invalidateAll();
+    }
+
+    // Checked and written under the entry's lock, so an invalidation lands either before (and wins) or after
+    private void fill(Product product, long loadedAt) {
+        cache.asMap().compute(product.getId(), (id, current) -> {
+            boolean stale = allInvalidatedAt > loadedAt || invalidatedAt.getOrDefault(id, 0L) > loadedAt;
+            return stale ? current : product;
+        });
+    }
+
+    public Cache<Long, Product> cache() {
+        return cache;
+    }
+}
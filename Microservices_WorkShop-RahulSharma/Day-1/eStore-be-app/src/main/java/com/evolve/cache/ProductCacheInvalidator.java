@@ -0,0 +1,77 @@
+package com.evolve.cache;
+
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+/**
+ * Broadcasts product invalidations over Redis pub/sub so every instance
+ * drops its near-cache entry. The message body is the product id, or "*"
+ * to clear the whole cache.
+ */
+@Slf4j
+@Component
+public class ProductCacheInvalidator {
+
+    public static final String CHANNEL = "products:invalidate";
+    private static final String ALL = "*";
+
+    private final ProductCache productCache;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private Disposable subscription;
+
+    public ProductCacheInvalidator(ProductCache productCache, ReactiveStringRedisTemplate redisTemplate) {
+        this.productCache = productCache;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @PostConstruct
+    public void listen() {
+        subscription = redisTemplate.listenToChannel(CHANNEL)
+                .doOnNext(message -> apply(message.getMessage()))
+                .retry()
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /** Drops the entry locally, then tells the other instances. */
+    public Mono<Void> invalidate(Long productId) {
+        productCache.invalidate(productId);
+        return publish(String.valueOf(productId));
+    }
+
+    public Mono<Void> invalidateAll() {
+        productCache.invalidateAll();
+        return publish(ALL);
+    }
+
+    private Mono<Void> publish(String message) {
+        return redisTemplate.convertAndSend(CHANNEL, message)
+                .doOnError(e -> log.warn("Product invalidation {} not published: {}", message, e.getMessage()))
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+
+    private void apply(String message) {
+        if (ALL.equals(message)) {
+            productCache.invalidateAll();
+        } else {
+            try {
+                productCache.invalidate(Long.parseLong(message));
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring malformed product invalidation: {}", message);
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.evolve.codec;
+
+import java.util.List;
+import java.util.Map;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.CharSequenceEncoder;
+import org.springframework.core.codec.Encoder;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.http.codec.EncoderHttpMessageWriter;
+import org.springframework.http.codec.HttpMessageWriter;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Writes what {@link ProtobufModelEncoder} can't when a response is already
+ * marked {@code application/x-protobuf}: summaries, bulk results, error
+ * strings. Text goes out as {@code text/plain} and anything else as JSON,
+ * with the content type changed to match, instead of the write failing
+ * for want of an encoder. Registered after {@link ProtobufModelEncoder}.
+ */
+public class ProtobufFallbackWriter implements HttpMessageWriter<Object> {
+
+    private static final ResolvableType CHAR_SEQUENCE = ResolvableType.forClass(CharSequence.class);
+
+    private final ProtobufModelEncoder protobuf = new ProtobufModelEncoder();
+    private final HttpMessageWriter<Object> json;
+    private final HttpMessageWriter<CharSequence> text = new EncoderHttpMessageWriter<>(CharSequenceEncoder.textPlainOnly());
+
+    public ProtobufFallbackWriter(Encoder<Object> jsonEncoder) {
+        this.json = new EncoderHttpMessageWriter<>(jsonEncoder);
+    }
+
+    @Override
+    public List<MediaType> getWritableMediaTypes() {
+        return List.of(MediaType.APPLICATION_PROTOBUF);
+    }
+
+    @Override
+    public boolean canWrite(ResolvableType elementType, MediaType mediaType) {
+        return mediaType != null
+                && MediaType.APPLICATION_PROTOBUF.isCompatibleWith(mediaType)
+                && !protobuf.canEncode(elementType, mediaType);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Mono<Void> write(Publisher<?> inputStream, ResolvableType elementType, MediaType mediaType,
+                            ReactiveHttpOutputMessage message, Map<String, Object> hints) {
+        if (CHAR_SEQUENCE.isAssignableFrom(elementType)) {
+            message.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+            return text.write((Publisher<CharSequence>) inputStream, elementType, MediaType.TEXT_PLAIN, message, hints);
+        }
+        message.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return json.write(inputStream, elementType, MediaType.APPLICATION_JSON, message, hints);
+    }
+}
@@ -0,0 +1,60 @@
+package com.evolve.codec;
+
+import java.util.List;
+import java.util.Map;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Decoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.codec.protobuf.ProtobufDecoder;
+import org.springframework.util.MimeType;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reads {@code application/x-protobuf} bodies into the model entities, the
+ * counterpart of {@link ProtobufModelEncoder}.
+ */
+public class ProtobufModelDecoder implements Decoder<Object> {
+
+    private final ProtobufDecoder delegate = new ProtobufDecoder();
+
+    @Override
+    public boolean canDecode(ResolvableType elementType, MimeType mimeType) {
+        Class<?> type = elementType.toClass();
+        return mimeType != null
+                && ProtobufModels.supports(type)
+                && delegate.canDecode(ResolvableType.forClass(ProtobufModels.messageType(type)), mimeType);
+    }
+
+    @Override
+    public Flux<Object> decode(Publisher<DataBuffer> inputStream, ResolvableType elementType,
+                               MimeType mimeType, Map<String, Object> hints) {
+        Class<?> type = elementType.toClass();
+        return delegate.decode(inputStream, ResolvableType.forClass(ProtobufModels.messageType(type)), mimeType, hints)
+                .map(message -> ProtobufModels.fromMessage(message, type));
+    }
+
+    @Override
+    public Mono<Object> decodeToMono(Publisher<DataBuffer> inputStream, ResolvableType elementType,
+                                     MimeType mimeType, Map<String, Object> hints) {
+        Class<?> type = elementType.toClass();
+        return delegate.decodeToMono(inputStream, ResolvableType.forClass(ProtobufModels.messageType(type)), mimeType, hints)
+                .map(message -> ProtobufModels.fromMessage(message, type));
+    }
+
+    @Override
+    public Object decode(DataBuffer buffer, ResolvableType targetType,
+                         MimeType mimeType, Map<String, Object> hints) {
+        Class<?> type = targetType.toClass();
+        return ProtobufModels.fromMessage(
+                delegate.decode(buffer, ResolvableType.forClass(ProtobufModels.messageType(type)), mimeType, hints), type);
+    }
+
+    @Override
+    public List<MimeType> getDecodableMimeTypes() {
+        return delegate.getDecodableMimeTypes();
+    }
+}
@@ -0,0 +1,90 @@
+package com.evolve.codec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.HttpMessageEncoder;
+import org.springframework.http.codec.protobuf.ProtobufEncoder;
+import org.springframework.util.MimeType;
+
+import com.google.protobuf.Message;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Writes the model entities as {@code application/x-protobuf} through
+ * {@link ProtobufModels}. A single value is one plain message; a stream or
+ * a list is varint-delimited messages, as with {@link ProtobufEncoder}.
+ * Only an explicit protobuf media type selects it, so JSON stays the
+ * default.
+ */
+public class ProtobufModelEncoder implements HttpMessageEncoder<Object> {
+
+    private static final ResolvableType MESSAGE = ResolvableType.forClass(Message.class);
+
+    private final ProtobufEncoder delegate = new ProtobufEncoder();
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
+        if (mimeType == null || !delegate.canEncode(MESSAGE, mimeType)) {
+            return false;
+        }
+        Class<?> type = elementType.toClass();
+        if (Collection.class.isAssignableFrom(type)) {
+            // bodyValue(list) loses the element type, so unknown elements are checked on write
+            Class<?> element = elementType.asCollection().resolveGeneric(0);
+            return element == null || ProtobufModels.supports(element);
+        }
+        return ProtobufModels.supports(type);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                   ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+        if (inputStream instanceof Mono<?> mono) {
+            return mono.map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints)).flux();
+        }
+        return delegate.encode(Flux.from(inputStream).map(ProtobufModels::toMessage),
+                bufferFactory, MESSAGE, mimeType, hints);
+    }
+
+    @Override
+    public DataBuffer encodeValue(Object value, DataBufferFactory bufferFactory,
+                                  ResolvableType valueType, MimeType mimeType, Map<String, Object> hints) {
+        if (!(value instanceof Collection<?> values)) {
+            return delegate.encodeValue(ProtobufModels.toMessage(value), bufferFactory, MESSAGE, mimeType, hints);
+        }
+        // A list goes out like a stream: one varint-delimited message per element
+        DataBuffer buffer = bufferFactory.allocateBuffer(256);
+        try (OutputStream out = buffer.asOutputStream()) {
+            for (Object element : values) {
+                ProtobufModels.toMessage(element).writeDelimitedTo(out);
+            }
+            return buffer;
+        } catch (IOException | IllegalArgumentException e) {
+            DataBufferUtils.release(buffer);
+            throw new EncodingException("Could not write protobuf list: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<MimeType> getEncodableMimeTypes() {
+        return delegate.getEncodableMimeTypes();
+    }
+
+    @Override
+    public List<MediaType> getStreamingMediaTypes() {
+        return delegate.getStreamingMediaTypes();
+    }
+}
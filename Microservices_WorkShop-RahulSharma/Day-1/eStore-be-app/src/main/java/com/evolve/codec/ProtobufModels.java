@@ -0,0 +1,153 @@
+package com.evolve.codec;
+
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.evolve.grpc.ModelProto;
+import com.evolve.model.Cart;
+import com.evolve.model.CartItem;
+import com.evolve.model.Order;
+import com.evolve.model.Product;
+import com.evolve.model.Usr;
+import com.google.protobuf.Message;
+
+/**
+ * Maps the {@code com.evolve.model} entities to and from the
+ * {@link ModelProto} messages. Null fields are left unset, and unset fields
+ * come back as null. Unlike the JSON codec, {@code Usr} name and email are
+ * not swapped.
+ */
+public final class ProtobufModels {
+
+    private record Binding<T, M extends Message>(Class<M> messageType,
+                                                 Function<T, M> toMessage,
+                                                 Function<M, T> fromMessage) {
+    }
+
+    private static final Map<Class<?>, Binding<?, ?>> BINDINGS = Map.of(
+            Usr.class, new Binding<Usr, ModelProto.Usr>(ModelProto.Usr.class, ProtobufModels::usr, ProtobufModels::usr),
+            Cart.class, new Binding<Cart, ModelProto.Cart>(ModelProto.Cart.class, ProtobufModels::cart, ProtobufModels::cart),
+            CartItem.class, new Binding<CartItem, ModelProto.CartItem>(ModelProto.CartItem.class, ProtobufModels::cartItem, ProtobufModels::cartItem),
+            Order.class, new Binding<Order, ModelProto.Order>(ModelProto.Order.class, ProtobufModels::order, ProtobufModels::order),
+            Product.class, new Binding<Product, ModelProto.Product>(ModelProto.Product.class, ProtobufModels::product, ProtobufModels::product));
+
+    private ProtobufModels() {
+    }
+
+    public static boolean supports(Class<?> type) {
+        return BINDINGS.containsKey(type);
+    }
+
+    public static Class<? extends Message> messageType(Class<?> type) {
+        return binding(type).messageType();
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Message toMessage(Object model) {
+        return ((Binding<Object, ?>) binding(model.getClass())).toMessage().apply(model);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> T fromMessage(Message message, Class<T> type) {
+        return ((Binding<T, Message>) binding(type)).fromMessage().apply(message);
+    }
+
+    private static Binding<?, ?> binding(Class<?> type) {
+        Binding<?, ?> binding = BINDINGS.get(type);
+        if (binding == null) {
+            throw new IllegalArgumentException("No protobuf message for " + type.getName());
+        }
+        return binding;
+    }
+
+    static ModelProto.Usr usr(Usr user) {
+        ModelProto.Usr.Builder builder = ModelProto.Usr.newBuilder();
+        set(user.getId(), builder::setId);
+        set(user.getName(), builder::setName);
+        set(user.getEmail(), builder::setEmail);
+        return builder.build();
+    }
+
+    static Usr usr(ModelProto.Usr message) {
+        Usr user = new Usr();
+        user.setId(message.hasId() ? message.getId() : null);
+        user.setName(message.hasName() ? message.getName() : null);
+        user.setEmail(message.hasEmail() ? message.getEmail() : null);
+        return user;
+    }
+
+    public static ModelProto.Cart cart(Cart cart) {
+        ModelProto.Cart.Builder builder = ModelProto.Cart.newBuilder();
+        set(cart.getId(), builder::setId);
+        set(cart.getUserId(), builder::setUserId);
+        set(cart.getStatus(), builder::setStatus);
+        return builder.build();
+    }
+
+    static Cart cart(ModelProto.Cart message) {
+        Cart cart = new Cart();
+        cart.setId(message.hasId() ? message.getId() : null);
+        cart.setUserId(message.hasUserId() ? message.getUserId() : null);
+        cart.setStatus(message.hasStatus() ? message.getStatus() : null);
+        return cart;
+    }
+
+    static ModelProto.CartItem cartItem(CartItem item) {
+        ModelProto.CartItem.Builder builder = ModelProto.CartItem.newBuilder();
+        set(item.getId(), builder::setId);
+        set(item.getCartId(), builder::setCartId);
+        set(item.getProductId(), builder::setProductId);
+        set(item.getQuantity(), builder::setQuantity);
+        return builder.build();
+    }
+
+    static CartItem cartItem(ModelProto.CartItem message) {
+        CartItem item = new CartItem();
+        item.setId(message.hasId() ? message.getId() : null);
+        item.setCartId(message.hasCartId() ? message.getCartId() : null);
+        item.setProductId(message.hasProductId() ? message.getProductId() : null);
+        item.setQuantity(message.hasQuantity() ? message.getQuantity() : null);
+        return item;
+    }
+
+    static ModelProto.Order order(Order order) {
+        ModelProto.Order.Builder builder = ModelProto.Order.newBuilder();
+        set(order.getId(), builder::setId);
+        set(order.getStatus(), builder::setStatus);
+        set(order.getUserId(), builder::setUserId);
+        return builder.build();
+    }
+
+    static Order order(ModelProto.Order message) {
+        Order order = new Order();
+        order.setId(message.hasId() ? message.getId() : null);
+        order.setStatus(message.hasStatus() ? message.getStatus() : null);
+        order.setUserId(message.hasUserId() ? message.getUserId() : null);
+        return order;
+    }
+
+    public static ModelProto.Product product(Product product) {
+        ModelProto.Product.Builder builder = ModelProto.Product.newBuilder();
+        set(product.getId(), builder::setId);
+        set(product.getName(), builder::setName);
+        set(product.getDescription(), builder::setDescription);
+        set(product.getPrice(), builder::setPrice);
+        return builder.build();
+    }
+
+    static Product product(ModelProto.Product message) {
+        Product product = new Product();
+        product.setId(message.hasId() ? message.getId() : null);
+        product.setName(message.hasName() ? message.getName() : null);
+        product.setDescription(message.hasDescription() ? message.getDescription() : null);
+        product.setPrice(message.hasPrice() ? message.getPrice() : null);
+        return product;
+    }
+
+    private static <V> void set(V value, Consumer<V> setter) {
+        if (value != null) {
+            setter.accept(value);
+        }
+    }
+}
@@ -4,19 +4,51 @@ import java.io.IOException;
 
 import com.evolve.model.Usr;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.JsonNode;
 
+/**
+ * Reads a {@link Usr} straight off the token stream. Keeps the original
+ * mapping: the JSON "name" goes to email and "email" goes to name; both are
+ * required and every other field is skipped.
+ */
 public class UserDeserializer extends JsonDeserializer<Usr> {
     @Override
     public Usr deserialize(JsonParser parser, DeserializationContext ctx) throws IOException {
-        JsonNode node = parser.getCodec().readTree(parser);
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = parser.nextToken();
+        }
+        String name = null;
+        String email = null;
+        for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "name" -> name = text(parser);
+                case "email" -> email = text(parser);
+                default -> parser.skipChildren();
+            }
+        }
+        if (token != JsonToken.END_OBJECT) {
+            return (Usr) ctx.handleUnexpectedToken(Usr.class, parser);
+        }
+        if (name == null || email == null) {
+            return ctx.reportInputMismatch(Usr.class, "Usr needs both \"name\" and \"email\"");
+        }
         Usr user = new Usr();
-        user.setEmail(node.get("name").asText()); // Accept "email" as "username"
-        user.setName(node.get("email").asText());
-        System.out.println("Values De-serialized");
+        user.setEmail(name); // Accept "email" as "username"
+        user.setName(email);
         return user;
     }
-}
 
+    // Same text JsonNode.asText() gave: scalars as written (null as "null"), containers as ""
+    private static String text(JsonParser parser) throws IOException {
+        if (parser.currentToken().isStructStart()) {
+            parser.skipChildren();
+            return "";
+        }
+        return parser.getText();
+    }
+}
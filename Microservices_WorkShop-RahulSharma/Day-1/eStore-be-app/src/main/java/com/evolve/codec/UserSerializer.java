@@ -4,17 +4,23 @@ import java.io.IOException;
 
 import com.evolve.model.Usr;
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
 
 public class UserSerializer extends JsonSerializer<Usr> {
+
+    // Field names encoded once instead of on every write
+    private static final SerializedString EMAIL = new SerializedString("email");
+    private static final SerializedString NAME = new SerializedString("name");
+
     @Override
     public void serialize(Usr user, JsonGenerator gen, SerializerProvider provider) throws IOException {
         gen.writeStartObject();
-        gen.writeStringField("email", user.getEmail()); // Rename "username" to "email"
-        gen.writeStringField("name", user.getName());
-        System.out.println("Values Serialized");
+        gen.writeFieldName(EMAIL); // Rename "username" to "email"
+        gen.writeString(user.getEmail());
+        gen.writeFieldName(NAME);
+        gen.writeString(user.getName());
         gen.writeEndObject();
     }
 }
-
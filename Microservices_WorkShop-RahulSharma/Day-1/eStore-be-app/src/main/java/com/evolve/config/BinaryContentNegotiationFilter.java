@@ -0,0 +1,63 @@
+package com.evolve.config;
+
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Lets {@code Accept} pick a binary body for the functional routes.
+ *
+ * <p>A {@code ServerResponse} is written with the first codec that fits its
+ * content type, and without one that is JSON; {@code Accept} is never
+ * consulted. When the client's most preferred type is one of
+ * {@link #BINARY}, this sets it on the response up front, and the response
+ * keeps it over the one its builder would add. Protobuf only covers the
+ * model entities; any other body, errors included, is written as JSON or
+ * text by {@link com.evolve.codec.ProtobufFallbackWriter}, which resets
+ * the content type to match.
+ */
+@Component
+public class BinaryContentNegotiationFilter implements WebFilter {
+
+    static final List<MediaType> BINARY = List.of(
+            MediaType.APPLICATION_CBOR,
+            WebFluxConfig.SMILE,
+            MediaType.APPLICATION_PROTOBUF);
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        MediaType preferred = preferred(exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT));
+        if (preferred != null) {
+            exchange.getResponse().getHeaders().setContentType(preferred);
+        }
+        return chain.filter(exchange);
+    }
+
+    static MediaType preferred(String accept) {
+        if (accept == null || accept.indexOf('/') < 0) {
+            return null;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        MediaType first = accepted.stream()
+                .max(Comparator.comparingDouble(MediaType::getQualityValue))
+                .orElse(null);
+        if (first == null || first.isWildcardSubtype()) {
+            return null;
+        }
+        return BINARY.stream().filter(type -> type.equalsTypeAndSubtype(first)).findFirst().orElse(null);
+    }
+}
@@ -1,18 +1,26 @@
 package com.evolve.config;
 
-import org.springframework.beans.factory.annotation.Qualifier;
+import java.util.List;
+
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.web.reactive.function.server.RouterFunction;
 import org.springframework.web.reactive.function.server.ServerResponse;
 
+import com.evolve.route.IndexedRouterFunction;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 public class CombinedRouter {
 
+    // Every other route bean, indexed; first in line on the WebFlux server too, so its routes are timed there
     @Bean(name = "mainRouter")
-    public RouterFunction<ServerResponse> mainRouter(
-        @Qualifier("userRoutes") RouterFunction<ServerResponse> userRoutes
-    ) {
-        return userRoutes;
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public RouterFunction<ServerResponse> mainRouter(List<RouterFunction<ServerResponse>> routes,
+                                                     MeterRegistry meterRegistry) {
+        return new IndexedRouterFunction(routes, meterRegistry);
     }
 }
@@ -1,11 +1,17 @@
 package com.evolve.config;
 
+import java.util.List;
+
 import com.evolve.model.Cart;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
 import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -16,10 +22,19 @@ import jakarta.annotation.PostConstruct;
 @Configuration
 public class EmbeddedRedisConfig {
 
+    private final boolean embedded;
     private RedisServer redisServer;
 
+    // Off (estore.embedded-redis.enabled=false) when spring.redis points at a real server
+    public EmbeddedRedisConfig(@Value("${estore.embedded-redis.enabled:true}") boolean embedded) {
+        this.embedded = embedded;
+    }
+
     @PostConstruct
     public void startRedis() {
+        if (!embedded) {
+            return;
+        }
         redisServer = new RedisServer(6379);
         redisServer.start();
     }
@@ -40,4 +55,35 @@ public class EmbeddedRedisConfig {
         return new ReactiveRedisTemplate<>(factory, context);
     }
 
+    @Bean
+    public ReactiveRedisTemplate<String, List<Cart>> reactiveCartListRedisTemplate(ReactiveRedisConnectionFactory factory) {
+        JavaType listType = TypeFactory.defaultInstance().constructCollectionType(List.class, Cart.class);
+        Jackson2JsonRedisSerializer<List<Cart>> serializer = new Jackson2JsonRedisSerializer<>(listType);
+        RedisSerializationContext<String, List<Cart>> context = RedisSerializationContext
+                .<String, List<Cart>>newSerializationContext(new StringRedisSerializer())
+                .value(serializer)
+                .build();
+
+        return new ReactiveRedisTemplate<>(factory, context);
+    }
+
+    // Chat message batches published by ChatClusterRelay
+    @Bean
+    public ReactiveRedisTemplate<String, List<String>> reactiveChatBatchRedisTemplate(ReactiveRedisConnectionFactory factory) {
+        JavaType listType = TypeFactory.defaultInstance().constructCollectionType(List.class, String.class);
+        Jackson2JsonRedisSerializer<List<String>> serializer = new Jackson2JsonRedisSerializer<>(listType);
+        RedisSerializationContext<String, List<String>> context = RedisSerializationContext
+                .<String, List<String>>newSerializationContext(new StringRedisSerializer())
+                .value(serializer)
+                .build();
+
+        return new ReactiveRedisTemplate<>(factory, context);
+    }
+
+    // One pub/sub connection per node, shared by every channel subscription
+    @Bean
+    public ReactiveRedisMessageListenerContainer redisMessageListenerContainer(ReactiveRedisConnectionFactory factory) {
+        return new ReactiveRedisMessageListenerContainer(factory);
+    }
+
 }
@@ -0,0 +1,169 @@
+package com.evolve.config;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.coyote.AbstractProtocol;
+import org.apache.coyote.http11.AbstractHttp11Protocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatReactiveWebServerFactory;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.HttpResources;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Transport settings for the HTTP servers, under {@code estore.http-server}.
+ * Every setting defaults to "leave the library default alone"; the
+ * {@code tuned} profile in application.yml fills them in.
+ *
+ * <ul>
+ *   <li>{@code native-transport}: epoll when available, else NIO.</li>
+ *   <li>{@code select-threads}, {@code worker-threads}: dedicated event
+ *   loops instead of the shared Reactor Netty ones; 0 keeps the default
+ *   sizing.</li>
+ *   <li>{@code h2c}: HTTP/2 over cleartext next to HTTP/1.1.</li>
+ *   <li>{@code compression-min-size}: gzip responses from this many bytes;
+ *   -1 is off.</li>
+ *   <li>{@code idle-timeout}, {@code request-timeout}: 0s is none.</li>
+ *   <li>{@code max-connections}, {@code max-keep-alive-requests},
+ *   {@code accept-backlog}: 0 is unlimited or the OS default.</li>
+ * </ul>
+ * Reactor Netty servers take all of it. Tomcat has its own thread and I/O
+ * model, so it only takes h2c, compression, the idle timeout and the
+ * connection limits.
+ */
+@Slf4j
+@Component
+public class HttpServerProfile {
+
+    private final boolean nativeTransport;
+    private final int selectThreads;
+    private final int workerThreads;
+    private final boolean h2c;
+    private final int compressionMinSize;
+    private final Duration idleTimeout;
+    private final Duration requestTimeout;
+    private final int maxConnections;
+    private final int maxKeepAliveRequests;
+    private final int acceptBacklog;
+
+    private LoopResources loops;
+
+    public HttpServerProfile(@Value("${estore.http-server.native-transport:true}") boolean nativeTransport,
+                             @Value("${estore.http-server.select-threads:0}") int selectThreads,
+                             @Value("${estore.http-server.worker-threads:0}") int workerThreads,
+                             @Value("${estore.http-server.h2c:false}") boolean h2c,
+                             @Value("${estore.http-server.compression-min-size:-1}") int compressionMinSize,
+                             @Value("${estore.http-server.idle-timeout:0s}") Duration idleTimeout,
+                             @Value("${estore.http-server.request-timeout:0s}") Duration requestTimeout,
+                             @Value("${estore.http-server.max-connections:0}") int maxConnections,
+                             @Value("${estore.http-server.max-keep-alive-requests:0}") int maxKeepAliveRequests,
+                             @Value("${estore.http-server.accept-backlog:0}") int acceptBacklog) {
+        this.nativeTransport = nativeTransport;
+        this.selectThreads = selectThreads;
+        this.workerThreads = workerThreads;
+        this.h2c = h2c;
+        this.compressionMinSize = compressionMinSize;
+        this.idleTimeout = idleTimeout;
+        this.requestTimeout = requestTimeout;
+        this.maxConnections = maxConnections;
+        this.maxKeepAliveRequests = maxKeepAliveRequests;
+        this.acceptBacklog = acceptBacklog;
+        log.info("HTTP server profile: native={} select={} workers={} h2c={} compress>={} idle={} request={} "
+                        + "maxConnections={} maxKeepAlive={} backlog={}",
+                nativeTransport, selectThreads, workerThreads, h2c, compressionMinSize, idleTimeout,
+                requestTimeout, maxConnections, maxKeepAliveRequests, acceptBacklog);
+    }
+
+    /** Applies the profile to a Reactor Netty server. */
+    public HttpServer apply(HttpServer server) {
+        HttpServer tuned = server.runOn(loops(), nativeTransport);
+        if (h2c) {
+            tuned = tuned.protocol(HttpProtocol.HTTP11, HttpProtocol.H2C);
+        }
+        if (compressionMinSize >= 0) {
+            tuned = tuned.compress(compressionMinSize);
+        }
+        if (!idleTimeout.isZero()) {
+            tuned = tuned.idleTimeout(idleTimeout);
+        }
+        if (!requestTimeout.isZero()) {
+            tuned = tuned.requestTimeout(requestTimeout);
+        }
+        if (maxKeepAliveRequests > 0) {
+            tuned = tuned.maxKeepAliveRequests(maxKeepAliveRequests);
+        }
+        if (acceptBacklog > 0) {
+            tuned = tuned.option(ChannelOption.SO_BACKLOG, acceptBacklog);
+        }
+        if (maxConnections > 0) {
+            // One count per server; connections over the limit are closed on accept
+            AtomicInteger open = new AtomicInteger();
+            tuned = tuned.doOnChannelInit((observer, channel, remoteAddress) -> {
+                channel.closeFuture().addListener(future -> open.decrementAndGet());
+                if (open.incrementAndGet() > maxConnections) {
+                    channel.close();
+                }
+            });
+        }
+        return tuned;
+    }
+
+    /** Applies the settings Tomcat has an equivalent for. */
+    public void apply(TomcatReactiveWebServerFactory factory) {
+        if (compressionMinSize >= 0) {
+            Compression compression = new Compression();
+            compression.setEnabled(true);
+            compression.setMinResponseSize(DataSize.ofBytes(compressionMinSize));
+            factory.setCompression(compression);
+        }
+        factory.addConnectorCustomizers(connector -> {
+            if (h2c) {
+                connector.addUpgradeProtocol(new Http2Protocol());
+            }
+            if (connector.getProtocolHandler() instanceof AbstractProtocol<?> protocol) {
+                if (!idleTimeout.isZero()) {
+                    protocol.setKeepAliveTimeout((int) idleTimeout.toMillis());
+                }
+                if (maxConnections > 0) {
+                    protocol.setMaxConnections(maxConnections);
+                }
+                if (acceptBacklog > 0) {
+                    protocol.setAcceptCount(acceptBacklog);
+                }
+            }
+            if (connector.getProtocolHandler() instanceof AbstractHttp11Protocol<?> http && maxKeepAliveRequests > 0) {
+                http.setMaxKeepAliveRequests(maxKeepAliveRequests);
+            }
+        });
+    }
+
+    private synchronized LoopResources loops() {
+        if (selectThreads <= 0 && workerThreads <= 0) {
+            return HttpResources.get();
+        }
+        if (loops == null) {
+            int workers = workerThreads > 0 ? workerThreads : LoopResources.DEFAULT_IO_WORKER_COUNT;
+            loops = selectThreads > 0
+                    ? LoopResources.create("estore-http", selectThreads, workers, true)
+                    : LoopResources.create("estore-http", workers, true);
+        }
+        return loops;
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (loops != null) {
+            loops.disposeLater().block(Duration.ofSeconds(5));
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.evolve.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.embedded.tomcat.TomcatReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Applies {@link HttpServerProfile} to the WebFlux server, whichever
+ * container it runs on. The standalone server on 8081 applies it itself.
+ */
+@Configuration
+public class HttpServerProfileConfig {
+
+    @Bean
+    public WebServerFactoryCustomizer<NettyReactiveWebServerFactory> nettyServerProfile(HttpServerProfile profile) {
+        return factory -> factory.addServerCustomizers(profile::apply);
+    }
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatReactiveWebServerFactory> tomcatServerProfile(HttpServerProfile profile) {
+        return profile::apply;
+    }
+}
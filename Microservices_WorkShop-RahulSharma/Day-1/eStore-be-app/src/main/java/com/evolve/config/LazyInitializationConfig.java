@@ -0,0 +1,21 @@
+package com.evolve.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.sql.init.AbstractScriptDatabaseInitializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Beans that stay eager under {@code spring.main.lazy-initialization}
+ * (the fast-start profile). Nothing injects the schema/data script
+ * initializer, so lazily it would never run and every query would miss
+ * its tables.
+ */
+@Configuration
+public class LazyInitializationConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter eagerDatabaseInitialization() {
+        return LazyInitializationExcludeFilter.forBeanTypes(AbstractScriptDatabaseInitializer.class);
+    }
+}
@@ -0,0 +1,28 @@
+package com.evolve.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.evolve.cache.ProductCache;
+import com.evolve.repository.ProductRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+@Configuration
+public class ProductCacheConfig {
+
+    @Bean
+    public ProductCache productCache(ProductRepository productRepository,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${estore.product-cache.maximum-size:10000}") long maximumSize,
+                                     @Value("${estore.product-cache.ttl:10m}") Duration ttl) {
+        ProductCache productCache = new ProductCache(productRepository, maximumSize, ttl);
+        // cache_gets{result=hit|miss}, cache_evictions, cache_size tagged cache=products
+        CaffeineCacheMetrics.monitor(meterRegistry, productCache.cache(), "products");
+        return productCache;
+    }
+}
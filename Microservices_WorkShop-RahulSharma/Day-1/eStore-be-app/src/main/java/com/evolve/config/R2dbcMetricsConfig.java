@@ -0,0 +1,19 @@
+package com.evolve.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.evolve.metrics.R2dbcMetricsPostProcessor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class R2dbcMetricsConfig {
+
+    // static so the post-processor does not pull this configuration in early
+    @Bean
+    public static R2dbcMetricsPostProcessor r2dbcMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new R2dbcMetricsPostProcessor(meterRegistry);
+    }
+}
@@ -1,32 +1,123 @@
 package com.evolve.config;
 
+import java.util.Map;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
 import org.springframework.http.codec.json.Jackson2JsonEncoder;
 import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.util.MimeType;
 
+import com.evolve.codec.GeneratedJsonModule;
+import com.evolve.codec.ProtobufFallbackWriter;
+import com.evolve.codec.ProtobufModelDecoder;
+import com.evolve.codec.ProtobufModelEncoder;
 import com.evolve.codec.UserDeserializer;
 import com.evolve.codec.UserSerializer;
 import com.evolve.model.Usr;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.codec.ServerCodecConfigurer;
 import org.springframework.web.reactive.config.WebFluxConfigurer;
 import org.springframework.context.annotation.Bean;
 
+/**
+ * JSON is the default body format. Clients that send or accept
+ * {@code application/cbor}, {@code application/x-jackson-smile} or
+ * {@code application/x-protobuf} get a binary body instead (see
+ * {@link BinaryContentNegotiationFilter} for the response side). CBOR and
+ * Smile carry every body with the same Jackson module as JSON, protobuf
+ * only the model entities; other bodies asked for as protobuf go out as
+ * JSON or text through {@link ProtobufFallbackWriter}.
+ *
+ * <p>The model and DTO classes marked {@code @JsonCodec} are written and
+ * read by codecs generated at compile time ({@link GeneratedJsonModule})
+ * rather than Jackson's reflective bean codecs. {@code Usr} keeps its
+ * hand-written codec.
+ */
 @Configuration
 public class WebFluxConfig implements WebFluxConfigurer {
 
+    public static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+    private static final MediaType SMILE_STREAM = new MediaType("application", "stream+x-jackson-smile");
+
     @Override
     public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
         ObjectMapper mapper = customObjectMapper();
-        configurer.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(mapper));
+        Jackson2JsonEncoder json = new Jackson2JsonEncoder(mapper);
+        configurer.defaultCodecs().jackson2JsonEncoder(json);
         configurer.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(mapper));
+
+        // Without explicit media types these would claim application/json
+        ObjectMapper smile = withModelCodecs(new ObjectMapper(new SmileFactory()));
+        configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smile, SMILE, SMILE_STREAM));
+        configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smile, SMILE, SMILE_STREAM));
+
+        ObjectMapper cbor = withModelCodecs(new ObjectMapper(new CBORFactory()));
+        configurer.customCodecs().register(new ExplicitCborEncoder(cbor));
+        configurer.customCodecs().register(new Jackson2CborDecoder(cbor, MediaType.APPLICATION_CBOR));
+        configurer.customCodecs().register(new ProtobufModelEncoder());
+        configurer.customCodecs().register(new ProtobufModelDecoder());
+        configurer.customCodecs().register(new ProtobufFallbackWriter(json));
     }
 
     @Bean
     public ObjectMapper customObjectMapper() {
-        ObjectMapper mapper = new ObjectMapper();
+        return withModelCodecs(new ObjectMapper());
+    }
+
+    /**
+     * Custom codecs are tried before the default JSON one, and a Jackson
+     * encoder accepts a response with no content type yet, so CBOR has to
+     * be asked for by name to keep JSON the default. Spring's CBOR encoder
+     * only encodes single values; a stream goes out as one indefinite-length
+     * CBOR array, each element written as it arrives, so a long or endless
+     * stream is never held in memory and still decodes as a plain array.
+     */
+    private static class ExplicitCborEncoder extends Jackson2CborEncoder {
+
+        private static final byte START_INDEFINITE_ARRAY = (byte) 0x9F;
+        private static final byte BREAK = (byte) 0xFF;
+
+        ExplicitCborEncoder(ObjectMapper mapper) {
+            super(mapper, MediaType.APPLICATION_CBOR);
+        }
+
+        @Override
+        public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
+            return mimeType != null && super.canEncode(elementType, mimeType);
+        }
+
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                       ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+            if (inputStream instanceof Mono<?> mono) {
+                return mono.map(body -> encodeValue(body, bufferFactory, ResolvableType.forInstance(body), mimeType, hints))
+                        .flux();
+            }
+            return Flux.concat(
+                    Mono.fromSupplier(() -> bufferFactory.wrap(new byte[] {START_INDEFINITE_ARRAY})),
+                    Flux.from(inputStream).map(element -> encodeValue(element, bufferFactory, elementType, mimeType, hints)),
+                    Mono.fromSupplier(() -> bufferFactory.wrap(new byte[] {BREAK})));
+        }
+    }
+
+    private static ObjectMapper withModelCodecs(ObjectMapper mapper) {
+        mapper.registerModule(new GeneratedJsonModule());
         SimpleModule module = new SimpleModule();
         module.addSerializer(Usr.class, new UserSerializer());
         module.addDeserializer(Usr.class, new UserDeserializer());
@@ -34,4 +125,3 @@ public class WebFluxConfig implements WebFluxConfigurer {
         return mapper;
     }
 }
-
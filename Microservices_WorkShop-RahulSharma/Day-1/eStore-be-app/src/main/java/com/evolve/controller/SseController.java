@@ -6,13 +6,16 @@ import reactor.core.publisher.Flux;
 
 import java.time.Duration;
 
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
 @RestController
 public class SseController {
 
     @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public Flux<String> streamEvents() {
         return Flux.interval(Duration.ofSeconds(1))
-                   .map(seq -> {System.out.println("SSE event #" + seq);return "SSE event #" + seq;});
+                   .map(seq -> {log.debug("SSE event #{}", seq);return "SSE event #" + seq;});
     }
 }
 
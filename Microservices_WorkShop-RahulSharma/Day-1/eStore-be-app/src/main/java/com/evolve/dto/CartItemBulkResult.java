@@ -0,0 +1,30 @@
+package com.evolve.dto;
+
+import com.evolve.codegen.JsonCodec;
+
+import lombok.Data;
+
+@JsonCodec
+@Data
+public class CartItemBulkResult {
+    private Long index;     // position of the row in the uploaded stream
+    private String status;  // created, failed
+    private Long id;
+    private String error;
+
+    public static CartItemBulkResult created(Long index, Long id) {
+        CartItemBulkResult result = new CartItemBulkResult();
+        result.setIndex(index);
+        result.setStatus("created");
+        result.setId(id);
+        return result;
+    }
+
+    public static CartItemBulkResult failed(Long index, String error) {
+        CartItemBulkResult result = new CartItemBulkResult();
+        result.setIndex(index);
+        result.setStatus("failed");
+        result.setError(error);
+        return result;
+    }
+}
@@ -1,9 +1,11 @@
 package com.evolve.dto;
 
+import com.evolve.codegen.JsonCodec;
 import com.evolve.model.Product;
 
 import lombok.Data;
 
+@JsonCodec
 @Data
 public class CartItemWithProduct {
     private Long id;
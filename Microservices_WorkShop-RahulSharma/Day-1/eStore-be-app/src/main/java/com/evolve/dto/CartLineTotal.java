@@ -0,0 +1,16 @@
+package com.evolve.dto;
+
+import com.evolve.codegen.JsonCodec;
+
+import lombok.Data;
+
+@JsonCodec
+@Data
+public class CartLineTotal {
+    private Long itemId;
+    private Long productId;
+    private String productName;
+    private Integer quantity;
+    private Double unitPrice;
+    private Double lineTotal;
+}
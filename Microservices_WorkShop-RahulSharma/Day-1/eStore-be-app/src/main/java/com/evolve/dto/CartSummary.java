@@ -0,0 +1,28 @@
+package com.evolve.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.evolve.codegen.JsonCodec;
+
+import lombok.Data;
+
+@JsonCodec
+@Data
+public class CartSummary {
+    private Long cartId;
+    private Integer lineCount;
+    private Integer itemCount;  // sum of quantities
+    private Double subtotal;
+    private List<CartLineTotal> lines = new ArrayList<>();
+
+    public static CartSummary of(Long cartId, List<CartLineTotal> lines, int itemCount, double subtotal) {
+        CartSummary summary = new CartSummary();
+        summary.setCartId(cartId);
+        summary.setLines(lines);
+        summary.setLineCount(lines.size());
+        summary.setItemCount(itemCount);
+        summary.setSubtotal(subtotal);
+        return summary;
+    }
+}
@@ -0,0 +1,122 @@
+package com.evolve.grpc;
+
+import com.evolve.codec.ProtobufModels;
+import com.evolve.dto.CartItemWithProduct;
+import com.evolve.repository.CartItemRepository;
+import com.evolve.repository.CartRepository;
+import com.evolve.service.CartItemEnricher;
+import com.evolve.service.CartUpdateStream;
+
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+import net.devh.boot.grpc.server.service.GrpcService;
+
+import org.springframework.beans.factory.annotation.Value;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * gRPC side of the cart routes, for internal services: the same
+ * repositories and product enrichment as {@code CartHandler} and
+ * {@code CartItemHandler}, without JSON or HTTP/1.1. Every response stream
+ * is fed through {@link ReactiveBridge}, so rows are only read as fast as
+ * the client takes them. Items go out {@code page-size} to a message (a
+ * client may ask for up to {@code max-page-size}), each page enriched on
+ * its own: gRPC's per-message cost is several times that of encoding one
+ * small item.
+ */
+@Slf4j
+@GrpcService
+public class CartServiceImpl extends CartServiceGrpc.CartServiceImplBase {
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final CartItemEnricher enricher;
+    private final CartUpdateStream cartUpdates;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public CartServiceImpl(CartRepository cartRepository, CartItemRepository cartItemRepository,
+                           CartItemEnricher enricher, CartUpdateStream cartUpdates,
+                           @Value("${estore.cart-grpc.page-size:100}") int defaultPageSize,
+                           @Value("${estore.cart-grpc.max-page-size:1000}") int maxPageSize) {
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.enricher = enricher;
+        this.cartUpdates = cartUpdates;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @Override
+    public void getCart(CartProto.GetCartRequest request, StreamObserver<ModelProto.Cart> responseObserver) {
+        ReactiveBridge.unary(cartRepository.findById(request.getCartId()).map(ProtobufModels::cart),
+                responseObserver,
+                Status.NOT_FOUND.withDescription("Cart not found: " + request.getCartId()));
+    }
+
+    @Override
+    public void listCartItems(CartProto.ListCartItemsRequest request,
+                              StreamObserver<CartProto.CartItemPage> responseObserver) {
+        int pageSize = request.getPageSize() > 0 ? Math.min(request.getPageSize(), maxPageSize) : defaultPageSize;
+        // Page the rows before enriching, one product lookup per page, so demand reaches the query
+        ReactiveBridge.stream(cartItemRepository.findAllByCartId(request.getCartId())
+                .buffer(pageSize)
+                .concatMap(page -> enricher.enrich(page)
+                        .map(CartServiceImpl::cartItem)
+                        .collectList()
+                        .map(items -> CartProto.CartItemPage.newBuilder().addAllItems(items).build()), 1),
+                responseObserver);
+    }
+
+    // Per user, the latest request wins: watching switches to that user's updates, unwatching to nothing
+    @Override
+    public StreamObserver<CartProto.WatchCartRequest> watchCart(StreamObserver<ModelProto.Cart> responseObserver) {
+        Sinks.Many<CartProto.WatchCartRequest> requests = Sinks.many().unicast().onBackpressureBuffer();
+        Sinks.Empty<Void> halfClosed = Sinks.empty();
+
+        ReactiveBridge.stream(requests.asFlux()
+                .groupBy(CartProto.WatchCartRequest::getUserId)
+                .flatMap(user -> user.switchMap(request -> request.getUnwatch()
+                        ? Flux.empty()
+                        // Only the newest cart matters to a client that falls behind
+                        : cartUpdates.updates(request.getUserId()).onBackpressureLatest()), Integer.MAX_VALUE)
+                .map(ProtobufModels::cart)
+                .takeUntilOther(halfClosed.asMono()), responseObserver);
+
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(CartProto.WatchCartRequest request) {
+                requests.tryEmitNext(request);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                log.debug("WatchCart stream failed", t);
+                requests.tryEmitError(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                halfClosed.tryEmitEmpty();
+            }
+        };
+    }
+
+    private static CartProto.CartItemWithProduct cartItem(CartItemWithProduct item) {
+        CartProto.CartItemWithProduct.Builder builder = CartProto.CartItemWithProduct.newBuilder()
+                .setProduct(ProtobufModels.product(item.getProduct()));
+        if (item.getId() != null) {
+            builder.setId(item.getId());
+        }
+        if (item.getCartId() != null) {
+            builder.setCartId(item.getCartId());
+        }
+        if (item.getQuantity() != null) {
+            builder.setQuantity(item.getQuantity());
+        }
+        return builder.build();
+    }
+}
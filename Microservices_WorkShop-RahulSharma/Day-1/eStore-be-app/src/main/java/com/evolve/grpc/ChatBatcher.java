@@ -0,0 +1,166 @@
+package com.evolve.grpc;
+
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client side of {@code chatBatch} that still speaks single messages:
+ * requests are collected and sent as a {@link ChatProto.ChatBatch} once
+ * {@code maxBatch} are waiting or the oldest has waited {@code linger},
+ * and reply batches are handed on one message at a time.
+ *
+ * <p>Flow control passes straight through, so {@link #isReady()} is the
+ * transport's and {@link #request(int)} counts reply batches, not messages.
+ */
+public final class ChatBatcher extends ClientCallStreamObserver<ChatProto.ChatMessage> {
+
+    private final ClientCallStreamObserver<ChatProto.ChatBatch> batches;
+    private final int maxBatch;
+    private final long lingerNanos;
+    private final ScheduledExecutorService scheduler;
+    private List<ChatProto.ChatMessage> pending;
+    private ScheduledFuture<?> lingering;
+
+    private ChatBatcher(ClientCallStreamObserver<ChatProto.ChatBatch> batches, int maxBatch, Duration linger,
+                        ScheduledExecutorService scheduler) {
+        this.batches = batches;
+        this.maxBatch = maxBatch;
+        this.lingerNanos = linger.toNanos();
+        this.scheduler = scheduler;
+        this.pending = new ArrayList<>(maxBatch);
+    }
+
+    /** Opens a {@code chatBatch} call that {@code responses} sees as a stream of single messages. */
+    public static ChatBatcher chat(ChatServiceGrpc.ChatServiceStub stub,
+                                   ClientResponseObserver<ChatProto.ChatMessage, ChatProto.ChatMessage> responses,
+                                   int maxBatch, Duration linger, ScheduledExecutorService scheduler) {
+        Replies replies = new Replies(responses, maxBatch, linger, scheduler);
+        stub.chatBatch(replies);
+        return replies.batcher;
+    }
+
+    @Override
+    public synchronized void onNext(ChatProto.ChatMessage message) {
+        pending.add(message);
+        if (pending.size() >= maxBatch) {
+            flush();
+        } else if (lingering == null) {
+            lingering = scheduler.schedule(this::flush, lingerNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /** Sends whatever is waiting now, without waiting for the batch to fill. */
+    public synchronized void flush() {
+        if (lingering != null) {
+            lingering.cancel(false);
+            lingering = null;
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        ChatProto.ChatBatch batch = ChatBatches.encode(pending);
+        pending = new ArrayList<>(maxBatch);
+        batches.onNext(batch);
+    }
+
+    @Override
+    public synchronized void onError(Throwable t) {
+        discard();
+        batches.onError(t);
+    }
+
+    @Override
+    public synchronized void onCompleted() {
+        flush();
+        batches.onCompleted();
+    }
+
+    @Override
+    public synchronized void cancel(String message, Throwable cause) {
+        discard();
+        batches.cancel(message, cause);
+    }
+
+    @Override
+    public boolean isReady() {
+        return batches.isReady();
+    }
+
+    @Override
+    public void setOnReadyHandler(Runnable onReadyHandler) {
+        batches.setOnReadyHandler(onReadyHandler);
+    }
+
+    @Override
+    public void disableAutoInboundFlowControl() {
+        batches.disableAutoInboundFlowControl();
+    }
+
+    @Override
+    public void disableAutoRequestWithInitial(int request) {
+        batches.disableAutoRequestWithInitial(request);
+    }
+
+    @Override
+    public void request(int count) {
+        batches.request(count);
+    }
+
+    @Override
+    public void setMessageCompression(boolean enable) {
+        batches.setMessageCompression(enable);
+    }
+
+    private void discard() {
+        if (lingering != null) {
+            lingering.cancel(false);
+            lingering = null;
+        }
+        pending.clear();
+    }
+
+    private static final class Replies implements ClientResponseObserver<ChatProto.ChatBatch, ChatProto.ChatBatch> {
+
+        private final ClientResponseObserver<ChatProto.ChatMessage, ChatProto.ChatMessage> responses;
+        private final int maxBatch;
+        private final Duration linger;
+        private final ScheduledExecutorService scheduler;
+        private ChatBatcher batcher;
+
+        Replies(ClientResponseObserver<ChatProto.ChatMessage, ChatProto.ChatMessage> responses, int maxBatch,
+                Duration linger, ScheduledExecutorService scheduler) {
+            this.responses = responses;
+            this.maxBatch = maxBatch;
+            this.linger = linger;
+            this.scheduler = scheduler;
+        }
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<ChatProto.ChatBatch> requestStream) {
+            batcher = new ChatBatcher(requestStream, maxBatch, linger, scheduler);
+            responses.beforeStart(batcher);
+        }
+
+        @Override
+        public void onNext(ChatProto.ChatBatch batch) {
+            ChatBatches.decode(batch).forEach(responses::onNext);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            responses.onError(t);
+        }
+
+        @Override
+        public void onCompleted() {
+            responses.onCompleted();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.evolve.grpc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Packs chat messages into a {@link ChatProto.ChatBatch} and back. The
+ * batch's user is the first message's, and an entry only carries a user
+ * that differs from it. Timestamps become signed deltas, so a run of
+ * messages from one user a few milliseconds apart, in whatever order,
+ * costs little more than their texts.
+ */
+public final class ChatBatches {
+
+    private ChatBatches() {
+    }
+
+    public static ChatProto.ChatBatch encode(List<ChatProto.ChatMessage> messages) {
+        ChatProto.ChatBatch.Builder batch = ChatProto.ChatBatch.newBuilder();
+        if (messages.isEmpty()) {
+            return batch.build();
+        }
+        String user = messages.get(0).getUser();
+        long previous = messages.get(0).getTimestamp();
+        batch.setUser(user).setBaseTimestamp(previous);
+        for (ChatProto.ChatMessage message : messages) {
+            ChatProto.ChatBatch.Entry.Builder entry = ChatProto.ChatBatch.Entry.newBuilder()
+                    .setText(message.getText())
+                    .setTimestampDelta(message.getTimestamp() - previous);
+            if (!user.equals(message.getUser())) {
+                entry.setUser(message.getUser());
+            }
+            batch.addMessages(entry);
+            previous = message.getTimestamp();
+        }
+        return batch.build();
+    }
+
+    public static List<ChatProto.ChatMessage> decode(ChatProto.ChatBatch batch) {
+        List<ChatProto.ChatMessage> messages = new ArrayList<>(batch.getMessagesCount());
+        long timestamp = batch.getBaseTimestamp();
+        for (ChatProto.ChatBatch.Entry entry : batch.getMessagesList()) {
+            timestamp += entry.getTimestampDelta();
+            messages.add(ChatProto.ChatMessage.newBuilder()
+                    .setUser(entry.hasUser() ? entry.getUser() : batch.getUser())
+                    .setText(entry.getText())
+                    .setTimestamp(timestamp)
+                    .build());
+        }
+        return messages;
+    }
+}
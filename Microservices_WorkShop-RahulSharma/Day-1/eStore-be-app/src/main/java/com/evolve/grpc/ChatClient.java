@@ -1,21 +1,27 @@
 package com.evolve.grpc;
 
-import io.grpc.ManagedChannel;
-import io.grpc.ManagedChannelBuilder;
+import io.grpc.Channel;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
 import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ChatClient {
 
+    private static final Duration BATCH_LINGER = Duration.ofMillis(5);
+
     private final ChatServiceGrpc.ChatServiceStub stub;
 
-    public ChatClient(String host, int port) {
-        ManagedChannel channel = ManagedChannelBuilder.forAddress(host, port)
-                .usePlaintext()
-                .build();
+    public ChatClient(Channel channel) {
         stub = ChatServiceGrpc.newStub(channel);
     }
 
@@ -61,7 +67,134 @@ public class ChatClient {
         latch.await(1, TimeUnit.MINUTES);
     }
 
+    /**
+     * Load generator: offers {@code rate} messages a second for
+     * {@code seconds}, sending only while the stream is ready, and reads
+     * replies at {@code readRate} a second (0 reads as fast as they come).
+     * Prints a line a second; with a slow reader the send rate should drop
+     * to what the server can hand back, and neither heap should grow (watch
+     * the server's {@code jvm.memory.used} alongside). With {@code batch}
+     * above 0 the messages go over {@code chatBatch}, up to that many (or
+     * 5 ms' worth) at a time, and {@code readRate} counts reply batches.
+     */
+    public void load(int rate, int seconds, int readRate, int batch) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicLong replies = new AtomicLong();
+        AtomicLong echoes = new AtomicLong();
+        ClientResponseObserver<ChatProto.ChatMessage, ChatProto.ChatMessage> responseObserver = new ClientResponseObserver<>() {
+            @Override
+            public void beforeStart(ClientCallStreamObserver<ChatProto.ChatMessage> requestStream) {
+                if (readRate > 0) {
+                    requestStream.disableAutoRequestWithInitial(0);
+                }
+            }
+            @Override
+            public void onNext(ChatProto.ChatMessage message) {
+                replies.incrementAndGet();
+                echoes.addAndGet(message.getText().lines().count());
+            }
+            @Override
+            public void onError(Throwable t) {
+                t.printStackTrace();
+                latch.countDown();
+            }
+            @Override
+            public void onCompleted() {
+                latch.countDown();
+            }
+        };
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        ClientCallStreamObserver<ChatProto.ChatMessage> requests = batch > 0
+                ? ChatBatcher.chat(stub, responseObserver, batch, BATCH_LINGER, scheduler)
+                : (ClientCallStreamObserver<ChatProto.ChatMessage>) stub.chat(responseObserver);
+
+        ChatProto.ChatMessage message = ChatProto.ChatMessage.newBuilder()
+                .setUser("LoadUser")
+                .setText("load")
+                .setTimestamp(Instant.now().toEpochMilli())
+                .build();
+        LoadTicker ticker = new LoadTicker(requests, message, rate, readRate, replies, echoes);
+        scheduler.scheduleAtFixedRate(ticker, 0, 1000 / LoadTicker.TICKS_PER_SECOND, TimeUnit.MILLISECONDS);
+        Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+        scheduler.shutdown();
+        scheduler.awaitTermination(1, TimeUnit.SECONDS);
+
+        // Flushes the batch still lingering, if any
+        requests.onCompleted();
+        if (readRate > 0) {
+            requests.request(Integer.MAX_VALUE);
+        }
+        latch.await(1, TimeUnit.MINUTES);
+        System.out.printf("sent %,d, echoed back %,d in %,d replies%n", ticker.sent, echoes.get(), replies.get());
+    }
+
+    /** One load step every 10 ms, always on the scheduler thread. */
+    private static final class LoadTicker implements Runnable {
+
+        static final int TICKS_PER_SECOND = 100;
+
+        private final ClientCallStreamObserver<ChatProto.ChatMessage> requests;
+        private final ChatProto.ChatMessage message;
+        private final int rate;
+        private final int readRate;
+        private final AtomicLong replies;
+        private final AtomicLong echoes;
+        private long due;
+        private long ticks;
+        private volatile long sent;
+
+        LoadTicker(ClientCallStreamObserver<ChatProto.ChatMessage> requests, ChatProto.ChatMessage message,
+                   int rate, int readRate, AtomicLong replies, AtomicLong echoes) {
+            this.requests = requests;
+            this.message = message;
+            this.rate = rate;
+            this.readRate = readRate;
+            this.replies = replies;
+            this.echoes = echoes;
+        }
+
+        @Override
+        public void run() {
+            // What can't be sent in time is skipped rather than saved up beyond one second's worth
+            due = Math.min(due + rate / TICKS_PER_SECOND, rate);
+            while (due > 0 && requests.isReady()) {
+                requests.onNext(message);
+                sent++;
+                due--;
+            }
+            if (readRate > 0) {
+                requests.request(Math.max(1, readRate / TICKS_PER_SECOND));
+            }
+            if (++ticks % TICKS_PER_SECOND == 0) {
+                Runtime runtime = Runtime.getRuntime();
+                System.out.printf("%3ds sent %,10d  replies %,10d  echoes %,10d  heap %,d MB%n",
+                        ticks / TICKS_PER_SECOND, sent, replies.get(), echoes.get(),
+                        (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+            }
+        }
+    }
+
+    // ChatClient [load <msgs/sec> <seconds> [<replies read/sec> [<batch size>]]]
+    // -Dchat.target=localhost:9090,localhost:9091 spreads streams over several servers
     public static void main(String[] args) throws InterruptedException {
-        new ChatClient("localhost", 9090).startChat();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        GrpcChannels channels = new GrpcChannels(registry, Duration.ofSeconds(30), Duration.ofSeconds(10), false,
+                GrpcChannels.Executor.DEFAULT, 0);
+        try {
+            ChatClient client = new ChatClient(channels.channel(System.getProperty("chat.target", "localhost:9090")));
+            if (args.length > 0 && "load".equals(args[0])) {
+                client.load(Integer.parseInt(args[1]), Integer.parseInt(args[2]),
+                        args.length > 3 ? Integer.parseInt(args[3]) : 0,
+                        args.length > 4 ? Integer.parseInt(args[4]) : 0);
+            } else {
+                client.startChat();
+            }
+        } finally {
+            channels.stop();
+        }
+        for (Timer calls : registry.find("grpc.channel.calls").timers()) {
+            System.out.printf("%s %s: %d calls, mean %.1f ms%n", calls.getId().getTag("method"),
+                    calls.getId().getTag("status"), calls.count(), calls.mean(TimeUnit.MILLISECONDS));
+        }
     }
 }
@@ -1,40 +1,214 @@
 package com.evolve.grpc;
 
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 import net.devh.boot.grpc.server.service.GrpcService;
 
-import java.time.Instant;
+import org.springframework.beans.factory.annotation.Value;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Echo chat that respects gRPC flow control in both directions.
+ *
+ * <p>Inbound messages are requested {@code window} at a time, and only while
+ * fewer than {@code max-queued} replies wait to be sent, so a client that
+ * reads slowly is made to send slowly instead of piling replies up in
+ * Netty. Replies are sent from the ready handler while the transport takes
+ * them. {@code chat} always answers one message with one message. On
+ * {@code chatBatch}, when several reply batches are waiting, up to
+ * {@code max-coalesce} of them are merged into one, which keeps every
+ * entry with its own text and timestamp.
+ *
+ * <p>gRPC runs a call's observer and ready callbacks one at a time, so the
+ * per-call state needs no locking.
+ */
+@Slf4j
 @GrpcService
 public class ChatServiceImpl extends ChatServiceGrpc.ChatServiceImplBase {
 
+    private final int window;
+    private final int maxQueued;
+    private final int maxCoalesce;
+
+    private final Counter received;
+    private final Counter sent;
+    private final Counter coalesced;
+
+    public ChatServiceImpl(MeterRegistry meterRegistry,
+                           @Value("${estore.chat.grpc.window:64}") int window,
+                           @Value("${estore.chat.grpc.max-queued:256}") int maxQueued,
+                           @Value("${estore.chat.grpc.max-coalesce:32}") int maxCoalesce) {
+        this.window = window;
+        this.maxQueued = maxQueued;
+        this.maxCoalesce = maxCoalesce;
+
+        this.received = meterRegistry.counter("chat.grpc.messages", "direction", "in");
+        this.sent = meterRegistry.counter("chat.grpc.messages", "direction", "out");
+        this.coalesced = meterRegistry.counter("chat.grpc.coalesced");
+    }
+
     @Override
     public StreamObserver<ChatProto.ChatMessage> chat(
             StreamObserver<ChatProto.ChatMessage> responseObserver) {
 
-        return new StreamObserver<>() {
+        // One reply per message: joining texts would lose message boundaries and timestamps
+        return start(responseObserver, new EchoStream<ChatProto.ChatMessage, ChatProto.ChatMessage>(1) {
             @Override
-            public void onNext(ChatProto.ChatMessage request) {
-                System.out.println("Received: " + request.getUser() + ": " + request.getText());
+            ChatProto.ChatMessage reply(ChatProto.ChatMessage request) {
+                log.debug("Received: {}: {}", request.getUser(), request.getText());
+                return echo(request);
+            }
 
-                // Echo message back
-                ChatProto.ChatMessage reply = ChatProto.ChatMessage.newBuilder()
-                        .setUser("Server")
-                        .setText("Echo: " + request.getText())
-                        .setTimestamp(Instant.now().toEpochMilli())
-                        .build();
-                responseObserver.onNext(reply);
+            @Override
+            int count(ChatProto.ChatMessage message) {
+                return 1;
             }
+        });
+    }
 
+    /**
+     * The same echo with many messages per stream message: each inbound batch
+     * is answered by one batch of echoes, and queued reply batches are merged
+     * rather than their texts joined.
+     */
+    @Override
+    public StreamObserver<ChatProto.ChatBatch> chatBatch(
+            StreamObserver<ChatProto.ChatBatch> responseObserver) {
+
+        return start(responseObserver, new EchoStream<ChatProto.ChatBatch, ChatProto.ChatBatch>(maxCoalesce) {
             @Override
-            public void onError(Throwable t) {
-                t.printStackTrace();
+            ChatProto.ChatBatch reply(ChatProto.ChatBatch request) {
+                log.debug("Received batch: {}: {} messages", request.getUser(), request.getMessagesCount());
+                return ChatBatches.encode(ChatBatches.decode(request).stream().map(ChatServiceImpl::echo).toList());
             }
 
             @Override
-            public void onCompleted() {
-                responseObserver.onCompleted();
+            ChatProto.ChatBatch merge(List<ChatProto.ChatBatch> queued) {
+                return ChatBatches.encode(queued.stream().flatMap(batch -> ChatBatches.decode(batch).stream()).toList());
+            }
+
+            @Override
+            int count(ChatProto.ChatBatch batch) {
+                return batch.getMessagesCount();
+            }
+        });
+    }
+
+    private <I, O> StreamObserver<I> start(StreamObserver<O> responseObserver, EchoStream<I, O> stream) {
+        ServerCallStreamObserver<O> call = (ServerCallStreamObserver<O>) responseObserver;
+        stream.call = call;
+        call.disableAutoRequest();
+        call.setOnReadyHandler(stream::onReady);
+        call.setOnCancelHandler(stream::onCancel);
+        stream.requestMore();
+        return stream;
+    }
+
+    private static ChatProto.ChatMessage echo(ChatProto.ChatMessage request) {
+        return ChatProto.ChatMessage.newBuilder()
+                .setUser("Server")
+                .setText("Echo: " + request.getText())
+                .setTimestamp(System.currentTimeMillis())
+                .build();
+    }
+
+    /**
+     * Flow control for one call, whatever its message type: {@code reply}
+     * answers one inbound message, {@code merge} coalesces up to
+     * {@code coalesceLimit} queued replies (only called when that is above
+     * one) and {@code count} says how many chat messages one carries.
+     */
+    private abstract class EchoStream<I, O> implements StreamObserver<I> {
+
+        private ServerCallStreamObserver<O> call;
+        private final int coalesceLimit;
+        private final Queue<O> replies = new ArrayDeque<>();
+        private int outstanding;
+        private boolean halfClosed;
+        private boolean done;
+
+        EchoStream(int coalesceLimit) {
+            this.coalesceLimit = coalesceLimit;
+        }
+
+        abstract O reply(I request);
+
+        O merge(List<O> queued) {
+            throw new UnsupportedOperationException("Replies on this call are not coalesced");
+        }
+
+        abstract int count(O message);
+
+        @Override
+        public void onNext(I request) {
+            outstanding--;
+            O reply = reply(request);
+            received.increment(count(reply));
+
+            replies.add(reply);
+            drain();
+            requestMore();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            log.warn("Chat stream failed", t);
+            done = true;
+            replies.clear();
+        }
+
+        @Override
+        public void onCompleted() {
+            halfClosed = true;
+            drain();
+        }
+
+        void onReady() {
+            drain();
+            requestMore();
+        }
+
+        void onCancel() {
+            done = true;
+            replies.clear();
+        }
+
+        // Tops the inbound window back up once half of it is used, if the replies have room
+        void requestMore() {
+            if (done || halfClosed || replies.size() >= maxQueued || outstanding > window / 2) {
+                return;
+            }
+            int more = window - outstanding;
+            outstanding += more;
+            call.request(more);
+        }
+
+        private void drain() {
+            while (!done && !replies.isEmpty() && call.isReady()) {
+                O reply = replies.size() > 1 && coalesceLimit > 1 ? coalesce() : replies.poll();
+                call.onNext(reply);
+                sent.increment(count(reply));
+            }
+            if (!done && halfClosed && replies.isEmpty()) {
+                done = true;
+                call.onCompleted();
+            }
+        }
+
+        private O coalesce() {
+            List<O> queued = new ArrayList<>(Math.min(replies.size(), coalesceLimit));
+            while (queued.size() < coalesceLimit && !replies.isEmpty()) {
+                queued.add(replies.poll());
             }
-        };
+            coalesced.increment(queued.size() - 1);
+            return merge(queued);
+        }
     }
 }
@@ -0,0 +1,195 @@
+package com.evolve.grpc;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.nio.NioEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.socket.nio.NioSocketChannel;
+import io.grpc.netty.shaded.io.netty.util.concurrent.DefaultThreadFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The gRPC client channels of this process: one {@link ManagedChannel} per
+ * target, built on first use and shared by every stub after that, and shut
+ * down with the application rather than leaked per client.
+ *
+ * <p>A target is one address or several, comma separated
+ * ({@code localhost:9090,localhost:9091}); calls are spread round-robin over
+ * them, one subchannel (HTTP/2 connection) each. Connections send keep-alive
+ * pings every {@code keep-alive-time} so idle ones survive NATs and dead
+ * ones are noticed. {@code executor} picks where call callbacks run:
+ * {@code default} is gRPC's shared pool, {@code direct} the transport
+ * thread (fastest, but a callback that blocks stalls the connection), and
+ * {@code event-loop} one event loop group, {@code event-loop-threads} wide,
+ * shared by all channels for their I/O and callbacks.
+ *
+ * <p>Every call is timed as {@code grpc.channel.calls} (target, method and
+ * status), one timer per method and status looked up once and reused, and
+ * {@code grpc.channel.in-flight} gauges the calls and streams still open
+ * per target.
+ *
+ * <p>Once {@link #stop()} has run, asking for a channel fails instead of
+ * opening a new one that nothing would shut down.
+ */
+@Slf4j
+@Component
+public class GrpcChannels {
+
+    public enum Executor {
+        DEFAULT, DIRECT, EVENT_LOOP
+    }
+
+    private final Duration keepAliveTime;
+    private final Duration keepAliveTimeout;
+    private final boolean keepAliveWithoutCalls;
+    private final Executor executor;
+    private final EventLoopGroup eventLoop;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ManagedChannel> channels = new ConcurrentHashMap<>();
+    // Guarded by this, with opening a channel
+    private boolean stopped;
+
+    public GrpcChannels(MeterRegistry meterRegistry,
+                        @Value("${estore.grpc-client.keep-alive-time:30s}") Duration keepAliveTime,
+                        @Value("${estore.grpc-client.keep-alive-timeout:10s}") Duration keepAliveTimeout,
+                        @Value("${estore.grpc-client.keep-alive-without-calls:false}") boolean keepAliveWithoutCalls,
+                        @Value("${estore.grpc-client.executor:default}") Executor executor,
+                        @Value("${estore.grpc-client.event-loop-threads:0}") int eventLoopThreads) {
+        this.meterRegistry = meterRegistry;
+        this.keepAliveTime = keepAliveTime;
+        this.keepAliveTimeout = keepAliveTimeout;
+        this.keepAliveWithoutCalls = keepAliveWithoutCalls;
+        this.executor = executor;
+        this.eventLoop = executor == Executor.EVENT_LOOP
+                ? new NioEventLoopGroup(eventLoopThreads, new DefaultThreadFactory("grpc-client", true))
+                : null;
+    }
+
+    /**
+     * The shared channel for {@code target}, e.g. {@code localhost:9090} or
+     * {@code localhost:9090,localhost:9091}.
+     *
+     * @throws IllegalStateException once the channels have been stopped
+     */
+    public Channel channel(String target) {
+        ManagedChannel channel = channels.get(target);
+        if (channel != null) {
+            return channel;
+        }
+        synchronized (this) {
+            if (stopped) {
+                throw new IllegalStateException("gRPC channels are stopped, not opening one to " + target);
+            }
+            return channels.computeIfAbsent(target, this::open);
+        }
+    }
+
+    private ManagedChannel open(String target) {
+        // "static" is the fixed address list resolver the gRPC client starter registers
+        NettyChannelBuilder builder = NettyChannelBuilder.forTarget("static://" + target)
+                .usePlaintext()
+                .defaultLoadBalancingPolicy("round_robin")
+                .keepAliveTime(keepAliveTime.toNanos(), TimeUnit.NANOSECONDS)
+                .keepAliveTimeout(keepAliveTimeout.toNanos(), TimeUnit.NANOSECONDS)
+                .keepAliveWithoutCalls(keepAliveWithoutCalls)
+                .intercept(new Metrics(target));
+        switch (executor) {
+            case DIRECT -> builder.directExecutor();
+            case EVENT_LOOP -> builder.eventLoopGroup(eventLoop)
+                    .channelType(NioSocketChannel.class)
+                    .executor(eventLoop);
+            case DEFAULT -> {
+            }
+        }
+        log.info("Opening gRPC channel to {} ({} executor)", target, executor);
+        return builder.build();
+    }
+
+    int channelCount() {
+        return channels.size();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        List<ManagedChannel> open;
+        synchronized (this) {
+            stopped = true;
+            open = List.copyOf(channels.values());
+            channels.clear();
+        }
+        open.forEach(ManagedChannel::shutdown);
+        for (ManagedChannel channel : open) {
+            if (!channel.awaitTermination(5, TimeUnit.SECONDS)) {
+                channel.shutdownNow();
+            }
+        }
+        if (eventLoop != null) {
+            eventLoop.shutdownGracefully(0, 5, TimeUnit.SECONDS);
+        }
+    }
+
+    private final class Metrics implements ClientInterceptor {
+
+        private final String target;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Map<CallKey, Timer> timers = new ConcurrentHashMap<>();
+
+        Metrics(String target) {
+            this.target = target;
+            meterRegistry.gauge("grpc.channel.in-flight", Tags.of("target", target), inFlight);
+        }
+
+        @Override
+        public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                                   CallOptions callOptions, Channel next) {
+            return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+                @Override
+                public void start(Listener<RespT> responseListener, Metadata headers) {
+                    Timer.Sample sample = Timer.start(meterRegistry);
+                    inFlight.incrementAndGet();
+                    super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                        @Override
+                        public void onClose(Status status, Metadata trailers) {
+                            inFlight.decrementAndGet();
+                            sample.stop(timer(method.getFullMethodName(), status.getCode()));
+                            super.onClose(status, trailers);
+                        }
+                    }, headers);
+                }
+            };
+        }
+
+        private Timer timer(String method, Status.Code status) {
+            return timers.computeIfAbsent(new CallKey(method, status), key -> meterRegistry.timer("grpc.channel.calls",
+                    "target", target,
+                    "method", key.method(),
+                    "status", key.status().name()));
+        }
+    }
+
+    private record CallKey(String method, Status.Code status) {
+    }
+}
@@ -0,0 +1,81 @@
+package com.evolve.grpc;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.reactivestreams.Subscription;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Answers a gRPC call from a Reactor publisher with demand tied to the
+ * call's readiness: up to {@link #PREFETCH} elements are requested while
+ * the transport takes messages, and none while it does not, so a slow
+ * client slows the query down instead of filling Netty's buffers. A
+ * cancelled call cancels the subscription.
+ */
+final class ReactiveBridge {
+
+    static final int PREFETCH = 32;
+
+    private ReactiveBridge() {
+    }
+
+    static <T> void unary(Mono<T> source, StreamObserver<T> observer, Status ifEmpty) {
+        stream(source.switchIfEmpty(Mono.error(ifEmpty::asRuntimeException)).flux(), observer);
+    }
+
+    static <T> void stream(Flux<T> source, StreamObserver<T> observer) {
+        ServerCallStreamObserver<T> call = (ServerCallStreamObserver<T>) observer;
+        ReadySubscriber<T> subscriber = new ReadySubscriber<>(call);
+        call.setOnCancelHandler(subscriber::dispose);
+        call.setOnReadyHandler(subscriber::requestIfReady);
+        source.subscribe(subscriber);
+    }
+
+    private static final class ReadySubscriber<T> extends BaseSubscriber<T> {
+
+        private final ServerCallStreamObserver<T> call;
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        ReadySubscriber(ServerCallStreamObserver<T> call) {
+            this.call = call;
+        }
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            requestIfReady();
+        }
+
+        @Override
+        protected void hookOnNext(T value) {
+            call.onNext(value);
+            outstanding.decrementAndGet();
+            requestIfReady();
+        }
+
+        @Override
+        protected void hookOnComplete() {
+            call.onCompleted();
+        }
+
+        @Override
+        protected void hookOnError(Throwable error) {
+            call.onError(error instanceof StatusRuntimeException
+                    ? error
+                    : Status.INTERNAL.withDescription(error.getMessage()).withCause(error).asRuntimeException());
+        }
+
+        // Called from the publisher's thread and gRPC's; only the one that finds no demand left asks for more
+        void requestIfReady() {
+            if (!isDisposed() && call.isReady() && outstanding.compareAndSet(0, PREFETCH)) {
+                request(PREFETCH);
+            }
+        }
+    }
+}
@@ -1,45 +1,55 @@
 package com.evolve.handler;
 
-import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.server.*;
 
+import com.evolve.cache.CartCache;
 import com.evolve.model.Cart;
 import com.evolve.repository.CartRepository;
+import com.evolve.service.CartUpdateStream;
+import com.evolve.service.CheckoutService;
 
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.time.Duration;
-
 @Component
 public class CartHandler {
 
     private final CartRepository cartRepository;
 
-    private ReactiveRedisTemplate<String, Cart> redisCartTemplate;
+    private final CartCache cartCache;
+
+    private final CartUpdateStream cartUpdates;
+
+    private final KeysetPagination pagination;
 
+    private final CheckoutService checkoutService;
 
-    public CartHandler(CartRepository cartRepository, ReactiveRedisTemplate<String, Cart> redisCartTemplate) {
+
+    public CartHandler(CartRepository cartRepository, CartCache cartCache, CartUpdateStream cartUpdates,
+                       KeysetPagination pagination, CheckoutService checkoutService) {
         this.cartRepository = cartRepository;
-        this.redisCartTemplate = redisCartTemplate;
+        this.cartCache = cartCache;
+        this.cartUpdates = cartUpdates;
+        this.pagination = pagination;
+        this.checkoutService = checkoutService;
     }
 
     public Mono<ServerResponse> getAll(ServerRequest req) {
-        return ServerResponse.ok().body(cartRepository.findAll(), Cart.class);
+        return pagination.page(req, cartRepository::findByIdGreaterThanOrderById, Cart::getId);
     }
 
     public Mono<ServerResponse> getById(ServerRequest req) {
         Long id = Long.parseLong(req.pathVariable("id"));
-        return cartRepository.findById(id)
+        return cartCache.findById(id)
                 .flatMap(cart -> ServerResponse.ok().bodyValue(cart))
                 .switchIfEmpty(ServerResponse.notFound().build());
     }
 
     public Mono<ServerResponse> getByUserId(ServerRequest req) {
         Long userId = Long.parseLong(req.pathVariable("userId"));
-        return ServerResponse.ok().body(cartRepository.findAllByUserId(userId), Cart.class);
+        return ServerResponse.ok().body(cartCache.findAllByUserId(userId), Cart.class);
     }
 
     public Mono<ServerResponse> create(ServerRequest req) {
@@ -50,11 +60,7 @@ public class CartHandler {
                     return cart;
                 })
                 .flatMap(cartRepository::save)
-                .flatMap(saved ->
-                {
-                    redisCartTemplate.opsForValue().set("cart:" + userId, saved).subscribe();
-                    return ServerResponse.ok().bodyValue(saved);
-                });
+                .flatMap(saved -> cartCache.put(saved).then(ServerResponse.ok().bodyValue(saved)));
     }
 
     public Mono<ServerResponse> update(ServerRequest req) {
@@ -63,30 +69,36 @@ public class CartHandler {
                 cartRepository.findById(id).flatMap(existing -> {
                     existing.setStatus(incoming.getStatus());
                     return cartRepository.save(existing);
-                }).flatMap(updated -> {
+                }).flatMap(updated ->
                     // Saving the Changes to Redis
-                    redisCartTemplate.opsForValue().set("cart:" + updated.getUserId(), updated).subscribe();
-                    return ServerResponse.ok().bodyValue(updated);
-                }).switchIfEmpty(ServerResponse.notFound().build())
+                    cartCache.put(updated).then(ServerResponse.ok().bodyValue(updated))
+                ).switchIfEmpty(ServerResponse.notFound().build())
         );
     }
 
-    // Publish stream by polling every 1s
-    public Mono<ServerResponse> streamCartUpdates(ServerRequest request) {
-        String userId = request.queryParam("userId").orElseThrow();
+    // One transaction: lock and close the cart, create the order; 409 if already checked out
+    public Mono<ServerResponse> checkout(ServerRequest req) {
+        Long id = Long.parseLong(req.pathVariable("id"));
+        return checkoutService.checkout(id)
+                .flatMap(order -> ServerResponse.ok().bodyValue(order))
+                .switchIfEmpty(ServerResponse.notFound().build())
+                .onErrorResume(IllegalStateException.class,
+                        e -> ServerResponse.status(HttpStatus.CONFLICT).bodyValue(e.getMessage()));
+    }
 
-        Flux<Cart> cartStream = Flux.interval(Duration.ofSeconds(1))
-                .flatMap(tick -> redisCartTemplate.opsForValue().get("cart:" + userId))
-                .distinctUntilChanged();
+    // Shared per-user stream fed by Redis pub/sub, current cart first
+    public Mono<ServerResponse> streamCartUpdates(ServerRequest request) {
+        Long userId = Long.parseLong(request.queryParam("userId").orElseThrow());
 
         return ServerResponse.ok()
                 .contentType(MediaType.TEXT_EVENT_STREAM)
-                .body(cartStream, Cart.class);
+                .body(cartUpdates.updates(userId), Cart.class);
     }
 
     public Mono<ServerResponse> delete(ServerRequest req) {
         Long id = Long.parseLong(req.pathVariable("id"));
-        return cartRepository.deleteById(id)
+        return cartRepository.findById(id)
+                .flatMap(cart -> cartRepository.delete(cart).then(cartCache.evict(cart)))
                 .then(ServerResponse.noContent().build());
     }
 }
@@ -1,12 +1,18 @@
 package com.evolve.handler;
 
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.server.*;
 
+import com.evolve.dto.CartItemBulkResult;
 import com.evolve.dto.CartItemWithProduct;
+import com.evolve.dto.CartLineTotal;
+import com.evolve.dto.CartSummary;
 import com.evolve.model.CartItem;
 import com.evolve.repository.CartItemRepository;
-import com.evolve.repository.ProductRepository;
+import com.evolve.repository.CartSummaryRepository;
+import com.evolve.service.CartItemBulkImporter;
+import com.evolve.service.CartItemEnricher;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -15,31 +21,25 @@ import reactor.core.publisher.Mono;
 public class CartItemHandler {
 
     private final CartItemRepository cartItemRepo;
-    private final ProductRepository productRepo;
+    private final CartItemEnricher enricher;
+    private final CartItemBulkImporter bulkImporter;
+    private final CartSummaryRepository summaryRepo;
 
-    public CartItemHandler(CartItemRepository cartItemRepo, ProductRepository productRepo) {
+    public CartItemHandler(CartItemRepository cartItemRepo, CartItemEnricher enricher,
+                           CartItemBulkImporter bulkImporter, CartSummaryRepository summaryRepo) {
         this.cartItemRepo = cartItemRepo;
-        this.productRepo = productRepo;
+        this.enricher = enricher;
+        this.bulkImporter = bulkImporter;
+        this.summaryRepo = summaryRepo;
     }
 
     public Mono<ServerResponse> list(ServerRequest req) {
         Long cartId = Long.parseLong(req.pathVariable("cartId"));
 
-        Flux<CartItemWithProduct> enrichedItems = cartItemRepo.findAllByCartId(cartId)
-            .flatMap(item ->
-                productRepo.findById(item.getProductId())
-                    .switchIfEmpty(Mono.error(new RuntimeException("Product not found: " + item.getProductId())))
-                    .map(product -> {
-                        CartItemWithProduct dto = new CartItemWithProduct();
-                        dto.setId(item.getId());
-                        dto.setCartId(item.getCartId());
-                        dto.setQuantity(item.getQuantity());
-                        dto.setProduct(product);
-                        return dto;
-                    })
-            );
+        // One query for the items, one batched product query per chunk; items are written as they are enriched
+        Flux<CartItemWithProduct> enrichedItems = enricher.enrich(cartItemRepo.findAllByCartId(cartId));
 
-            return ServerResponse.ok().body(enrichedItems, CartItemWithProduct.class)
+        return ServerResponse.ok().body(enrichedItems, CartItemWithProduct.class)
             .onErrorResume(e -> {
                 e.printStackTrace();
                 return ServerResponse.status(500).bodyValue("Internal error: " + e.getMessage());
@@ -47,6 +47,24 @@ public class CartItemHandler {
     }
 
 
+    // Lines and totals come from a single aggregate query; no Product objects leave the database
+    public Mono<ServerResponse> summary(ServerRequest req) {
+        Long cartId = Long.parseLong(req.pathVariable("cartId"));
+        return summaryRepo.findSummary(cartId)
+            .<CartSummary>handle((summary, sink) -> {
+                for (CartLineTotal line : summary.getLines()) {
+                    if (line.getUnitPrice() == null) {
+                        sink.error(new RuntimeException("Product not found: " + line.getProductId()));
+                        return;
+                    }
+                }
+                sink.next(summary);
+            })
+            .flatMap(summary -> ServerResponse.ok().bodyValue(summary))
+            .switchIfEmpty(ServerResponse.notFound().build())
+            .onErrorResume(e -> ServerResponse.status(500).bodyValue("Internal error: " + e.getMessage()));
+    }
+
     public Mono<ServerResponse> add(ServerRequest req) {
         Long cartId = Long.parseLong(req.pathVariable("cartId"));
         return req.bodyToMono(CartItem.class)
@@ -58,6 +76,14 @@ public class CartItemHandler {
                 .flatMap(saved -> ServerResponse.ok().bodyValue(saved));
     }
 
+    // Body is a JSON array or NDJSON, decoded as it arrives; one result line per row
+    public Mono<ServerResponse> addBulk(ServerRequest req) {
+        Long cartId = Long.parseLong(req.pathVariable("cartId"));
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(bulkImporter.importItems(cartId, req.bodyToFlux(CartItem.class)), CartItemBulkResult.class);
+    }
+
     public Mono<ServerResponse> remove(ServerRequest req) {
         Long itemId = Long.parseLong(req.pathVariable("itemId"));
         return cartItemRepo.deleteById(itemId).then(ServerResponse.noContent().build());
@@ -0,0 +1,102 @@
+package com.evolve.handler;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keyset pagination on {@code id} for the list endpoints.
+ *
+ * <p>{@code ?after=<id>&limit=<n>} returns the next {@code n} rows with an id
+ * greater than {@code after}. When more rows follow, the response carries an
+ * {@value #NEXT_CURSOR} header holding the {@code after} value for the next
+ * call. A JSON array page holds at most {@value #MAX_LIMIT} rows.
+ *
+ * <p>With {@code Accept: application/x-ndjson} the rows are streamed one per
+ * line under {@code limitRate} backpressure and a page may hold up to
+ * {@value #MAX_STREAM_LIMIT} rows. The headers go out before the first row,
+ * so there the cursor is not a header: when more rows follow, the last line
+ * is {@code {"nextCursor":<id>}}. It comes from the same query as the rows
+ * (one extra row is read), so the next page starts right after the last row
+ * streamed, whatever was inserted or deleted meanwhile.
+ *
+ * <p>A request without {@code limit} gets {@value #DEFAULT_LIMIT} rows, not
+ * the whole table. Every page carries the limit it was cut at in
+ * {@value #PAGE_LIMIT}, so a caller that never asked for paging can still
+ * tell a short table from a truncated one.
+ */
+@Component
+public class KeysetPagination {
+
+    public static final String NEXT_CURSOR = "X-Next-Cursor";
+    public static final String PAGE_LIMIT = "X-Page-Limit";
+    static final int DEFAULT_LIMIT = 100;
+    static final int MAX_LIMIT = 1000;
+    static final int MAX_STREAM_LIMIT = 100_000;
+    static final int STREAM_RATE = 256;
+
+    /** Last line of a streamed page that has a next page. */
+    public record NextCursor(long nextCursor) {
+    }
+
+    public <T> Mono<ServerResponse> page(ServerRequest req,
+                                         BiFunction<Long, Pageable, Flux<T>> query,
+                                         Function<T, Long> idOf) {
+        boolean stream = req.headers().accept().stream().anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+        long after;
+        int limit;
+        try {
+            after = req.queryParam("after").map(Long::parseLong).orElse(0L);
+            limit = req.queryParam("limit").map(Integer::parseInt).orElse(DEFAULT_LIMIT);
+        } catch (NumberFormatException e) {
+            return ServerResponse.badRequest().bodyValue("after and limit must be numbers");
+        }
+        int maxLimit = stream ? MAX_STREAM_LIMIT : MAX_LIMIT;
+        if (limit < 1 || limit > maxLimit) {
+            return ServerResponse.badRequest().bodyValue("limit must be between 1 and " + maxLimit);
+        }
+
+        int pageSize = limit;
+        if (stream) {
+            Flux<Object> lines = Flux.defer(() -> {
+                long[] lastId = new long[1];
+                return query.apply(after, PageRequest.ofSize(pageSize + 1))
+                        .limitRate(STREAM_RATE)
+                        .index()
+                        .map(row -> {
+                            if (row.getT1() < pageSize) {
+                                lastId[0] = idOf.apply(row.getT2());
+                                return row.getT2();
+                            }
+                            return new NextCursor(lastId[0]);
+                        });
+            });
+            return ServerResponse.ok()
+                    .header(PAGE_LIMIT, String.valueOf(pageSize))
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(lines, Object.class);
+        }
+
+        // One extra row tells us whether another page exists
+        return query.apply(after, PageRequest.ofSize(pageSize + 1)).collectList().flatMap(rows -> {
+            if (rows.size() <= pageSize) {
+                return ServerResponse.ok().header(PAGE_LIMIT, String.valueOf(pageSize)).bodyValue(rows);
+            }
+            List<T> page = rows.subList(0, pageSize);
+            return ServerResponse.ok()
+                    .header(PAGE_LIMIT, String.valueOf(pageSize))
+                    .header(NEXT_CURSOR, String.valueOf(idOf.apply(page.get(pageSize - 1))))
+                    .bodyValue(page);
+        });
+    }
+}
@@ -1,10 +1,7 @@
 package com.evolve.handler;
 
-
-import java.io.IOException;
-
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import org.springframework.web.reactive.function.server.*;
 
 import com.evolve.exception.OrderException;
@@ -19,13 +16,18 @@ import reactor.core.publisher.Mono;
 public class OrderHandler {
 
     private final OrderRepository orderRepository;
+    private final KeysetPagination pagination;
+    private final TransactionalOperator transactionalOperator;
 
-    public OrderHandler(OrderRepository orderRepository) {
+    public OrderHandler(OrderRepository orderRepository, KeysetPagination pagination,
+                        TransactionalOperator transactionalOperator) {
         this.orderRepository = orderRepository;
+        this.pagination = pagination;
+        this.transactionalOperator = transactionalOperator;
     }
 
     public Mono<ServerResponse> getAll(ServerRequest request) {
-        return ServerResponse.ok().body(orderRepository.findAll(), Order.class);
+        return pagination.page(request, orderRepository::findByIdGreaterThanOrderById, Order::getId);
     }
 
     public Mono<ServerResponse> getById(ServerRequest request) {
@@ -39,7 +41,7 @@ public class OrderHandler {
         Long userId = Long.parseLong(request.pathVariable("userId"));
         return ServerResponse.ok().body(orderRepository.findAllByUserId(userId), Order.class);
     }
-    @Transactional(rollbackFor = IOException.class)
+    // @Transactional does not reach into the returned pipeline; the operator does, so the save rolls back
     public Mono<ServerResponse> create(ServerRequest request) {
         Long userId = Long.parseLong(request.pathVariable("userId"));
         return request.bodyToMono(Order.class)
@@ -49,8 +51,9 @@ public class OrderHandler {
                 })
                 .flatMap(orderRepository::save).flatMap(saved -> {
                             log.info("Validating Order-User {}", userId);
-                            return Mono.error(new OrderException("Simulated checked exception"));
+                            return Mono.<Order>error(new OrderException("Simulated checked exception"));
                         })
+                .as(transactionalOperator::transactional)
                 .flatMap(saved -> ServerResponse.ok().bodyValue(saved));
     }
 
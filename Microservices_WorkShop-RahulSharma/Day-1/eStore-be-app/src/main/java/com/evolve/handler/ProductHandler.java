@@ -0,0 +1,48 @@
+package com.evolve.handler;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.*;
+
+import com.evolve.cache.ProductCache;
+import com.evolve.cache.ProductCacheInvalidator;
+import com.evolve.model.Product;
+import com.evolve.repository.ProductRepository;
+
+import reactor.core.publisher.Mono;
+
+@Component
+public class ProductHandler {
+
+    private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final ProductCacheInvalidator invalidator;
+
+    public ProductHandler(ProductRepository productRepository, ProductCache productCache,
+                          ProductCacheInvalidator invalidator) {
+        this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.invalidator = invalidator;
+    }
+
+    public Mono<ServerResponse> getById(ServerRequest req) {
+        Long id = Long.parseLong(req.pathVariable("id"));
+        return productCache.findById(id)
+                .flatMap(product -> ServerResponse.ok().bodyValue(product))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    // Every instance drops its cached copy once the row is saved
+    public Mono<ServerResponse> update(ServerRequest req) {
+        Long id = Long.parseLong(req.pathVariable("id"));
+        return req.bodyToMono(Product.class).flatMap(incoming ->
+                productRepository.findById(id).flatMap(existing -> {
+                    existing.setName(incoming.getName());
+                    existing.setDescription(incoming.getDescription());
+                    existing.setPrice(incoming.getPrice());
+                    return productRepository.save(existing);
+                }).flatMap(updated -> invalidator.invalidate(updated.getId())
+                        .then(ServerResponse.ok().bodyValue(updated)))
+                .switchIfEmpty(ServerResponse.notFound().build())
+        );
+    }
+}
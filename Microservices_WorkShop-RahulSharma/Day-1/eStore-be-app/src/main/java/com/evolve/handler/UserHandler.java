@@ -13,13 +13,16 @@ import reactor.core.publisher.Mono;
 public class UserHandler {
 
     private final UserRepository repository;
+    private final KeysetPagination pagination;
 
-    public UserHandler(UserRepository repository) {
+    public UserHandler(UserRepository repository, KeysetPagination pagination) {
         this.repository = repository;
+        this.pagination = pagination;
     }
 
+    // GET /users?after={id}&limit={n}
     public Mono<ServerResponse> getAll(ServerRequest req) {
-        return ServerResponse.ok().body(repository.findAll(),Usr.class);
+        return pagination.page(req, repository::findByIdGreaterThanOrderById, Usr::getId);
     }
 
     // GET /users/{id}
@@ -0,0 +1,266 @@
+package com.evolve.logging;
+
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Structured access log for both WebFlux servers, fed by {@link AccessLogFilter}.
+ *
+ * <p>Request threads never touch the log file: a finished request is copied
+ * into a slot of a ring buffer of {@code buffer-size} preallocated entries
+ * and one background writer drains it, one JSON object per line, to the
+ * {@code access} logger, which ends up in {@code logs/app.log}. When the
+ * buffer is full the record is dropped and counted in
+ * {@code access.log.dropped} instead of waiting for the writer.
+ *
+ * <p>Requests are sampled per route pattern: {@code sample-rates} is a comma
+ * separated list of {@code pattern=rate} pairs, e.g.
+ * {@code /products/{id}=0.1}, and every other route is kept at
+ * {@code sample-rate}. Server errors are always kept.
+ */
+@Slf4j
+@Component
+public class AccessLog {
+
+    private static final Logger ACCESS = LoggerFactory.getLogger("access");
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final Entry[] entries;
+    // Slot i is free for the producer claiming sequence s when sequences[i] == s,
+    // and holds a published record for the writer at s when sequences[i] == s + 1
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    private final double defaultRate;
+    private final Map<String, Double> routeRates;
+    private final Counter dropped;
+    private final Consumer<String> sink;
+    private final StringBuilder line = new StringBuilder(256);
+
+    private volatile boolean running;
+    private Thread writer;
+
+    @Autowired
+    public AccessLog(@Value("${estore.access-log.buffer-size:8192}") int bufferSize,
+                     @Value("${estore.access-log.sample-rate:1.0}") double sampleRate,
+                     @Value("${estore.access-log.sample-rates:}") String sampleRates,
+                     MeterRegistry meterRegistry) {
+        this(bufferSize, sampleRate, sampleRates, meterRegistry, ACCESS::info);
+    }
+
+    AccessLog(int bufferSize, double sampleRate, String sampleRates,
+              MeterRegistry meterRegistry, Consumer<String> sink) {
+        int capacity = bufferSize <= 2 ? 2 : Integer.highestOneBit(bufferSize - 1) << 1;
+        this.entries = new Entry[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            entries[i] = new Entry();
+            sequences.set(i, i);
+        }
+        this.mask = capacity - 1;
+        this.defaultRate = sampleRate;
+        this.routeRates = parseRates(sampleRates);
+        this.sink = sink;
+        this.dropped = Counter.builder("access.log.dropped")
+                .description("Access log records dropped because the buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("access.log.pending", this, AccessLog::pending)
+                .description("Access log records waiting for the writer")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        writer = new Thread(this::run, "access-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(1));
+    }
+
+    /**
+     * Records a finished request, or drops it if it is sampled out or the
+     * buffer is full. Never blocks.
+     */
+    public void record(long timestamp, int port, String method, String path, String route,
+                       int status, long durationNanos, InetSocketAddress remote) {
+        if (status < 500 && !sampled(route)) {
+            return;
+        }
+        long sequence = claim();
+        if (sequence < 0) {
+            dropped.increment();
+            return;
+        }
+        int index = (int) sequence & mask;
+        Entry entry = entries[index];
+        entry.timestamp = timestamp;
+        entry.port = port;
+        entry.method = method;
+        entry.path = path;
+        entry.route = route;
+        entry.status = status;
+        entry.durationNanos = durationNanos;
+        entry.remote = remote;
+        sequences.lazySet(index, sequence + 1);
+    }
+
+    private boolean sampled(String route) {
+        double rate = route == null ? defaultRate : routeRates.getOrDefault(route, defaultRate);
+        return rate >= 1.0 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    private long claim() {
+        long sequence = tail.get();
+        while (true) {
+            long available = sequences.get((int) sequence & mask) - sequence;
+            if (available == 0) {
+                if (tail.compareAndSet(sequence, sequence + 1)) {
+                    return sequence;
+                }
+                sequence = tail.get();
+            } else if (available < 0) {
+                return -1;
+            } else {
+                sequence = tail.get();
+            }
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (drain() == 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Access log writer failed", e);
+            }
+        }
+        drain();
+    }
+
+    /** Writes every published record; called by the writer thread only. */
+    int drain() {
+        int written = 0;
+        long sequence = head;
+        while (true) {
+            int index = (int) sequence & mask;
+            if (sequences.get(index) != sequence + 1) {
+                break;
+            }
+            Entry entry = entries[index];
+            String formatted = format(entry);
+            entry.clear();
+            sequences.lazySet(index, sequence + entries.length);
+            head = ++sequence;
+            sink.accept(formatted);
+            written++;
+        }
+        return written;
+    }
+
+    long pending() {
+        return Math.max(0, tail.get() - head);
+    }
+
+    int capacity() {
+        return entries.length;
+    }
+
+    private String format(Entry entry) {
+        StringBuilder out = line;
+        out.setLength(0);
+        out.append("{\"time\":\"").append(Instant.ofEpochMilli(entry.timestamp))
+           .append("\",\"port\":").append(entry.port)
+           .append(",\"method\":\"").append(entry.method)
+           .append("\",\"path\":");
+        appendString(out, entry.path);
+        out.append(",\"route\":");
+        appendString(out, entry.route);
+        out.append(",\"status\":").append(entry.status)
+           .append(",\"durationUs\":").append(TimeUnit.NANOSECONDS.toMicros(entry.durationNanos))
+           .append(",\"remote\":");
+        appendString(out, entry.remote == null ? null : entry.remote.getHostString());
+        return out.append('}').toString();
+    }
+
+    private static void appendString(StringBuilder out, String value) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    static Map<String, Double> parseRates(String sampleRates) {
+        Map<String, Double> rates = new HashMap<>();
+        for (String pair : sampleRates.split(",")) {
+            int eq = pair.lastIndexOf('=');
+            if (eq > 0) {
+                rates.put(pair.substring(0, eq).trim(), Double.parseDouble(pair.substring(eq + 1).trim()));
+            } else if (!pair.isBlank()) {
+                throw new IllegalArgumentException("Expected pattern=rate in estore.access-log.sample-rates: " + pair);
+            }
+        }
+        return rates;
+    }
+
+    private static final class Entry {
+        long timestamp;
+        int port;
+        String method;
+        String path;
+        String route;
+        int status;
+        long durationNanos;
+        InetSocketAddress remote;
+
+        void clear() {
+            method = null;
+            path = null;
+            route = null;
+            remote = null;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.evolve.logging;
+
+import java.net.InetSocketAddress;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Hands every finished request to {@link AccessLog}. Registered as a
+ * {@code WebFilter} on the main server and passed to the handler of the
+ * Reactor Netty server on 8081; outermost, so the duration covers the
+ * other filters too.
+ *
+ * <p>The route is the matched pattern ({@code /products/{id}}, not the
+ * path), or {@code null} when nothing matched. A request that ends in an
+ * error before its response is committed is logged as 500, one the client
+ * cancelled before that as 499.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AccessLogFilter implements WebFilter {
+
+    private final AccessLog accessLog;
+    private final boolean enabled;
+
+    public AccessLogFilter(AccessLog accessLog,
+                           @Value("${estore.access-log.enabled:true}") boolean enabled) {
+        this.accessLog = accessLog;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!enabled) {
+            return chain.filter(exchange);
+        }
+        Request request = new Request(exchange);
+        exchange.getResponse().beforeCommit(() -> {
+            request.committed();
+            return Mono.empty();
+        });
+        return chain.filter(exchange).doFinally(request::finished);
+    }
+
+    static String route(ServerWebExchange exchange) {
+        Object pattern = exchange.getAttribute(RouterFunctions.MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            pattern = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        }
+        if (pattern instanceof PathPattern pathPattern) {
+            return pathPattern.getPatternString();
+        }
+        return pattern == null ? null : pattern.toString();
+    }
+
+    /**
+     * What the log needs from one exchange. Tomcat recycles the servlet
+     * request and response once the exchange completes, so the request is
+     * read up front and the status when the response commits.
+     */
+    private final class Request {
+
+        private final ServerWebExchange exchange;
+        private final long timestamp = System.currentTimeMillis();
+        private final long start = System.nanoTime();
+        private final int port;
+        private final String method;
+        private final String path;
+        private final InetSocketAddress remote;
+        private int status;
+
+        Request(ServerWebExchange exchange) {
+            ServerHttpRequest request = exchange.getRequest();
+            InetSocketAddress local = request.getLocalAddress();
+            this.exchange = exchange;
+            this.port = local == null ? -1 : local.getPort();
+            this.method = request.getMethod().name();
+            this.path = request.getPath().value();
+            this.remote = request.getRemoteAddress();
+        }
+
+        void committed() {
+            HttpStatusCode code = exchange.getResponse().getStatusCode();
+            status = code == null ? 200 : code.value();
+        }
+
+        void finished(SignalType signal) {
+            if (status == 0) {
+                status = signal == SignalType.ON_ERROR ? 500 : signal == SignalType.CANCEL ? 499 : 200;
+            }
+            accessLog.record(timestamp, port, method, path, route(exchange),
+                    status, System.nanoTime() - start, remote);
+        }
+    }
+}
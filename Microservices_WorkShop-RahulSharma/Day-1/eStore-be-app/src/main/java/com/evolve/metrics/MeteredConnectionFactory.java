@@ -0,0 +1,76 @@
+package com.evolve.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.reactivestreams.Publisher;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import reactor.core.publisher.Mono;
+
+/**
+ * Records how long callers wait for a connection as
+ * {@code r2dbc.connection.acquire}, tagged with the repository and method
+ * found in the Reactor context (see {@link QueryMetricsInterceptor}), or
+ * {@code none} for direct callers. The name stays out of Boot's
+ * {@code r2dbc.pool.*} gauges. Timers are registered once per tag set and
+ * reused. Implements {@link Wrapped} so Boot still finds the pool for its
+ * gauges.
+ */
+public class MeteredConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory> {
+
+    public static final String ACQUIRE = "r2dbc.connection.acquire";
+    private static final Tags UNTAGGED = Tags.of("repository", "none", "method", "none");
+
+    private final ConnectionFactory delegate;
+    private final MeterRegistry meterRegistry;
+    private final Map<Tags, AcquireTimers> timers = new ConcurrentHashMap<>();
+
+    public MeteredConnectionFactory(ConnectionFactory delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.deferContextual(ctx -> {
+            AcquireTimers acquire = timers.computeIfAbsent(
+                    ctx.getOrDefault(QueryMetricsInterceptor.CONTEXT_KEY, UNTAGGED), this::register);
+            long start = System.nanoTime();
+            return Mono.<Connection>from(delegate.create())
+                    .doOnSuccess(connection -> acquire.success().record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                    .doOnError(e -> acquire.error().record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    private AcquireTimers register(Tags tags) {
+        return new AcquireTimers(timer(tags, "success"), timer(tags, "error"));
+    }
+
+    private Timer timer(Tags tags, String outcome) {
+        return Timer.builder(ACQUIRE)
+                .description("Time spent waiting for a pooled connection")
+                .tags(tags.and("outcome", outcome))
+                .register(meterRegistry);
+    }
+
+    private record AcquireTimers(Timer success, Timer error) {
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return delegate;
+    }
+}
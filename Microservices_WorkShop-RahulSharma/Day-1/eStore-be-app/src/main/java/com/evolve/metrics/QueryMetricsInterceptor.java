@@ -0,0 +1,86 @@
+package com.evolve.metrics;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.util.ClassUtils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Times reactive repository methods as {@code r2dbc.query}, from subscription
+ * to completion, tagged with repository, method and outcome. The same
+ * repository/method tags are put in the Reactor context so
+ * {@link MeteredConnectionFactory} can tag the pool acquire it triggers.
+ * The timers of each method are registered on its first call and reused.
+ */
+public class QueryMetricsInterceptor implements MethodInterceptor {
+
+    public static final String QUERY = "r2dbc.query";
+    static final Class<Tags> CONTEXT_KEY = Tags.class;
+
+    private final MeterRegistry meterRegistry;
+    private final String repository;
+    private final Map<Method, MethodTimers> timers = new ConcurrentHashMap<>();
+
+    /** @param repository tag value, or {@code null} to use the target class name */
+    public QueryMetricsInterceptor(MeterRegistry meterRegistry, String repository) {
+        this.meterRegistry = meterRegistry;
+        this.repository = repository;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        if (!(result instanceof Mono) && !(result instanceof Flux)) {
+            return result;
+        }
+        MethodTimers method = timers.computeIfAbsent(invocation.getMethod(), m -> register(invocation, m));
+        if (result instanceof Mono<?> mono) {
+            return Mono.defer(() -> {
+                long start = System.nanoTime();
+                return mono.doFinally(signal -> method.record(signal, start));
+            }).contextWrite(ctx -> ctx.put(CONTEXT_KEY, method.tags()));
+        }
+        Flux<?> flux = (Flux<?>) result;
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            return flux.doFinally(signal -> method.record(signal, start));
+        }).contextWrite(ctx -> ctx.put(CONTEXT_KEY, method.tags()));
+    }
+
+    private MethodTimers register(MethodInvocation invocation, Method method) {
+        String name = repository != null ? repository
+                : ClassUtils.getUserClass(invocation.getThis()).getSimpleName();
+        Tags tags = Tags.of("repository", name, "method", method.getName());
+        return new MethodTimers(tags, timer(tags, "success"), timer(tags, "error"), timer(tags, "cancelled"));
+    }
+
+    private Timer timer(Tags tags, String outcome) {
+        return Timer.builder(QUERY)
+                .description("Repository call duration, including the pool acquire")
+                .tags(tags.and("outcome", outcome))
+                .register(meterRegistry);
+    }
+
+    private record MethodTimers(Tags tags, Timer success, Timer error, Timer cancelled) {
+
+        void record(SignalType signal, long start) {
+            Timer timer = switch (signal) {
+                case ON_ERROR -> error;
+                case CANCEL -> cancelled;
+                default -> success;
+            };
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
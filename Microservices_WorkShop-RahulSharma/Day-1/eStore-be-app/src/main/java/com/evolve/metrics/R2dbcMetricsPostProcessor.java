@@ -0,0 +1,50 @@
+package com.evolve.metrics;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+
+/**
+ * Wires the R2DBC timers in: wraps the {@link ConnectionFactory} bean, adds
+ * {@link QueryMetricsInterceptor} to every Spring Data repository proxy, and
+ * proxies the hand-written {@code @Repository} classes that use
+ * {@code DatabaseClient} directly.
+ */
+public class R2dbcMetricsPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public R2dbcMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxyFactory, info) -> proxyFactory.addAdvice(new QueryMetricsInterceptor(
+                            meterRegistry.getObject(), info.getRepositoryInterface().getSimpleName()))));
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof ConnectionFactory connectionFactory && !(bean instanceof MeteredConnectionFactory)) {
+            return new MeteredConnectionFactory(connectionFactory, meterRegistry.getObject());
+        }
+        if (AnnotatedElementUtils.hasAnnotation(bean.getClass(), Repository.class)) {
+            ProxyFactory proxyFactory = new ProxyFactory(bean);
+            proxyFactory.setProxyTargetClass(true);
+            proxyFactory.addAdvice(new QueryMetricsInterceptor(meterRegistry.getObject(), null));
+            return proxyFactory.getProxy(bean.getClass().getClassLoader());
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,103 @@
+package com.evolve.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Wrapped;
+
+/**
+ * {@code /actuator/r2dbcpool}: current pool occupancy plus acquire wait and
+ * query time per repository method, slowest acquire first. {@code saturated}
+ * means every connection is checked out and callers are queueing.
+ */
+@Component
+@Endpoint(id = "r2dbcpool")
+public class R2dbcPoolEndpoint {
+
+    private final ConnectionFactory connectionFactory;
+    private final MeterRegistry meterRegistry;
+
+    public R2dbcPoolEndpoint(ConnectionFactory connectionFactory, MeterRegistry meterRegistry) {
+        this.connectionFactory = connectionFactory;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @ReadOperation
+    public Map<String, Object> pool() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        PoolMetrics metrics = poolMetrics();
+        if (metrics != null) {
+            int max = metrics.getMaxAllocatedSize();
+            body.put("maxSize", max);
+            body.put("allocated", metrics.allocatedSize());
+            body.put("acquired", metrics.acquiredSize());
+            body.put("idle", metrics.idleSize());
+            body.put("pending", metrics.pendingAcquireSize());
+            body.put("utilization", max == 0 ? 0.0 : (double) metrics.acquiredSize() / max);
+            body.put("saturated", metrics.acquiredSize() >= max && metrics.pendingAcquireSize() > 0);
+        }
+        body.put("methods", methods());
+        return body;
+    }
+
+    private PoolMetrics poolMetrics() {
+        Object factory = connectionFactory;
+        while (!(factory instanceof ConnectionPool) && factory instanceof Wrapped<?> wrapped) {
+            factory = wrapped.unwrap();
+        }
+        return factory instanceof ConnectionPool pool ? pool.getMetrics().orElse(null) : null;
+    }
+
+    private List<Map<String, Object>> methods() {
+        Map<String, Map<String, Object>> byMethod = new LinkedHashMap<>();
+        collect(byMethod, MeteredConnectionFactory.ACQUIRE, "acquire");
+        collect(byMethod, QueryMetricsInterceptor.QUERY, "query");
+        List<Map<String, Object>> rows = new ArrayList<>(byMethod.values());
+        for (Map<String, Object> row : rows) {
+            mean(row, "acquire");
+            mean(row, "query");
+        }
+        rows.sort(Comparator.comparingDouble((Map<String, Object> row) ->
+                (double) row.getOrDefault("acquireMaxMs", 0.0)).reversed());
+        return rows;
+    }
+
+    // Sums over the outcome tags of one repository method
+    private void collect(Map<String, Map<String, Object>> byMethod, String meter, String prefix) {
+        for (Timer timer : meterRegistry.find(meter).timers()) {
+            String repository = timer.getId().getTag("repository");
+            String method = timer.getId().getTag("method");
+            Map<String, Object> row = byMethod.computeIfAbsent(repository + "." + method, key -> {
+                Map<String, Object> r = new LinkedHashMap<>();
+                r.put("repository", repository);
+                r.put("method", method);
+                return r;
+            });
+            row.merge(prefix + "Count", timer.count(), (a, b) -> (long) a + (long) b);
+            row.merge(prefix + "TotalMs", timer.totalTime(TimeUnit.MILLISECONDS), (a, b) -> (double) a + (double) b);
+            row.merge(prefix + "MaxMs", timer.max(TimeUnit.MILLISECONDS), (a, b) -> Math.max((double) a, (double) b));
+        }
+    }
+
+    // A method with a timer always reports a mean (0.0 before its first sample); one without reports neither
+    private static void mean(Map<String, Object> row, String prefix) {
+        Object total = row.remove(prefix + "TotalMs");
+        if (total != null) {
+            long count = (long) row.get(prefix + "Count");
+            row.put(prefix + "MeanMs", count > 0 ? (double) total / count : 0.0);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.evolve.metrics;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Logs where startup time went once the application is ready: self time per
+ * startup step (bean instantiation, post-processing, context refresh, ...)
+ * and the slowest beans. Steps nest, so a step's self time leaves out the
+ * steps that ran inside it; a bean's line is its own constructor and init
+ * methods, not its dependencies'.
+ *
+ * <p>Only reports when {@code SpringBootApp} records startup with a
+ * {@link BufferingApplicationStartup}. The full timeline stays available
+ * at {@code /actuator/startup}.
+ */
+@Slf4j
+@Component
+public class StartupReport {
+
+    private static final String BEAN_STEP = "spring.beans.instantiate";
+
+    private final ApplicationStartup applicationStartup;
+    private final int topBeans;
+
+    public StartupReport(ApplicationStartup applicationStartup,
+                         @Value("${estore.startup-report.top-beans:10}") int topBeans) {
+        this.applicationStartup = applicationStartup;
+        this.topBeans = topBeans;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (applicationStartup instanceof BufferingApplicationStartup buffering) {
+            log.info(report(buffering.getBufferedTimeline(), topBeans));
+        }
+    }
+
+    static String report(StartupTimeline timeline, int topBeans) {
+        List<StartupTimeline.TimelineEvent> events = timeline.getEvents();
+        Map<Long, Duration> nested = new HashMap<>();
+        for (StartupTimeline.TimelineEvent event : events) {
+            Long parent = event.getStartupStep().getParentId();
+            if (parent != null) {
+                nested.merge(parent, event.getDuration(), Duration::plus);
+            }
+        }
+
+        Map<String, Phase> phases = new HashMap<>();
+        Map<String, Duration> beans = new HashMap<>();
+        for (StartupTimeline.TimelineEvent event : events) {
+            StartupStep step = event.getStartupStep();
+            Duration self = event.getDuration().minus(nested.getOrDefault(step.getId(), Duration.ZERO));
+            if (self.isNegative()) {
+                self = Duration.ZERO;
+            }
+            phases.computeIfAbsent(step.getName(), name -> new Phase()).add(self);
+            if (BEAN_STEP.equals(step.getName())) {
+                beans.merge(beanName(step), self, Duration::plus);
+            }
+        }
+
+        StringBuilder report = new StringBuilder("Startup report, ")
+                .append(events.size()).append(" steps recorded\n  self time per phase:");
+        phases.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue(Comparator.comparing((Phase phase) -> phase.self).reversed()))
+                .forEach(entry -> report.append(String.format("%n    %-55s %6d ms %5d steps",
+                        entry.getKey(), entry.getValue().self.toMillis(), entry.getValue().count)));
+        report.append("\n  slowest beans (self time):");
+        beans.entrySet().stream()
+                .sorted(Map.Entry.<String, Duration>comparingByValue().reversed())
+                .limit(topBeans)
+                .forEach(entry -> report.append(String.format("%n    %-55s %6d ms",
+                        entry.getKey(), entry.getValue().toMillis())));
+        return report.toString();
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return "?";
+    }
+
+    private static final class Phase {
+
+        private Duration self = Duration.ZERO;
+        private int count;
+
+        void add(Duration duration) {
+            self = self.plus(duration);
+            count++;
+        }
+    }
+}
@@ -4,8 +4,11 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
+import com.evolve.codegen.JsonCodec;
+
 import lombok.Data;
 
+@JsonCodec
 @Data
 @Table("orders")
 public class Order {
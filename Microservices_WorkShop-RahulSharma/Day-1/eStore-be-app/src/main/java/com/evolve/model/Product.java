@@ -3,8 +3,11 @@ package com.evolve.model;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.relational.core.mapping.Table;
 
+import com.evolve.codegen.JsonCodec;
+
 import lombok.Data;
 
+@JsonCodec
 @Data
 @Table("products")
 public class Product {
@@ -0,0 +1,54 @@
+package com.evolve.repository;
+
+import java.util.List;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.evolve.model.CartItem;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Multi-row INSERTs for cart items, one statement per batch instead of one
+ * {@code save} per row.
+ */
+@Repository
+public class CartItemBatchRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public CartItemBatchRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /** Inserts all items in one statement and returns them with their generated ids, in order. */
+    public Flux<CartItem> insertAll(List<CartItem> items) {
+        if (items.isEmpty()) {
+            return Flux.empty();
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO cart_items (cart_id, product_id, quantity) VALUES ");
+        for (int i = 0; i < items.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(:cartId").append(i).append(", :productId").append(i).append(", :quantity").append(i).append(')');
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < items.size(); i++) {
+            CartItem item = items.get(i);
+            spec = spec.bind("cartId" + i, item.getCartId())
+                    .bind("productId" + i, item.getProductId())
+                    .bind("quantity" + i, item.getQuantity());
+        }
+        return spec.filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class))
+                .all()
+                .index()
+                .map(generated -> {
+                    CartItem item = items.get(generated.getT1().intValue());
+                    item.setId(generated.getT2());
+                    return item;
+                });
+    }
+}
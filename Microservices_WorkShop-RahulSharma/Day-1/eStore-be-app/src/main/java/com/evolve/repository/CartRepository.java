@@ -1,11 +1,21 @@
 package com.evolve.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 
 import com.evolve.model.Cart;
 
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 public interface CartRepository extends ReactiveCrudRepository<Cart, Long> {
     Flux<Cart> findAllByUserId(Long userId);
+    Flux<Cart> findByIdGreaterThanOrderById(Long id, Pageable pageable);
+
+    // Row count is 1 only for the caller that actually moved the cart out of "from"
+    @Modifying
+    @Query("UPDATE carts SET status = :to WHERE id = :id AND COALESCE(status, 'active') = :from")
+    Mono<Integer> transitionStatus(Long id, String from, String to);
 }
@@ -0,0 +1,76 @@
+package com.evolve.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.evolve.dto.CartLineTotal;
+import com.evolve.dto.CartSummary;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Cart line totals, item count and subtotal computed by the database in one
+ * query over {@code carts} joined to {@code cart_items} and {@code products}.
+ */
+@Repository
+public class CartSummaryRepository {
+
+    // Starts from carts so a cart without items is one row of nulls and an unknown cart is no row at all;
+    // LEFT JOIN products so an item whose product is gone still shows up (with a null price);
+    // the window sums repeat the cart's totals on every line, as whatever numeric type the database picks
+    private static final String SUMMARY = """
+            SELECT ci.id, ci.product_id, ci.quantity, p.name, p.price, ci.quantity * p.price AS line_total,
+                   SUM(ci.quantity) OVER () AS item_count,
+                   SUM(ci.quantity * p.price) OVER () AS subtotal
+            FROM carts c
+            LEFT JOIN cart_items ci ON ci.cart_id = c.id
+            LEFT JOIN products p ON p.id = ci.product_id
+            WHERE c.id = :cartId
+            ORDER BY ci.id""";
+
+    private final DatabaseClient databaseClient;
+
+    public CartSummaryRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /** The cart's summary; an empty one for a cart without items, and empty for a cart that doesn't exist. */
+    public Mono<CartSummary> findSummary(Long cartId) {
+        return databaseClient.sql(SUMMARY)
+                .bind("cartId", cartId)
+                .map(row -> {
+                    Long itemId = row.get("id", Long.class);
+                    if (itemId == null) {
+                        return new SummaryRow(null, 0, null);
+                    }
+                    CartLineTotal line = new CartLineTotal();
+                    line.setItemId(itemId);
+                    line.setProductId(row.get("product_id", Long.class));
+                    line.setQuantity(row.get("quantity", Integer.class));
+                    line.setProductName(row.get("name", String.class));
+                    line.setUnitPrice(row.get("price", Double.class));
+                    line.setLineTotal(row.get("line_total", Double.class));
+                    return new SummaryRow(line, row.get("item_count", Number.class), row.get("subtotal", Number.class));
+                })
+                .all()
+                .collectList()
+                .filter(rows -> !rows.isEmpty())
+                .map(rows -> {
+                    List<CartLineTotal> lines = new ArrayList<>(rows.size());
+                    for (SummaryRow row : rows) {
+                        if (row.line() != null) {
+                            lines.add(row.line());
+                        }
+                    }
+                    SummaryRow first = rows.get(0);
+                    return CartSummary.of(cartId, lines, first.itemCount().intValue(),
+                            first.subtotal() == null ? 0.0 : first.subtotal().doubleValue());
+                });
+    }
+
+    private record SummaryRow(CartLineTotal line, Number itemCount, Number subtotal) {
+    }
+}
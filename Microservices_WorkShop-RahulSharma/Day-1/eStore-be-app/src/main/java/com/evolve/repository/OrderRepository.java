@@ -1,5 +1,6 @@
 package com.evolve.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 
 import reactor.core.publisher.Flux;
@@ -8,4 +9,5 @@ import com.evolve.model.Order;
 
 public interface OrderRepository extends ReactiveCrudRepository<Order, Long> {
     Flux<Order> findAllByUserId(Long userId);
+    Flux<Order> findByIdGreaterThanOrderById(Long id, Pageable pageable);
 }
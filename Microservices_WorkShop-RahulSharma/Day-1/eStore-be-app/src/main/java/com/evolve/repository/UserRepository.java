@@ -1,5 +1,6 @@
 package com.evolve.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 
 import com.evolve.model.Usr;
@@ -8,4 +9,5 @@ import reactor.core.publisher.Flux;
 
 public interface UserRepository extends ReactiveCrudRepository<Usr, Long> {
     Flux<Usr> findByName(String name);
+    Flux<Usr> findByIdGreaterThanOrderById(Long id, Pageable pageable);
 }
@@ -13,7 +13,9 @@ public class CartItemRouter {
     public RouterFunction<ServerResponse> cartItemRoutes(CartItemHandler handler) {
         return RouterFunctions
                 .route(RequestPredicates.GET("/carts/{cartId}/items"), handler::list)
+                .andRoute(RequestPredicates.GET("/carts/{cartId}/summary"), handler::summary)
                 .andRoute(RequestPredicates.POST("/carts/{cartId}/items"), handler::add)
+                .andRoute(RequestPredicates.POST("/carts/{cartId}/items/bulk"), handler::addBulk)
                 .andRoute(RequestPredicates.DELETE("/carts/items/{itemId}"), handler::remove);
     }
 }
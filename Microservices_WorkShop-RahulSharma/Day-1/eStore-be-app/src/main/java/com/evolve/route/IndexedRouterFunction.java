@@ -0,0 +1,332 @@
+package com.evolve.route;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.cors.reactive.CorsUtils;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.RequestPredicate;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
+
+/**
+ * One router over many route beans, indexed by HTTP method and the first
+ * literal path segment.
+ *
+ * <p>Every {@code route(predicate, handler)} is read out of the beans with
+ * {@link RouterFunctions.Visitor}. A request only tests the routes whose
+ * method and first segment could match it, in the original order, so
+ * "/carts/7" never looks at user or order routes. Predicates the index
+ * cannot see through (or, negate, custom) keep their route in every
+ * bucket. A bean with nested, resource or attribute routes stays one opaque
+ * entry routed as-is.
+ *
+ * <p>Each handler is timed as {@code http.route}, tagged with method,
+ * route pattern and status (or {@code error}). A route keeps its timers,
+ * one per status, so a request does not register a meter.
+ */
+public class IndexedRouterFunction implements RouterFunction<ServerResponse> {
+
+    private static final String METRIC = "http.route";
+
+    private final List<Route> routes = new ArrayList<>();
+    private final Map<HttpMethod, Bucket> byMethod = new HashMap<>();
+    private final Bucket anyMethod;
+
+    public IndexedRouterFunction(List<RouterFunction<ServerResponse>> functions, MeterRegistry meterRegistry) {
+        for (RouterFunction<ServerResponse> function : functions) {
+            RouteCollector collector = new RouteCollector();
+            function.accept(collector);
+            if (collector.opaque) {
+                routes.add(new Route(null, null, null, null, null, function));
+            } else {
+                collector.routes.forEach(route -> routes.add(route.timed(meterRegistry)));
+            }
+        }
+
+        Set<String> segments = new HashSet<>();
+        Set<HttpMethod> methods = new LinkedHashSet<>();
+        for (Route route : routes) {
+            if (route.segment != null) {
+                segments.add(route.segment);
+            }
+            if (route.methods != null) {
+                methods.addAll(route.methods);
+            }
+        }
+        methods.forEach(method -> byMethod.put(method, new Bucket(method, segments)));
+        anyMethod = new Bucket(null, segments);
+    }
+
+    @Override
+    public Mono<HandlerFunction<ServerResponse>> route(ServerRequest request) {
+        return route(request, candidates(request), 0);
+    }
+
+    // Opaque entries route reactively; indexed ones are plain predicate tests
+    private Mono<HandlerFunction<ServerResponse>> route(ServerRequest request, List<Route> candidates, int from) {
+        for (int i = from; i < candidates.size(); i++) {
+            Route route = candidates.get(i);
+            if (route.opaque != null) {
+                int next = i + 1;
+                return route.opaque.route(request)
+                        .switchIfEmpty(Mono.defer(() -> route(request, candidates, next)));
+            }
+            if (route.predicate.test(request)) {
+                return Mono.just(route.handler);
+            }
+        }
+        return Mono.empty();
+    }
+
+    private List<Route> candidates(ServerRequest request) {
+        Bucket bucket = byMethod.getOrDefault(method(request), anyMethod);
+        return bucket.get(firstSegment(request.requestPath().pathWithinApplication()));
+    }
+
+    // Preflights are matched against the method they ask about, as RequestPredicates.method does
+    private static HttpMethod method(ServerRequest request) {
+        if (CorsUtils.isPreFlightRequest(request.exchange().getRequest())) {
+            String requested = request.headers().firstHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD);
+            if (requested != null) {
+                return HttpMethod.valueOf(requested);
+            }
+        }
+        return request.method();
+    }
+
+    private static String firstSegment(PathContainer path) {
+        for (PathContainer.Element element : path.elements()) {
+            if (element instanceof PathContainer.PathSegment segment) {
+                return segment.valueToMatch();
+            }
+        }
+        return "";
+    }
+
+    @Override
+    public void accept(RouterFunctions.Visitor visitor) {
+        for (Route route : routes) {
+            if (route.opaque != null) {
+                route.opaque.accept(visitor);
+            } else {
+                visitor.route(route.predicate, route.handler);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "IndexedRouterFunction(" + routes.size() + " routes, " + byMethod.keySet() + ")";
+    }
+
+    /** The routes a method can reach, per first segment, in original order. */
+    private final class Bucket {
+
+        private final Map<String, List<Route>> bySegment = new HashMap<>();
+        private final List<Route> other;
+
+        Bucket(HttpMethod method, Set<String> segments) {
+            for (String segment : segments) {
+                bySegment.put(segment, select(method, segment));
+            }
+            other = select(method, null);
+        }
+
+        List<Route> get(String segment) {
+            return bySegment.getOrDefault(segment, other);
+        }
+
+        private List<Route> select(HttpMethod method, String segment) {
+            List<Route> selected = new ArrayList<>();
+            for (Route route : routes) {
+                boolean methodMatches = route.methods == null || (method != null && route.methods.contains(method));
+                boolean segmentMatches = route.segment == null || route.segment.equals(segment);
+                if (methodMatches && segmentMatches) {
+                    selected.add(route);
+                }
+            }
+            return List.copyOf(selected);
+        }
+    }
+
+    private record Route(Set<HttpMethod> methods,
+                         String segment,
+                         String pattern,
+                         RequestPredicate predicate,
+                         HandlerFunction<ServerResponse> handler,
+                         RouterFunction<ServerResponse> opaque) {
+
+        Route timed(MeterRegistry meterRegistry) {
+            String method = methods == null ? "*" : methods.size() == 1 ? methods.iterator().next().name() : methods.toString();
+            // One timer per status this route has answered with, registered on first use
+            Map<String, Timer> timers = new ConcurrentHashMap<>();
+            Function<String, Timer> timer = status -> timers.computeIfAbsent(status, s -> Timer.builder(METRIC)
+                    .tag("method", method)
+                    .tag("route", pattern)
+                    .tag("status", s)
+                    .register(meterRegistry));
+            HandlerFunction<ServerResponse> timed = request -> {
+                Timer.Sample sample = Timer.start(meterRegistry);
+                return handler.handle(request)
+                        .doOnSuccess(response -> sample.stop(timer.apply(
+                                response == null ? "none" : String.valueOf(response.statusCode().value()))))
+                        .doOnError(e -> sample.stop(timer.apply("error")));
+            };
+            return new Route(methods, segment, pattern, predicate, timed, null);
+        }
+    }
+
+    /** Flattens one route bean, or marks it opaque when it cannot be flattened safely. */
+    private static final class RouteCollector implements RouterFunctions.Visitor {
+
+        final List<Route> routes = new ArrayList<>();
+        boolean opaque;
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void route(RequestPredicate predicate, HandlerFunction<?> handler) {
+            PredicateKey key = new PredicateKey();
+            predicate.accept(key);
+            routes.add(new Route(key.methods(), key.segment(), key.pattern(), predicate,
+                    (HandlerFunction<ServerResponse>) handler, null));
+        }
+
+        @Override
+        public void startNested(RequestPredicate predicate) {
+            opaque = true;
+        }
+
+        @Override
+        public void endNested(RequestPredicate predicate) {
+        }
+
+        @Override
+        public void resources(Function<ServerRequest, Mono<Resource>> lookupFunction) {
+            opaque = true;
+        }
+
+        @Override
+        public void attributes(Map<String, Object> attributes) {
+            opaque = true;
+        }
+
+        @Override
+        public void unknown(RouterFunction<?> routerFunction) {
+            opaque = true;
+        }
+    }
+
+    /**
+     * Pulls the method set and first literal path segment out of a predicate
+     * that is an AND of plain conditions. Anything under or/negate, or a
+     * custom predicate, makes that part of the key unknown.
+     */
+    private static final class PredicateKey implements RequestPredicates.Visitor {
+
+        private Set<HttpMethod> methods;
+        private String path;
+        private boolean exact = true;
+
+        Set<HttpMethod> methods() {
+            return exact ? methods : null;
+        }
+
+        String pattern() {
+            return path == null ? "unknown" : path;
+        }
+
+        String segment() {
+            if (!exact || path == null) {
+                return null;
+            }
+            String trimmed = path.startsWith("/") ? path.substring(1) : path;
+            int slash = trimmed.indexOf('/');
+            String first = slash < 0 ? trimmed : trimmed.substring(0, slash);
+            return first.indexOf('{') < 0 && first.indexOf('*') < 0 && first.indexOf('?') < 0 ? first : null;
+        }
+
+        @Override
+        public void method(Set<HttpMethod> methods) {
+            if (this.methods == null) {
+                this.methods = Set.copyOf(methods);
+            }
+        }
+
+        @Override
+        public void path(String pattern) {
+            if (path == null) {
+                path = pattern;
+            }
+        }
+
+        @Override
+        public void pathExtension(String extension) {
+        }
+
+        @Override
+        public void header(String name, String value) {
+        }
+
+        @Override
+        public void queryParam(String name, String value) {
+        }
+
+        @Override
+        public void startAnd() {
+        }
+
+        @Override
+        public void and() {
+        }
+
+        @Override
+        public void endAnd() {
+        }
+
+        @Override
+        public void startOr() {
+            exact = false;
+        }
+
+        @Override
+        public void or() {
+        }
+
+        @Override
+        public void endOr() {
+        }
+
+        @Override
+        public void startNegate() {
+            exact = false;
+        }
+
+        @Override
+        public void endNegate() {
+        }
+
+        @Override
+        public void unknown(RequestPredicate predicate) {
+            exact = false;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.evolve.route;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.*;
+
+import com.evolve.handler.ProductHandler;
+
+@Configuration
+public class ProductRouter {
+
+    @Bean
+    public RouterFunction<ServerResponse> productRoutes(ProductHandler handler) {
+        return RouterFunctions
+                .route(RequestPredicates.GET("/products/{id}"), handler::getById)
+                .andRoute(RequestPredicates.PUT("/products/{id}"), handler::update);
+    }
+}
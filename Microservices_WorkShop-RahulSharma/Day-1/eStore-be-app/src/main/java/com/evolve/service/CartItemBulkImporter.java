@@ -0,0 +1,120 @@
+package com.evolve.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.evolve.cache.ProductCache;
+import com.evolve.dto.CartItemBulkResult;
+import com.evolve.model.CartItem;
+import com.evolve.model.Product;
+import com.evolve.repository.CartItemBatchRepository;
+import com.evolve.repository.CartItemRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+/**
+ * Writes a decoded stream of cart items in batches of
+ * {@code estore.cart-items.bulk.batch-size}, or whatever arrived within
+ * {@code estore.cart-items.bulk.batch-window} of a batch's first row, so a
+ * slow upload still makes progress. Only one batch is in flight at a time,
+ * so the request body is read no faster than the database accepts rows.
+ * Invalid rows, including ones naming a product that doesn't exist, are
+ * reported without being sent; if a batch INSERT fails, its rows are
+ * retried one by one to find the failing ones.
+ */
+@Component
+public class CartItemBulkImporter {
+
+    private final CartItemBatchRepository batchRepository;
+    private final CartItemRepository cartItemRepo;
+    private final ProductCache productCache;
+    private final int batchSize;
+    private final Duration batchWindow;
+
+    public CartItemBulkImporter(CartItemBatchRepository batchRepository, CartItemRepository cartItemRepo,
+                                ProductCache productCache,
+                                @Value("${estore.cart-items.bulk.batch-size:100}") int batchSize,
+                                @Value("${estore.cart-items.bulk.batch-window:50ms}") Duration batchWindow) {
+        this.batchRepository = batchRepository;
+        this.cartItemRepo = cartItemRepo;
+        this.productCache = productCache;
+        this.batchSize = batchSize;
+        this.batchWindow = batchWindow;
+    }
+
+    public Flux<CartItemBulkResult> importItems(Long cartId, Flux<CartItem> items) {
+        return items
+                .index()
+                // Fair backpressure: a full buffer waits for the batch in flight instead of overflowing
+                .bufferTimeout(batchSize, batchWindow, true)
+                .concatMap(batch -> knownProducts(batch).flatMapMany(known -> writeBatch(cartId, batch, known)), 1)
+                .onErrorResume(e -> Mono.just(CartItemBulkResult.failed(null, "Unreadable request body: " + e.getMessage())));
+    }
+
+    private Mono<Set<Long>> knownProducts(List<Tuple2<Long, CartItem>> batch) {
+        Set<Long> ids = batch.stream()
+                .map(Tuple2::getT2)
+                .filter(item -> item != null && item.getProductId() != null)
+                .map(CartItem::getProductId)
+                .collect(Collectors.toSet());
+        return productCache.findAllById(ids).map(Product::getId).collect(Collectors.toSet());
+    }
+
+    private Flux<CartItemBulkResult> writeBatch(Long cartId, List<Tuple2<Long, CartItem>> batch, Set<Long> knownProducts) {
+        List<CartItemBulkResult> rejected = new ArrayList<>();
+        List<Long> indexes = new ArrayList<>(batch.size());
+        List<CartItem> valid = new ArrayList<>(batch.size());
+        for (Tuple2<Long, CartItem> row : batch) {
+            CartItem item = row.getT2();
+            String problem = validate(item, knownProducts);
+            if (problem != null) {
+                rejected.add(CartItemBulkResult.failed(row.getT1(), problem));
+                continue;
+            }
+            item.setId(null);
+            item.setCartId(cartId);
+            indexes.add(row.getT1());
+            valid.add(item);
+        }
+        // Collected first so a failed statement never leaves half the batch reported
+        Flux<CartItemBulkResult> inserted = batchRepository.insertAll(valid)
+                .index()
+                .map(saved -> CartItemBulkResult.created(indexes.get(saved.getT1().intValue()), saved.getT2().getId()))
+                .collectList()
+                .flatMapMany(Flux::fromIterable)
+                .onErrorResume(e -> rowByRow(indexes, valid));
+        return Flux.fromIterable(rejected).concatWith(inserted);
+    }
+
+    private Flux<CartItemBulkResult> rowByRow(List<Long> indexes, List<CartItem> items) {
+        return Flux.range(0, items.size())
+                .doOnNext(i -> items.get(i).setId(null))
+                .concatMap(i -> cartItemRepo.save(items.get(i))
+                        .map(saved -> CartItemBulkResult.created(indexes.get(i), saved.getId()))
+                        .onErrorResume(e -> Mono.just(CartItemBulkResult.failed(indexes.get(i), e.getMessage()))));
+    }
+
+    private static String validate(CartItem item, Set<Long> knownProducts) {
+        if (item == null) {
+            return "Empty row";
+        }
+        if (item.getProductId() == null) {
+            return "productId is required";
+        }
+        if (item.getQuantity() == null || item.getQuantity() <= 0) {
+            return "quantity must be greater than 0";
+        }
+        if (!knownProducts.contains(item.getProductId())) {
+            return "Unknown product " + item.getProductId();
+        }
+        return null;
+    }
+}
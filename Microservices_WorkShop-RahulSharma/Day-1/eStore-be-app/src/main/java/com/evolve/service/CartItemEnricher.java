@@ -0,0 +1,68 @@
+package com.evolve.service;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+import com.evolve.cache.ProductCache;
+import com.evolve.dto.CartItemWithProduct;
+import com.evolve.model.CartItem;
+import com.evolve.model.Product;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Joins cart items with their products using a single batched product lookup
+ * (served from the product near cache where possible) instead of one
+ * findById per item. Items keep the order they arrive in.
+ *
+ * <p>A stream of items is enriched {@value #CHUNK_SIZE} at a time, so a
+ * large cart is written out as it is read rather than held in memory.
+ */
+@Component
+public class CartItemEnricher {
+
+    static final int CHUNK_SIZE = 256;
+
+    private final ProductCache productCache;
+
+    public CartItemEnricher(ProductCache productCache) {
+        this.productCache = productCache;
+    }
+
+    public Flux<CartItemWithProduct> enrich(Flux<CartItem> items) {
+        return items.buffer(CHUNK_SIZE).concatMap(this::enrich, 1);
+    }
+
+    public Flux<CartItemWithProduct> enrich(List<CartItem> items) {
+        if (items.isEmpty()) {
+            return Flux.empty();
+        }
+        Set<Long> productIds = new LinkedHashSet<>();
+        for (CartItem item : items) {
+            productIds.add(item.getProductId());
+        }
+        return productCache.findAllById(productIds)
+                .collectMap(Product::getId)
+                .flatMapMany(products -> Flux.fromIterable(items)
+                        .<CartItemWithProduct>handle((item, sink) -> {
+                            Product product = products.get(item.getProductId());
+                            if (product == null) {
+                                sink.error(new RuntimeException("Product not found: " + item.getProductId()));
+                                return;
+                            }
+                            sink.next(toDto(item, product));
+                        }));
+    }
+
+    public static CartItemWithProduct toDto(CartItem item, Product product) {
+        CartItemWithProduct dto = new CartItemWithProduct();
+        dto.setId(item.getId());
+        dto.setCartId(item.getCartId());
+        dto.setQuantity(item.getQuantity());
+        dto.setProduct(product);
+        return dto;
+    }
+}
@@ -0,0 +1,77 @@
+package com.evolve.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReactiveSubscription.Message;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import com.evolve.model.Cart;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Push-based cart updates. Writers publish the cart once on the
+ * {@code cart:{userId}} channel; each node keeps a single hot stream per
+ * userId that all of its SSE subscribers share. A new subscriber gets the
+ * latest cart immediately, and a stream with no subscribers left is closed
+ * (and its Redis subscription dropped) after the idle timeout.
+ */
+@Component
+public class CartUpdateStream {
+
+    private final ReactiveRedisTemplate<String, Cart> redisCartTemplate;
+    private final ReactiveRedisMessageListenerContainer listenerContainer;
+    private final Duration idleTimeout;
+    private final SerializationPair<Cart> cartSerialization =
+            SerializationPair.fromSerializer(new Jackson2JsonRedisSerializer<>(Cart.class));
+    private final Map<Long, Flux<Cart>> streams = new ConcurrentHashMap<>();
+
+    public CartUpdateStream(ReactiveRedisTemplate<String, Cart> redisCartTemplate,
+                            ReactiveRedisMessageListenerContainer listenerContainer,
+                            @Value("${estore.cart-stream.idle-timeout:30s}") Duration idleTimeout) {
+        this.redisCartTemplate = redisCartTemplate;
+        this.listenerContainer = listenerContainer;
+        this.idleTimeout = idleTimeout;
+    }
+
+    public static String key(Long userId) {
+        return "cart:" + userId;
+    }
+
+    public Mono<Void> publish(Cart cart) {
+        return redisCartTemplate.convertAndSend(key(cart.getUserId()), cart).then();
+    }
+
+    public Flux<Cart> updates(Long userId) {
+        return streams.computeIfAbsent(userId, this::open);
+    }
+
+    private Flux<Cart> open(Long userId) {
+        String key = key(userId);
+        AtomicReference<Flux<Cart>> self = new AtomicReference<>();
+        // Subscribe first, then read the current value, so nothing published in between is lost
+        Flux<Cart> stream = listenerContainer
+                .receiveLater(List.of(ChannelTopic.of(key)),
+                        SerializationPair.fromSerializer(RedisSerializer.string()), cartSerialization)
+                .flatMapMany(messages -> redisCartTemplate.opsForValue().get(key)
+                        .concatWith(messages.map(Message::getMessage)))
+                .distinctUntilChanged()
+                .doFinally(signal -> streams.remove(userId, self.get()))
+                .replay(1)
+                .refCount(1, idleTimeout);
+        self.set(stream);
+        return stream;
+    }
+}
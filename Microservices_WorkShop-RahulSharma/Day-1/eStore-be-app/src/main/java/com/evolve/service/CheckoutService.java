@@ -0,0 +1,71 @@
+package com.evolve.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.evolve.cache.CartCache;
+import com.evolve.model.Cart;
+import com.evolve.model.Order;
+import com.evolve.repository.CartRepository;
+import com.evolve.repository.OrderRepository;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuples;
+
+/**
+ * Turns an active cart into an order in one R2DBC transaction.
+ *
+ * <p>The conditional {@code UPDATE ... WHERE status = 'active'} both locks the
+ * cart row and moves it to {@code checked_out}, so of two concurrent
+ * checkouts of the same cart exactly one creates an order; the other sees
+ * zero updated rows and is rejected. The Redis cart key is refreshed after
+ * commit, never with uncommitted state.
+ */
+@Slf4j
+@Component
+public class CheckoutService {
+
+    public static final String ACTIVE = "active";
+    public static final String CHECKED_OUT = "checked_out";
+    public static final String ORDER_CREATED = "created";
+
+    private final CartRepository cartRepository;
+    private final OrderRepository orderRepository;
+    private final CartCache cartCache;
+    private final TransactionalOperator transactionalOperator;
+
+    public CheckoutService(CartRepository cartRepository, OrderRepository orderRepository,
+                           CartCache cartCache, TransactionalOperator transactionalOperator) {
+        this.cartRepository = cartRepository;
+        this.orderRepository = orderRepository;
+        this.cartCache = cartCache;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    /**
+     * Empty if the cart does not exist; {@link IllegalStateException} if it is
+     * no longer active.
+     */
+    public Mono<Order> checkout(Long cartId) {
+        return cartRepository.transitionStatus(cartId, ACTIVE, CHECKED_OUT)
+                .flatMap(updated -> updated == 1 ? cartRepository.findById(cartId) : rejected(cartId))
+                .flatMap(cart -> {
+                    Order order = new Order();
+                    order.setUserId(cart.getUserId());
+                    order.setStatus(ORDER_CREATED);
+                    return orderRepository.save(order).map(saved -> Tuples.of(cart, saved));
+                })
+                .as(transactionalOperator::transactional)
+                .flatMap(committed -> {
+                    log.info("Cart {} checked out as order {}", cartId, committed.getT2().getId());
+                    return cartCache.put(committed.getT1()).thenReturn(committed.getT2());
+                });
+    }
+
+    private Mono<Cart> rejected(Long cartId) {
+        return cartRepository.findById(cartId)
+                .flatMap(cart -> Mono.error(new IllegalStateException(
+                        "Cart " + cartId + " is " + cart.getStatus())));
+    }
+}
@@ -1,32 +1,35 @@
 package com.evolve.springbootapp;
 
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.messaging.rsocket.RSocketRequester;
 import org.springframework.stereotype.Component;
 
+import lombok.extern.slf4j.Slf4j;
+
+// Demo client for the RSocket server on 7000; estore.rsocket-client.enabled=false drops it
+@Slf4j
 @Component
+@ConditionalOnProperty(name = "estore.rsocket-client.enabled", matchIfMissing = true)
 public class RSocketClient implements CommandLineRunner {
 
     @Override
     public void run(String... args) {
         RSocketRequester requester = RSocketRequester.builder()
-                .connectTcp("localhost", 7000)
-                .block();
+                .tcp("localhost", 7000);
 
-        // Unary call
+        // Unary call, then the streaming call; subscribed rather than blocked on,
+        // so the calls back into this same application do not hold up startup
         requester.route("greet")
                 .data("Spring Boot")
                 .retrieveMono(String.class)
-                .doOnNext(System.out::println)
-                .block();
-
-        // Streaming call
-        requester.route("greet.stream")
-                .data("RSocket")
-                .retrieveFlux(String.class)
-                .take(5)
-                .doOnNext(System.out::println)
-                .blockLast();
+                .doOnNext(greeting -> log.info("RSocket greet: {}", greeting))
+                .thenMany(requester.route("greet.stream")
+                        .data("RSocket")
+                        .retrieveFlux(String.class)
+                        .take(5)
+                        .doOnNext(greeting -> log.info("RSocket greet.stream: {}", greeting)))
+                .doFinally(signal -> requester.dispose())
+                .subscribe(null, error -> log.warn("RSocket demo failed: {}", error.toString()));
     }
 }
-
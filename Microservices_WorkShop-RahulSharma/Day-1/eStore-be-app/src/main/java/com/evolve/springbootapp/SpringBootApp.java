@@ -1,29 +1,45 @@
 package com.evolve.springbootapp;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.web.codec.CodecCustomizer;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.ContextClosedEvent;
 import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
 import org.springframework.http.server.reactive.HttpHandler;
 import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
 import org.springframework.web.reactive.function.server.RouterFunction;
 import org.springframework.web.reactive.function.server.RouterFunctions;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.WebFilter;
 
+import com.evolve.config.HttpServerProfile;
+
+import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
 import reactor.netty.http.server.HttpServer;
 
+@Slf4j
 @SpringBootApplication(scanBasePackages="com.evolve")
 @EnableR2dbcRepositories(basePackages = "com.evolve.repository") // optional if same package
 @EntityScan(basePackages = {"com.evolve.model"}) // optional if same package
 public class SpringBootApp {
   public static void main(String[] args) {
-    SpringApplication.run(SpringBootApp.class, args);
-    System.out.println("Thread: " + Thread.currentThread().getName());
+    SpringApplication application = new SpringApplication(SpringBootApp.class);
+    // Records every startup step for StartupReport and /actuator/startup
+    application.setApplicationStartup(new BufferingApplicationStartup(8192));
+    application.run(args);
+    log.debug("Started from thread {}", Thread.currentThread().getName());
   }
   /*@Bean
 	public CommandLineRunner nettyServerRunner() {
@@ -38,14 +54,33 @@ public class SpringBootApp {
 	}*/
 	@Primary
 	@Bean
-    public CommandLineRunner nettyServerRunner(HttpServer server) {
-        return args -> server.bindNow().onDispose().block();
+    public CommandLineRunner nettyServerRunner(HttpServer server, ConfigurableApplicationContext context) {
+        // Bound without parking the main thread, so the application still reaches ready
+        return args -> {
+            DisposableServer bound = server.bindNow();
+            context.addApplicationListener(event -> {
+                if (event instanceof ContextClosedEvent) {
+                    bound.disposeNow();
+                }
+            });
+        };
     }
 
     @Bean
-    public HttpServer httpServer(@Qualifier("mainRouter") RouterFunction<ServerResponse> router) {
-        HttpHandler httpHandler = RouterFunctions.toHttpHandler(router);
+    public HttpServer httpServer(@Qualifier("mainRouter") RouterFunction<ServerResponse> router,
+                                 HttpServerProfile profile,
+                                 ObjectProvider<CodecCustomizer> codecCustomizers,
+                                 ObjectProvider<WebFluxConfigurer> webFluxConfigurers,
+                                 ObjectProvider<WebFilter> webFilters) {
+        // WebFilter beans and codec customisations only reach the main server's handler; this one gets
+        // the same ones, in the same order, so both ports answer a route alike
+        HandlerStrategies.Builder strategies = HandlerStrategies.builder().codecs(configurer -> {
+            codecCustomizers.orderedStream().forEach(customizer -> customizer.customize(configurer));
+            webFluxConfigurers.orderedStream().forEach(webFlux -> webFlux.configureHttpMessageCodecs(configurer));
+        });
+        webFilters.orderedStream().forEach(strategies::webFilter);
+        HttpHandler httpHandler = RouterFunctions.toHttpHandler(router, strategies.build());
         ReactorHttpHandlerAdapter adapter = new ReactorHttpHandlerAdapter(httpHandler);
-        return HttpServer.create().port(8081).handle(adapter);
+        return profile.apply(HttpServer.create().port(8081)).handle(adapter);
     }
 }
@@ -0,0 +1,216 @@
+package com.evolve.websocket;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.ReactiveSubscription.Message;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+/**
+ * Carries chat messages between replicas over Redis pub/sub, so a
+ * message reaches the channel's sockets on every node, this one included.
+ * Callers name the channel: {@link ChatRooms} uses {@code chat:room:{room}}
+ * and the servlet {@link ChatHandler} {@code chat:servlet:lobby}, so the
+ * two chats never see each other's messages.
+ *
+ * <p>Outbound, messages are parked per channel and published every
+ * {@code batch-window} as one JSON array, so a busy room costs one Redis
+ * publish (and one delivery per node) per window instead of per message.
+ * Inbound, each node holds one subscription per channel it has sockets
+ * in, shared by all of them, and dropped when the last one leaves; a
+ * subscription that fails is retried with backoff. A batch that fails to
+ * publish is logged, counted and lost. While Redis stalls, each channel
+ * parks at most {@code max-pending} messages; past that new ones are
+ * dropped and counted in {@code chat.cluster.dropped}.
+ *
+ * <p>On with {@code estore.chat.cluster.enabled}; without it rooms are
+ * local to the node.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "estore.chat.cluster.enabled")
+public class ChatClusterRelay {
+
+    private final ReactiveRedisTemplate<String, List<String>> redisBatchTemplate;
+    private final ReactiveRedisMessageListenerContainer listenerContainer;
+    private final Duration batchWindow;
+    private final int maxPending;
+    private final SerializationPair<String> channelSerialization =
+            SerializationPair.fromSerializer(RedisSerializer.string());
+    private final Map<String, List<String>> pending = new ConcurrentHashMap<>();
+    private final Map<String, ChannelStream> streams = new ConcurrentHashMap<>();
+    private Disposable flusher;
+
+    private final Counter messages;
+    private final Counter batches;
+    private final Counter batchErrors;
+    private final Counter dropped;
+
+    public ChatClusterRelay(ReactiveRedisTemplate<String, List<String>> redisBatchTemplate,
+                            ReactiveRedisMessageListenerContainer listenerContainer,
+                            MeterRegistry meterRegistry,
+                            @Value("${estore.chat.cluster.batch-window:10ms}") Duration batchWindow,
+                            @Value("${estore.chat.cluster.max-pending:10000}") int maxPending) {
+        this.redisBatchTemplate = redisBatchTemplate;
+        this.listenerContainer = listenerContainer;
+        this.batchWindow = batchWindow;
+        this.maxPending = maxPending;
+
+        this.messages = meterRegistry.counter("chat.cluster.messages");
+        this.batches = meterRegistry.counter("chat.cluster.batches", "result", "ok");
+        this.batchErrors = meterRegistry.counter("chat.cluster.batches", "result", "error");
+        this.dropped = Counter.builder("chat.cluster.dropped")
+                .description("Chat messages dropped because their channel's pending batch was full")
+                .register(meterRegistry);
+        meterRegistry.gauge("chat.cluster.subscriptions", streams, Map::size);
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher = Flux.interval(batchWindow)
+                .onBackpressureDrop()
+                .concatMap(tick -> flush(), 1)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) {
+            flusher.dispose();
+        }
+        flush().timeout(Duration.ofSeconds(5), Mono.empty()).block();
+    }
+
+    /** Queues {@code message} for every node's sockets on {@code channel}, or drops it if the channel's batch is full. */
+    public void publish(String channel, String message) {
+        pending.compute(channel, (name, batch) -> {
+            List<String> queued = batch == null ? new ArrayList<>() : batch;
+            if (queued.size() < maxPending) {
+                queued.add(message);
+                messages.increment();
+            } else {
+                dropped.increment();
+            }
+            return queued;
+        });
+    }
+
+    /**
+     * Messages published to {@code channel} by any node, over one Redis
+     * subscription per channel; subscribing joins it and cancelling leaves.
+     */
+    public Flux<String> messages(String channel) {
+        return Flux.defer(() -> {
+            // Joined inside compute, so a leaving last reader can't close a stream a new one just got
+            ChannelStream joined = streams.compute(channel,
+                    (name, existing) -> (existing == null ? open(name) : existing).join());
+            return joined.messages.doFinally(signal -> leave(channel, joined));
+        });
+    }
+
+    /**
+     * Completes once this node's Redis subscription to {@code channel} is
+     * active, so messages published from then on reach it; empty when no
+     * socket on this node is on the channel.
+     */
+    public Mono<Void> subscribed(String channel) {
+        ChannelStream stream = streams.get(channel);
+        return stream == null ? Mono.empty() : stream.subscribed.asMono();
+    }
+
+    private void leave(String channel, ChannelStream joined) {
+        streams.computeIfPresent(channel, (name, existing) -> {
+            if (existing != joined || existing.leave() > 0) {
+                return existing;
+            }
+            existing.close();
+            return null;
+        });
+    }
+
+    private ChannelStream open(String channel) {
+        ChannelStream stream = new ChannelStream();
+        SerializationPair<List<String>> batchSerialization = redisBatchTemplate.getSerializationContext()
+                .getValueSerializationPair();
+        stream.messages = listenerContainer
+                .receiveLater(List.of(ChannelTopic.of(channel)), channelSerialization, batchSerialization)
+                .doOnNext(active -> stream.subscribed.tryEmitEmpty())
+                .flatMapMany(active -> active)
+                .map(Message::getMessage)
+                .flatMapIterable(batch -> batch)
+                .doOnError(e -> log.warn("Chat subscription to {} failed, resubscribing: {}", channel, e.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .publish()
+                .autoConnect(1, connection -> stream.connection = connection);
+        return stream;
+    }
+
+    private static final class ChannelStream {
+
+        final Sinks.Empty<Void> subscribed = Sinks.empty();
+        Flux<String> messages;
+        // Only changed inside ConcurrentHashMap.compute for this channel's key
+        private int readers;
+        private volatile Disposable connection;
+
+        ChannelStream join() {
+            readers++;
+            return this;
+        }
+
+        int leave() {
+            return --readers;
+        }
+
+        // The Redis subscription is closed here, never by a reader cancelling, so it can't outlive the map entry
+        void close() {
+            Disposable open = connection;
+            if (open != null) {
+                open.dispose();
+            }
+        }
+    }
+
+    // One publish per channel per tick, in order, so a channel's batches never overtake each other
+    private Mono<Void> flush() {
+        if (pending.isEmpty()) {
+            return Mono.empty();
+        }
+        return Flux.fromIterable(new ArrayList<>(pending.keySet()))
+                .concatMap(channel -> {
+                    List<String> batch = pending.remove(channel);
+                    if (batch == null) {
+                        return Mono.empty();
+                    }
+                    return redisBatchTemplate.convertAndSend(channel, batch)
+                            .doOnSuccess(receivers -> batches.increment())
+                            .onErrorResume(e -> {
+                                batchErrors.increment();
+                                log.warn("Chat batch of {} to {} failed: {}", batch.size(), channel, e.getMessage());
+                                return Mono.empty();
+                            });
+                })
+                .then();
+    }
+}
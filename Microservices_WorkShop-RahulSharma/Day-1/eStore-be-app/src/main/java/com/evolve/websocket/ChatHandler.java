@@ -1,33 +1,130 @@
 package com.evolve.websocket;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.*;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
-import java.util.concurrent.CopyOnWriteArrayList;
+import com.evolve.websocket.ChatRooms.SlowConsumer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.Disposable;
 
+/**
+ * Servlet variant of {@code /ws/chat}: every message is echoed to all
+ * connected sessions. Delivery only queues the message in each session's
+ * {@link SessionOutbox}; the sender's thread never writes to a socket.
+ * A full outbox is handled like a full buffer in {@link ChatRooms}, by
+ * the same {@code estore.chat.*} settings.
+ *
+ * <p>With a {@link ChatClusterRelay} the sessions form one room across
+ * all nodes: messages go out through Redis on {@value #CHANNEL} and come
+ * back from the relay's subscription, held while this node has sessions.
+ * The channel is its own, so this chat never mixes with the reactive
+ * {@link ChatWebSocketHandler}'s {@value ChatWebSocketHandler#DEFAULT_ROOM}.
+ */
 @Component
 public class ChatHandler extends TextWebSocketHandler {
 
-    private final CopyOnWriteArrayList<WebSocketSession> sessions = new CopyOnWriteArrayList<>();
+    private static final CloseStatus SLOW_CONSUMER = CloseStatus.POLICY_VIOLATION.withReason("slow consumer");
+
+    static final String CHANNEL = "chat:servlet:lobby";
+
+    private final ChatClusterRelay relay;
+    private final Map<String, SessionOutbox> sessions = new ConcurrentHashMap<>();
+    private final int bufferSize;
+    private final SlowConsumer slowConsumer;
+    private Disposable relayed;
+
+    private final Counter dropped;
+    private final Counter disconnected;
+
+    @Autowired
+    public ChatHandler(MeterRegistry meterRegistry,
+                       @Value("${estore.chat.buffer-size:256}") int bufferSize,
+                       @Value("${estore.chat.slow-consumer:drop-oldest}") SlowConsumer slowConsumer,
+                       ObjectProvider<ChatClusterRelay> relay) {
+        this(meterRegistry, bufferSize, slowConsumer, relay.getIfAvailable());
+    }
+
+    ChatHandler(MeterRegistry meterRegistry, int bufferSize, SlowConsumer slowConsumer) {
+        this(meterRegistry, bufferSize, slowConsumer, (ChatClusterRelay) null);
+    }
+
+    ChatHandler(MeterRegistry meterRegistry, int bufferSize, SlowConsumer slowConsumer, ChatClusterRelay relay) {
+        this.relay = relay;
+        this.bufferSize = bufferSize;
+        this.slowConsumer = slowConsumer;
+
+        this.dropped = meterRegistry.counter("chat.messages", "result", "dropped");
+        this.disconnected = meterRegistry.counter("chat.sessions.disconnected", "reason", "slow-consumer");
+        meterRegistry.gauge("chat.outbox.queued", sessions,
+                s -> s.values().stream().mapToInt(SessionOutbox::depth).sum());
+        meterRegistry.gauge("chat.outbox.max-depth", sessions,
+                s -> s.values().stream().mapToInt(SessionOutbox::depth).max().orElse(0));
+    }
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) {
-        sessions.add(session);
+        sessions.put(session.getId(), new SessionOutbox(session, bufferSize).start());
+        if (relay != null) {
+            synchronized (this) {
+                if (relayed == null) {
+                    relayed = relay.messages(CHANNEL).subscribe(text -> broadcast(new TextMessage(text)));
+                }
+            }
+        }
     }
 
     @Override
-    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
-        for (WebSocketSession client : sessions) {
-            if (client.isOpen()) {
-                client.sendMessage(new TextMessage("Echo: " + message.getPayload()));
-            }
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        String echo = "Echo: " + message.getPayload();
+        if (relay != null) {
+            relay.publish(CHANNEL, echo);
+        } else {
+            broadcast(new TextMessage(echo));
         }
     }
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
-        sessions.remove(session);
+        SessionOutbox outbox = sessions.remove(session.getId());
+        if (outbox != null) {
+            outbox.stop();
+        }
+        if (relay != null) {
+            synchronized (this) {
+                if (sessions.isEmpty() && relayed != null) {
+                    relayed.dispose();
+                    relayed = null;
+                }
+            }
+        }
     }
-}
 
+    private void broadcast(TextMessage message) {
+        for (SessionOutbox outbox : sessions.values()) {
+            deliver(outbox, message);
+        }
+    }
+
+    private void deliver(SessionOutbox outbox, TextMessage message) {
+        while (!outbox.offer(message)) {
+            if (slowConsumer == SlowConsumer.DISCONNECT) {
+                if (outbox.close(SLOW_CONSUMER)) {
+                    disconnected.increment();
+                }
+                return;
+            }
+            if (outbox.dropOldest()) {
+                dropped.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.evolve.websocket;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.Queues;
+
+/**
+ * Chat rooms for {@code /ws/chat}. Each room is one multicast sink shared
+ * by the sessions in it, created on the first join and dropped when the
+ * last session leaves.
+ *
+ * <p>Publishing only queues the message on the room. One drain at a time
+ * per room, on the {@code parallel} scheduler, hands queued messages to
+ * the sessions in order, so concurrent publishers never spin on the sink
+ * and the fan-out stays off the sender's event loop.
+ *
+ * <p>Every session reads its room through its own buffer of
+ * {@code buffer-size} messages, so a session that can't keep up only holds
+ * itself back. When that buffer is full, {@code slow-consumer} decides:
+ * <ul>
+ *   <li>{@code drop-oldest}: the oldest queued message is discarded and
+ *   counted in {@code chat.messages{result=dropped}}.</li>
+ *   <li>{@code disconnect}: the session's stream fails with an overflow
+ *   error and {@link ChatWebSocketHandler} closes the socket.</li>
+ * </ul>
+ *
+ * <p>With a {@link ChatClusterRelay}, publishing goes through Redis and a
+ * room's sink is fed from the relay's subscription for it, so rooms span
+ * every node.
+ */
+@Component
+public class ChatRooms {
+
+    public enum SlowConsumer { DROP_OLDEST, DISCONNECT }
+
+    private final ChatClusterRelay relay;
+    private final Scheduler fanOut;
+    private final Map<String, Room> rooms = new ConcurrentHashMap<>();
+    private final AtomicInteger sessions = new AtomicInteger();
+    private final int bufferSize;
+    private final SlowConsumer slowConsumer;
+
+    private final Counter published;
+    private final Counter dropped;
+    private final Counter disconnected;
+
+    @Autowired
+    public ChatRooms(MeterRegistry meterRegistry,
+                     @Value("${estore.chat.buffer-size:256}") int bufferSize,
+                     @Value("${estore.chat.slow-consumer:drop-oldest}") SlowConsumer slowConsumer,
+                     ObjectProvider<ChatClusterRelay> relay) {
+        this(meterRegistry, bufferSize, slowConsumer, relay.getIfAvailable());
+    }
+
+    public ChatRooms(MeterRegistry meterRegistry, int bufferSize, SlowConsumer slowConsumer) {
+        this(meterRegistry, bufferSize, slowConsumer, (ChatClusterRelay) null);
+    }
+
+    ChatRooms(MeterRegistry meterRegistry, int bufferSize, SlowConsumer slowConsumer, ChatClusterRelay relay) {
+        this(meterRegistry, bufferSize, slowConsumer, relay, Schedulers.parallel());
+    }
+
+    ChatRooms(MeterRegistry meterRegistry, int bufferSize, SlowConsumer slowConsumer, ChatClusterRelay relay,
+              Scheduler fanOut) {
+        this.relay = relay;
+        this.fanOut = fanOut;
+        this.bufferSize = bufferSize;
+        this.slowConsumer = slowConsumer;
+
+        this.published = meterRegistry.counter("chat.messages", "result", "published");
+        this.dropped = meterRegistry.counter("chat.messages", "result", "dropped");
+        this.disconnected = meterRegistry.counter("chat.sessions.disconnected", "reason", "slow-consumer");
+        meterRegistry.gauge("chat.rooms", rooms, Map::size);
+        meterRegistry.gauge("chat.sessions", sessions);
+    }
+
+    /**
+     * Messages published to {@code room} from the moment of subscription;
+     * subscribing joins the room and cancelling leaves it.
+     */
+    public Flux<String> join(String room) {
+        return Flux.defer(() -> {
+            Room joined = rooms.compute(room, (name, existing) -> (existing == null ? open(name) : existing).join());
+            sessions.incrementAndGet();
+            return buffered(joined.sink.asFlux())
+                    .doFinally(signal -> leave(room, joined));
+        });
+    }
+
+    /** Sends {@code message} to every session in {@code room}; a room nobody is in drops it. */
+    public void publish(String room, String message) {
+        if (relay != null) {
+            relay.publish(channel(room), message);
+            published.increment();
+            return;
+        }
+        Room target = rooms.get(room);
+        if (target != null) {
+            target.emit(message);
+            published.increment();
+        }
+    }
+
+    /** The Redis channel {@link ChatClusterRelay} carries {@code room} on. */
+    static String channel(String room) {
+        return "chat:room:" + room;
+    }
+
+    int roomCount() {
+        return rooms.size();
+    }
+
+    private Flux<String> buffered(Flux<String> messages) {
+        if (slowConsumer == SlowConsumer.DISCONNECT) {
+            // BufferOverflowStrategy.ERROR only signals once the buffer drains, which a stalled session never does
+            Sinks.Empty<Void> overflow = Sinks.empty();
+            return messages
+                    .onBackpressureBuffer(bufferSize, message -> {
+                        if (overflow.tryEmitError(Exceptions.failWithOverflow()).isSuccess()) {
+                            disconnected.increment();
+                        }
+                    }, BufferOverflowStrategy.DROP_LATEST)
+                    .takeUntilOther(overflow.asMono());
+        }
+        return messages.onBackpressureBuffer(bufferSize, message -> dropped.increment(),
+                BufferOverflowStrategy.DROP_OLDEST);
+    }
+
+    private void leave(String room, Room joined) {
+        sessions.decrementAndGet();
+        rooms.computeIfPresent(room, (name, existing) -> {
+            if (existing != joined || existing.leave() > 0) {
+                return existing;
+            }
+            existing.close();
+            return null;
+        });
+    }
+
+    // Called inside rooms.compute, so a room's relay subscription is opened and closed with the room itself
+    private Room open(String name) {
+        Room room = new Room();
+        if (relay != null) {
+            room.relayed = relay.messages(channel(name)).subscribe(room::emit);
+        }
+        return room;
+    }
+
+    private final class Room {
+
+        // Never drops: each subscriber is a session buffer that requests everything. Only drain() emits.
+        final Sinks.Many<String> sink = Sinks.unsafe().many().multicast().directBestEffort();
+        private final Queue<String> queue = Queues.<String>unboundedMultiproducer().get();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final Scheduler.Worker worker = fanOut.createWorker();
+        // Only changed inside ConcurrentHashMap.compute for this room's key
+        private int members;
+        private Disposable relayed;
+
+        void emit(String message) {
+            queue.offer(message);
+            if (wip.getAndIncrement() == 0) {
+                try {
+                    worker.schedule(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // The room closed under a late publisher; nobody is left to read it
+                    queue.clear();
+                }
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                String message;
+                while ((message = queue.poll()) != null) {
+                    Sinks.EmitResult result = sink.tryEmitNext(message);
+                    if (result.isFailure() && result != Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+                        dropped.increment();
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        Room join() {
+            members++;
+            return this;
+        }
+
+        int leave() {
+            return --members;
+        }
+
+        void close() {
+            if (relayed != null) {
+                relayed.dispose();
+            }
+            worker.dispose();
+        }
+    }
+}
@@ -1,19 +1,55 @@
 package com.evolve.websocket;
 
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.socket.CloseStatus;
 import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketMessage;
 import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
 
+import reactor.core.Exceptions;
 import reactor.core.publisher.Mono;
 
+/**
+ * {@code /ws/chat?room=...}: every text frame a session sends is broadcast
+ * to all sessions in its room, the sender included, through
+ * {@link ChatRooms}. Without a {@code room} parameter the session joins
+ * {@value #DEFAULT_ROOM}. A session dropped as a slow consumer is closed
+ * with 1008 (policy violation).
+ */
 @Component
 public class ChatWebSocketHandler implements WebSocketHandler {
 
+    static final String DEFAULT_ROOM = "lobby";
+    private static final CloseStatus SLOW_CONSUMER = CloseStatus.POLICY_VIOLATION.withReason("slow consumer");
+
+    private final ChatRooms rooms;
+
+    public ChatWebSocketHandler(ChatRooms rooms) {
+        this.rooms = rooms;
+    }
+
     @Override
     public Mono<Void> handle(WebSocketSession session) {
-        return session.send(
-            session.receive()
-                   .map(msg -> session.textMessage("Echo: " + msg.getPayloadAsText()))
-        );
+        String room = room(session.getHandshakeInfo().getUri());
+        Mono<Void> inbound = session.receive()
+                .map(WebSocketMessage::getPayloadAsText)
+                .doOnNext(text -> rooms.publish(room, text))
+                .then();
+        Mono<Void> outbound = session.send(rooms.join(room).map(session::textMessage))
+                .onErrorResume(Exceptions::isOverflow, e -> session.close(SLOW_CONSUMER));
+        // Whichever side ends first (client closed, or dropped as slow) ends the other
+        return Mono.firstWithSignal(inbound, outbound);
+    }
+
+    // getQueryParams() leaves values percent-encoded, so "cart%207" would be a different room from "cart 7"
+    static String room(URI uri) {
+        String encoded = UriComponentsBuilder.fromUri(uri).build(true).getQueryParams().getFirst("room");
+        String room = encoded == null ? null : UriUtils.decode(encoded, StandardCharsets.UTF_8);
+        return room == null || room.isBlank() ? DEFAULT_ROOM : room;
     }
-}
\ No newline at end of file
+}
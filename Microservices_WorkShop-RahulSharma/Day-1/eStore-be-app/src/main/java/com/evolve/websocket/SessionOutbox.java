@@ -0,0 +1,92 @@
+package com.evolve.websocket;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Outbound queue of one servlet WebSocket session, emptied by its own
+ * virtual thread, so a blocking {@code sendMessage} to a slow client only
+ * holds up that client. {@link #offer} never blocks; what happens when the
+ * queue is full is up to the caller. Closing is left to the writer too,
+ * since the close frame goes to the same socket.
+ */
+@Slf4j
+class SessionOutbox {
+
+    private final WebSocketSession session;
+    private final BlockingQueue<TextMessage> queue;
+    private final Thread writer;
+    private final AtomicReference<CloseStatus> closing = new AtomicReference<>();
+
+    SessionOutbox(WebSocketSession session, int capacity) {
+        this.session = session;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = Thread.ofVirtual().name("chat-writer-" + session.getId()).unstarted(this::write);
+    }
+
+    SessionOutbox start() {
+        writer.start();
+        return this;
+    }
+
+    boolean offer(TextMessage message) {
+        return queue.offer(message);
+    }
+
+    /** Makes room by discarding the oldest queued message; false if another writer emptied it first. */
+    boolean dropOldest() {
+        return queue.poll() != null;
+    }
+
+    int depth() {
+        return queue.size();
+    }
+
+    /**
+     * Discards what is queued and has the writer close the session, so the
+     * caller never waits on the socket; false if it was already closing.
+     */
+    boolean close(CloseStatus status) {
+        if (!closing.compareAndSet(null, status)) {
+            return false;
+        }
+        queue.clear();
+        writer.interrupt();
+        return true;
+    }
+
+    void stop() {
+        writer.interrupt();
+    }
+
+    private void write() {
+        try {
+            while (closing.get() == null && session.isOpen()) {
+                session.sendMessage(queue.take());
+            }
+        } catch (InterruptedException e) {
+            // Closing through here, or the session already closed
+        } catch (IOException e) {
+            log.debug("Chat session {} stopped accepting messages", session.getId(), e);
+        } catch (RuntimeException e) {
+            log.warn("Writing to chat session {} failed, closing it", session.getId(), e);
+            close(CloseStatus.SERVER_ERROR);
+        }
+        CloseStatus status = closing.get();
+        if (status != null) {
+            try {
+                session.close(status);
+            } catch (IOException e) {
+                log.debug("Closing chat session {} failed", session.getId(), e);
+            }
+        }
+    }
+}
@@ -3,18 +3,21 @@ CREATE TABLE users (
     name VARCHAR(100),
     email VARCHAR(100)
 );
+CREATE INDEX idx_users_name ON users (name);
 CREATE TABLE orders (
     id SERIAL PRIMARY KEY,
     user_id BIGINT NOT NULL,
     status VARCHAR(50) NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
+CREATE INDEX idx_orders_user_id ON orders (user_id);
 CREATE TABLE carts (
     id BIGSERIAL PRIMARY KEY,
     user_id BIGINT NOT NULL,
     status VARCHAR(32) DEFAULT 'active',
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
+CREATE INDEX idx_carts_user_id ON carts (user_id);
 
 CREATE TABLE cart_items (
     id BIGSERIAL PRIMARY KEY,
@@ -22,6 +25,7 @@ CREATE TABLE cart_items (
     product_id BIGINT NOT NULL,
     quantity INT NOT NULL CHECK (quantity > 0)
 );
+CREATE INDEX idx_cart_items_cart_id ON cart_items (cart_id);
 
 CREATE TABLE products (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -0,0 +1,157 @@
+package com.evolve.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+
+import com.evolve.cache.CartCache.WriteMode;
+import com.evolve.model.Cart;
+import com.evolve.repository.CartRepository;
+import com.evolve.service.CartUpdateStream;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+class CartCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ReactiveRedisTemplate<String, Cart> redisCartTemplate = mock();
+    private final ReactiveRedisTemplate<String, List<Cart>> redisCartListTemplate = mock();
+    private final ReactiveValueOperations<String, Cart> values = mock();
+    private final CartUpdateStream cartUpdates = mock(CartUpdateStream.class);
+
+    @BeforeEach
+    void setup() {
+        when(redisCartTemplate.opsForValue()).thenReturn(values);
+        when(values.set(anyString(), any(Cart.class), any(Duration.class))).thenReturn(Mono.just(true));
+        when(redisCartTemplate.delete(anyString())).thenReturn(Mono.just(1L));
+        when(cartUpdates.publish(any(Cart.class))).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void writeThroughWritesBeforeThePutCompletes() {
+        CartCache cache = cache(WriteMode.WRITE_THROUGH, 64, 10);
+
+        cache.put(cart(7L, "active")).block();
+
+        verify(values).set(eq(CartCache.idKey(7L)), any(Cart.class), any(Duration.class));
+        verify(redisCartTemplate).delete(CartCache.userKey(1L));
+        verify(cartUpdates).publish(any(Cart.class));
+        assertThat(registry.get("cart.cache.writes").tag("result", "ok").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void writeBehindParksTheCartUntilTheNextFlush() {
+        CartCache cache = cache(WriteMode.WRITE_BEHIND, 64, 10);
+
+        cache.put(cart(7L, "active")).block();
+        verify(values, never()).set(anyString(), any(Cart.class), any(Duration.class));
+        assertThat(registry.get("cart.cache.pending").gauge().value()).isEqualTo(1);
+
+        cache.stop();
+        verify(values).set(eq(CartCache.idKey(7L)), any(Cart.class), any(Duration.class));
+        assertThat(registry.get("cart.cache.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    void writeBehindCoalescesUpdatesToOneCart() {
+        CartCache cache = cache(WriteMode.WRITE_BEHIND, 64, 10);
+
+        cache.put(cart(7L, "active")).block();
+        cache.put(cart(7L, "checked_out")).block();
+        cache.stop();
+
+        assertThat(registry.get("cart.cache.writes").tag("result", "coalesced").counter().count()).isEqualTo(1);
+        verify(values, times(1)).set(eq(CartCache.idKey(7L)), any(Cart.class), any(Duration.class));
+        verify(values).set(eq(CartCache.idKey(7L)), eq(cart(7L, "checked_out")), any(Duration.class));
+    }
+
+    @Test
+    void writeBehindWritesThroughPastMaxPending() {
+        CartCache cache = cache(WriteMode.WRITE_BEHIND, 64, 1);
+
+        cache.put(cart(7L, "active")).block();
+        cache.put(cart(8L, "active")).block();
+
+        verify(values, never()).set(eq(CartCache.idKey(7L)), any(Cart.class), any(Duration.class));
+        verify(values).set(eq(CartCache.idKey(8L)), any(Cart.class), any(Duration.class));
+        assertThat(registry.get("cart.cache.pending").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void writesWithoutAFreeSlotAreParkedThenWrittenByTheCallerPastMaxPending() {
+        CartCache cache = cache(WriteMode.WRITE_THROUGH, 0, 1);
+
+        cache.put(cart(7L, "active")).block();
+        cache.put(cart(8L, "active")).block();
+
+        verify(values, never()).set(eq(CartCache.idKey(7L)), any(Cart.class), any(Duration.class));
+        verify(values).set(eq(CartCache.idKey(8L)), any(Cart.class), any(Duration.class));
+        assertThat(registry.get("cart.cache.pending").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("cart.cache.pending.overflow").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void aDirectWriteReplacesAnOlderParkedVersion() {
+        CartCache cache = cache(WriteMode.WRITE_THROUGH, 1, 10);
+        Sinks.One<Boolean> slow = Sinks.one();
+        when(values.set(eq(CartCache.idKey(9L)), any(Cart.class), any(Duration.class))).thenReturn(slow.asMono());
+
+        // Cart 9's write holds the only slot, so the first version of cart 7 is parked
+        cache.put(cart(9L, "active")).subscribe();
+        cache.put(cart(7L, "active")).block();
+        slow.tryEmitValue(true);
+        cache.put(cart(7L, "checked_out")).block();
+        cache.stop();
+
+        ArgumentCaptor<Cart> written = ArgumentCaptor.forClass(Cart.class);
+        verify(values).set(eq(CartCache.idKey(7L)), written.capture(), any(Duration.class));
+        assertThat(written.getValue().getStatus()).isEqualTo("checked_out");
+        assertThat(registry.get("cart.cache.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    void aReadMissOnlyFillsAnAbsentKey() {
+        CartRepository cartRepository = mock(CartRepository.class);
+        when(cartRepository.findById(7L)).thenReturn(Mono.just(cart(7L, "active")));
+        when(values.get(CartCache.idKey(7L))).thenReturn(Mono.empty());
+        when(values.setIfAbsent(anyString(), any(Cart.class), any(Duration.class))).thenReturn(Mono.just(false));
+        CartCache cache = new CartCache(cartRepository, redisCartTemplate, redisCartListTemplate, cartUpdates,
+                registry, WriteMode.WRITE_THROUGH, Duration.ofMinutes(30), Duration.ofHours(1), 64, 10);
+
+        assertThat(cache.findById(7L).block().getStatus()).isEqualTo("active");
+
+        verify(values).setIfAbsent(eq(CartCache.idKey(7L)), any(Cart.class), any(Duration.class));
+        verify(values, never()).set(anyString(), any(Cart.class), any(Duration.class));
+    }
+
+    // The flusher is never started; stop() runs the one flush a test needs
+    private CartCache cache(WriteMode writeMode, int maxInFlight, int maxPending) {
+        return new CartCache(mock(CartRepository.class), redisCartTemplate, redisCartListTemplate, cartUpdates,
+                registry, writeMode, Duration.ofMinutes(30), Duration.ofHours(1), maxInFlight, maxPending);
+    }
+
+    private static Cart cart(Long id, String status) {
+        Cart cart = new Cart();
+        cart.setId(id);
+        cart.setUserId(1L);
+        cart.setStatus(status);
+        return cart;
+    }
+}
@@ -0,0 +1,107 @@
+package com.evolve.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.evolve.model.Product;
+import com.evolve.repository.ProductRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+class ProductCacheTest {
+
+    private ProductRepository productRepo;
+    private ProductCache productCache;
+
+    @BeforeEach
+    void setup() {
+        productRepo = mock(ProductRepository.class);
+        productCache = new ProductCache(productRepo, 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void secondLookupIsServedFromCache() {
+        when(productRepo.findById(1L)).thenReturn(Mono.just(product(1L)));
+
+        productCache.findById(1L).block();
+        Product cached = productCache.findById(1L).block();
+
+        assertThat(cached.getId()).isEqualTo(1L);
+        verify(productRepo, times(1)).findById(1L);
+        assertThat(productCache.cache().stats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void batchLookupOnlyLoadsMisses() {
+        when(productRepo.findById(1L)).thenReturn(Mono.just(product(1L)));
+        when(productRepo.findAllById(List.of(2L, 3L))).thenReturn(Flux.just(product(2L), product(3L)));
+        productCache.findById(1L).block();
+
+        List<Product> products = productCache.findAllById(List.of(1L, 2L, 3L)).collectList().block();
+
+        assertThat(products).extracting(Product::getId).containsExactlyInAnyOrder(1L, 2L, 3L);
+        verify(productRepo).findAllById(List.of(2L, 3L));
+    }
+
+    @Test
+    void invalidateForcesReload() {
+        when(productRepo.findById(1L)).thenReturn(Mono.just(product(1L)));
+        productCache.findById(1L).block();
+
+        productCache.invalidate(1L);
+        productCache.findById(1L).block();
+
+        verify(productRepo, times(2)).findById(1L);
+    }
+
+    @Test
+    void anInvalidationDuringALoadKeepsTheLoadedProductOutOfTheCache() {
+        Sinks.One<Product> load = Sinks.one();
+        when(productRepo.findById(1L)).thenReturn(load.asMono(), Mono.just(product(1L)));
+        Mono<Product> inFlight = productCache.findById(1L).cache();
+        inFlight.subscribe();
+
+        productCache.invalidate(1L);
+        load.tryEmitValue(product(1L));
+
+        assertThat(inFlight.block()).isNotNull();
+        assertThat(productCache.cache().getIfPresent(1L)).isNull();
+        productCache.findById(1L).block();
+        assertThat(productCache.cache().getIfPresent(1L)).isNotNull();
+    }
+
+    @Test
+    void invalidateAllDuringABatchLoadKeepsItsProductsOutOfTheCache() {
+        Sinks.Many<Product> load = Sinks.many().unicast().onBackpressureBuffer();
+        when(productRepo.findAllById(List.of(2L, 3L))).thenReturn(load.asFlux());
+        Flux<Product> inFlight = productCache.findAllById(List.of(2L, 3L)).cache();
+        inFlight.subscribe();
+
+        load.tryEmitNext(product(2L));
+        productCache.invalidateAll();
+        load.tryEmitNext(product(3L));
+        load.tryEmitComplete();
+
+        assertThat(inFlight.collectList().block()).hasSize(2);
+        assertThat(productCache.cache().asMap()).isEmpty();
+    }
+
+    private static Product product(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setPrice(10.0);
+        return product;
+    }
+}
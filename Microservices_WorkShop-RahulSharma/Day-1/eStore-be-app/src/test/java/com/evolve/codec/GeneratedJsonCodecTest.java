@@ -0,0 +1,73 @@
+package com.evolve.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.evolve.config.WebFluxConfig;
+import com.evolve.dto.CartItemWithProduct;
+import com.evolve.dto.CartLineTotal;
+import com.evolve.dto.CartSummary;
+import com.evolve.model.Cart;
+import com.evolve.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+
+class GeneratedJsonCodecTest {
+
+    private final ObjectMapper generated = new WebFluxConfig().customObjectMapper();
+    private final ObjectMapper bean = new ObjectMapper();
+
+    @Test
+    void writesWhatTheBeanSerializerWrites() throws Exception {
+        CartSummary summary = CartSummary.of(3L, List.of(line(1L, "Pen \"blue\"", 2, 1.5), line(2L, null, 1, 4.0)), 3, 7.0);
+        CartItemWithProduct item = new CartItemWithProduct();
+        item.setId(9L);
+        item.setQuantity(2);
+        item.setProduct(product(5L, "Lamp", 19.99));
+
+        assertThat(generated.writeValueAsString(summary)).isEqualTo(bean.writeValueAsString(summary));
+        assertThat(generated.writeValueAsString(item)).isEqualTo(bean.writeValueAsString(item));
+        assertThat(generated.writeValueAsString(new Cart())).isEqualTo(bean.writeValueAsString(new Cart()));
+    }
+
+    @Test
+    void readsWhatTheBeanDeserializerReads() throws Exception {
+        String json = "{\"cartId\":3,\"lineCount\":\"2\",\"subtotal\":7,\"lines\":"
+                + "[{\"itemId\":1,\"productName\":null,\"unitPrice\":1.5}],\"itemCount\":null}";
+
+        assertThat(generated.readValue(json, CartSummary.class)).isEqualTo(bean.readValue(json, CartSummary.class));
+    }
+
+    @Test
+    void failsOnUnknownPropertiesAndBadValuesLikeTheBeanDeserializer() {
+        assertThatThrownBy(() -> generated.readValue("{\"id\":1,\"colour\":\"red\"}", Product.class))
+                .isInstanceOf(UnrecognizedPropertyException.class)
+                .hasMessageContaining("colour");
+        assertThatThrownBy(() -> generated.readValue("{\"id\":\"one\"}", Product.class))
+                .isInstanceOf(InvalidFormatException.class);
+    }
+
+    private static CartLineTotal line(Long productId, String name, int quantity, double unitPrice) {
+        CartLineTotal line = new CartLineTotal();
+        line.setItemId(productId * 10);
+        line.setProductId(productId);
+        line.setProductName(name);
+        line.setQuantity(quantity);
+        line.setUnitPrice(unitPrice);
+        line.setLineTotal(quantity * unitPrice);
+        return line;
+    }
+
+    private static Product product(Long id, String name, double price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setPrice(price);
+        return product;
+    }
+}
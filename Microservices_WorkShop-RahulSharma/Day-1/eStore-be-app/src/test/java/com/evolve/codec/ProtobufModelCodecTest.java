@@ -0,0 +1,69 @@
+package com.evolve.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+
+import com.evolve.model.CartItem;
+import com.evolve.model.Product;
+
+import reactor.core.publisher.Flux;
+
+class ProtobufModelCodecTest {
+
+    private static final ResolvableType CART_ITEM = ResolvableType.forClass(CartItem.class);
+
+    private final ProtobufModelEncoder encoder = new ProtobufModelEncoder();
+    private final ProtobufModelDecoder decoder = new ProtobufModelDecoder();
+
+    @Test
+    void onlyAnExplicitProtobufTypeSelectsTheCodec() {
+        assertThat(encoder.canEncode(CART_ITEM, MediaType.APPLICATION_PROTOBUF)).isTrue();
+        assertThat(encoder.canEncode(CART_ITEM, null)).isFalse();
+        assertThat(encoder.canEncode(CART_ITEM, MediaType.APPLICATION_JSON)).isFalse();
+        assertThat(encoder.canEncode(ResolvableType.forClass(String.class), MediaType.APPLICATION_PROTOBUF)).isFalse();
+        assertThat(decoder.canDecode(CART_ITEM, MediaType.APPLICATION_JSON)).isFalse();
+    }
+
+    @Test
+    void valueRoundTripKeepsNulls() {
+        Product product = new Product();
+        product.setId(3L);
+        product.setName("Mug");
+        product.setPrice(0.0);
+
+        DataBuffer buffer = encoder.encodeValue(product, DefaultDataBufferFactory.sharedInstance,
+                ResolvableType.forClass(Product.class), MediaType.APPLICATION_PROTOBUF, null);
+        Object decoded = decoder.decode(buffer, ResolvableType.forClass(Product.class), MediaType.APPLICATION_PROTOBUF, null);
+
+        assertThat(decoded).isEqualTo(product);
+        assertThat(((Product) decoded).getDescription()).isNull();
+    }
+
+    @Test
+    void listIsWrittenAsDelimitedStream() {
+        List<CartItem> items = List.of(item(1L, 2), item(2L, 5));
+
+        DataBuffer buffer = encoder.encodeValue(items, DefaultDataBufferFactory.sharedInstance,
+                ResolvableType.forInstance(items), MediaType.APPLICATION_PROTOBUF, null);
+        List<Object> decoded = decoder.decode(Flux.just(buffer), CART_ITEM, MediaType.APPLICATION_PROTOBUF, null)
+                .collectList().block();
+
+        assertThat(decoded).containsExactlyElementsOf(items);
+    }
+
+    private static CartItem item(Long id, int quantity) {
+        CartItem item = new CartItem();
+        item.setId(id);
+        item.setCartId(9L);
+        item.setProductId(100L + id);
+        item.setQuantity(quantity);
+        return item;
+    }
+}
@@ -0,0 +1,50 @@
+package com.evolve.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import com.evolve.config.WebFluxConfig;
+import com.evolve.model.Usr;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+
+class UserCodecTest {
+
+    private final ObjectMapper mapper = new WebFluxConfig().customObjectMapper();
+
+    @Test
+    void readSwapsNameAndEmailAndSkipsOtherFields() throws Exception {
+        Usr user = mapper.readValue(
+                "{\"id\":7,\"name\":\"ann@example.com\",\"extra\":{\"a\":[1,2]},\"email\":\"Ann\"}", Usr.class);
+
+        assertThat(user.getEmail()).isEqualTo("ann@example.com");
+        assertThat(user.getName()).isEqualTo("Ann");
+        assertThat(user.getId()).isNull();
+    }
+
+    @Test
+    void readKeepsTreeModelTextForNonStringValues() throws Exception {
+        Usr user = mapper.readValue("{\"name\":null,\"email\":42}", Usr.class);
+
+        assertThat(user.getEmail()).isEqualTo("null");
+        assertThat(user.getName()).isEqualTo("42");
+    }
+
+    @Test
+    void readRejectsMissingField() {
+        assertThatThrownBy(() -> mapper.readValue("{\"name\":\"ann@example.com\"}", Usr.class))
+                .isInstanceOf(MismatchedInputException.class);
+    }
+
+    @Test
+    void writeEmitsEmailThenName() throws Exception {
+        Usr user = new Usr();
+        user.setId(7L);
+        user.setName("Ann");
+        user.setEmail("ann@example.com");
+
+        assertThat(mapper.writeValueAsString(user)).isEqualTo("{\"email\":\"ann@example.com\",\"name\":\"Ann\"}");
+    }
+}
@@ -0,0 +1,114 @@
+package com.evolve.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.evolve.dto.CartSummary;
+import com.evolve.grpc.ModelProto;
+import com.evolve.model.Product;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+import reactor.core.publisher.Flux;
+
+class BinaryContentNegotiationFilterTest {
+
+    private final WebTestClient client = WebTestClient
+            .bindToRouterFunction(RouterFunctions.route()
+                    .GET("/product", req -> ServerResponse.ok().bodyValue(product()))
+                    .GET("/summary", req -> ServerResponse.ok().bodyValue(CartSummary.of(7L, List.of(), 0, 0.0)))
+                    .GET("/error", req -> ServerResponse.status(500).bodyValue("Internal error: boom"))
+                    .GET("/products", req -> ServerResponse.ok().body(Flux.just(product(), product()), Product.class))
+                    .GET("/endless", req -> ServerResponse.ok()
+                            .body(Flux.interval(Duration.ofMillis(10)).map(tick -> product()), Product.class))
+                    .build())
+            .handlerStrategies(HandlerStrategies.builder()
+                    .codecs(new WebFluxConfig()::configureHttpMessageCodecs)
+                    .webFilter(new BinaryContentNegotiationFilter())
+                    .build())
+            .build();
+
+    @Test
+    void modelEntitiesGoOutAsProtobuf() throws Exception {
+        byte[] body = client.get().uri("/product").accept(MediaType.APPLICATION_PROTOBUF)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_PROTOBUF)
+                .expectBody(byte[].class).returnResult().getResponseBody();
+
+        assertThat(ModelProto.Product.parseFrom(body).getName()).isEqualTo("Mug");
+    }
+
+    @Test
+    void otherBodiesFallBackToJson() {
+        client.get().uri("/summary").accept(MediaType.APPLICATION_PROTOBUF)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody().jsonPath("$.cartId").isEqualTo(7);
+    }
+
+    @Test
+    void errorStringsFallBackToText() {
+        client.get().uri("/error").accept(MediaType.APPLICATION_PROTOBUF)
+                .exchange()
+                .expectStatus().isEqualTo(500)
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_PLAIN)
+                .expectBody(String.class).isEqualTo("Internal error: boom");
+    }
+
+    @Test
+    void cborCarriesAnyBody() {
+        client.get().uri("/summary").accept(MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR);
+    }
+
+    @Test
+    void cborStreamsAFluxAsOneIndefiniteArray() throws Exception {
+        byte[] body = client.get().uri("/products").accept(MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(byte[].class).returnResult().getResponseBody();
+
+        assertThat(body[0]).isEqualTo((byte) 0x9F);
+        assertThat(body[body.length - 1]).isEqualTo((byte) 0xFF);
+        List<Map<String, Object>> products = new ObjectMapper(new CBORFactory()).readValue(body, new TypeReference<>() { });
+        assertThat(products).extracting(product -> product.get("name")).containsExactly("Mug", "Mug");
+    }
+
+    @Test
+    void cborWritesAnEndlessStreamAsItGoes() {
+        List<byte[]> chunks = client.get().uri("/endless").accept(MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(byte[].class)
+                .getResponseBody()
+                .take(3)
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertThat(chunks).hasSize(3);
+        assertThat(chunks.get(0)[0]).isEqualTo((byte) 0x9F);
+    }
+
+    private static Product product() {
+        Product product = new Product();
+        product.setId(3L);
+        product.setName("Mug");
+        product.setPrice(4.5);
+        return product;
+    }
+}
@@ -0,0 +1,191 @@
+package com.evolve.grpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.evolve.cache.ProductCache;
+import com.evolve.model.Cart;
+import com.evolve.model.CartItem;
+import com.evolve.model.Product;
+import com.evolve.repository.CartItemRepository;
+import com.evolve.repository.CartRepository;
+import com.evolve.repository.ProductRepository;
+import com.evolve.service.CartItemEnricher;
+import com.evolve.service.CartUpdateStream;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.StreamObserver;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class CartServiceImplTest {
+
+    private final CartRepository cartRepository = mock(CartRepository.class);
+    private final CartItemRepository cartItemRepository = mock(CartItemRepository.class);
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final CartItemEnricher enricher = new CartItemEnricher(
+            new ProductCache(productRepository, 10_000, Duration.ofMinutes(1)));
+    private final CartUpdateStream cartUpdates = mock(CartUpdateStream.class);
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void start() throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(new CartServiceImpl(cartRepository, cartItemRepository, enricher, cartUpdates, 100, 1000))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    @AfterEach
+    void shutdown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    void getsACartOrNotFound() {
+        when(cartRepository.findById(7L)).thenReturn(Mono.just(cart(7L, 1L)));
+        when(cartRepository.findById(8L)).thenReturn(Mono.empty());
+        CartServiceGrpc.CartServiceBlockingStub stub = CartServiceGrpc.newBlockingStub(channel);
+
+        ModelProto.Cart cart = stub.getCart(CartProto.GetCartRequest.newBuilder().setCartId(7).build());
+        assertThat(cart.getId()).isEqualTo(7);
+        assertThat(cart.getStatus()).isEqualTo("active");
+
+        assertThatThrownBy(() -> stub.getCart(CartProto.GetCartRequest.newBuilder().setCartId(8).build()))
+                .isInstanceOfSatisfying(StatusRuntimeException.class,
+                        e -> assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.NOT_FOUND));
+    }
+
+    @Test
+    void readsItemsOnlyAsFastAsTheClientTakesThem() {
+        AtomicLong requested = new AtomicLong();
+        when(cartItemRepository.findAllByCartId(7L)).thenReturn(Flux.range(1, 1_000)
+                .map(CartServiceImplTest::item)
+                .doOnRequest(requested::addAndGet));
+        when(productRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Iterable<Long> ids = invocation.getArgument(0);
+            return Flux.fromIterable(ids).map(CartServiceImplTest::product);
+        });
+        Items items = new Items();
+
+        CartServiceGrpc.newStub(channel).listCartItems(
+                CartProto.ListCartItemsRequest.newBuilder().setCartId(7).setPageSize(5).build(), items);
+        assertThat(items.received).hasSize(1);
+        assertThat(items.received.get(0).getItemsCount()).isEqualTo(5);
+        assertThat(requested.get()).isLessThanOrEqualTo(2 * ReactiveBridge.PREFETCH * 5);
+
+        items.requests.request(Integer.MAX_VALUE);
+        assertThat(items.received).hasSize(200);
+        assertThat(items.received.get(199).getItems(4).getProduct().getName()).isEqualTo("Product 1000");
+        assertThat(items.completed).isTrue();
+    }
+
+    @Test
+    void watchesCartsUntilTheClientHalfCloses() {
+        when(cartUpdates.updates(1L)).thenReturn(Flux.just(cart(7L, 1L)).concatWith(Flux.never()));
+        when(cartUpdates.updates(2L)).thenReturn(Flux.just(cart(9L, 2L)).concatWith(Flux.never()));
+        List<ModelProto.Cart> carts = new CopyOnWriteArrayList<>();
+        boolean[] completed = new boolean[1];
+
+        StreamObserver<CartProto.WatchCartRequest> watch = CartServiceGrpc.newStub(channel).watchCart(
+                new StreamObserver<>() {
+                    @Override
+                    public void onNext(ModelProto.Cart cart) {
+                        carts.add(cart);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        completed[0] = true;
+                    }
+                });
+        watch.onNext(CartProto.WatchCartRequest.newBuilder().setUserId(1).build());
+        watch.onNext(CartProto.WatchCartRequest.newBuilder().setUserId(2).build());
+        watch.onNext(CartProto.WatchCartRequest.newBuilder().setUserId(1).setUnwatch(true).build());
+        watch.onCompleted();
+
+        assertThat(carts).extracting(ModelProto.Cart::getId).containsExactly(7L, 9L);
+        assertThat(completed[0]).isTrue();
+    }
+
+    private static Cart cart(Long id, Long userId) {
+        Cart cart = new Cart();
+        cart.setId(id);
+        cart.setUserId(userId);
+        cart.setStatus("active");
+        return cart;
+    }
+
+    private static CartItem item(int i) {
+        CartItem item = new CartItem();
+        item.setId((long) i);
+        item.setCartId(7L);
+        item.setProductId((long) i);
+        item.setQuantity(1);
+        return item;
+    }
+
+    private static Product product(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setPrice(10.0);
+        return product;
+    }
+
+    private static final class Items
+            implements ClientResponseObserver<CartProto.ListCartItemsRequest, CartProto.CartItemPage> {
+
+        final List<CartProto.CartItemPage> received = new CopyOnWriteArrayList<>();
+        ClientCallStreamObserver<CartProto.ListCartItemsRequest> requests;
+        boolean completed;
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<CartProto.ListCartItemsRequest> requestStream) {
+            requests = requestStream;
+            requestStream.disableAutoRequestWithInitial(1);
+        }
+
+        @Override
+        public void onNext(CartProto.CartItemPage value) {
+            received.add(value);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+        }
+
+        @Override
+        public void onCompleted() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.evolve.grpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ChatServiceImplTest {
+
+    private Server server;
+    private ManagedChannel channel;
+
+    @AfterEach
+    void shutdown() {
+        if (channel != null) {
+            channel.shutdownNow();
+            server.shutdownNow();
+        }
+    }
+
+    @Test
+    void echoesOneToOneWhileTheReaderKeepsUp() throws Exception {
+        Replies replies = new Replies(true);
+        ClientCallStreamObserver<ChatProto.ChatMessage> requests = connect(64, 256, replies);
+
+        requests.onNext(message("a"));
+        requests.onNext(message("b"));
+        requests.onCompleted();
+
+        assertThat(replies.texts).containsExactly("Echo: a", "Echo: b");
+        assertThat(replies.completed).isTrue();
+    }
+
+    @Test
+    void stopsReadingWhileRepliesBackUpAndKeepsOneReplyPerMessage() throws Exception {
+        Replies replies = new Replies(false);
+        ClientCallStreamObserver<ChatProto.ChatMessage> requests = connect(2, 4, replies);
+
+        int sent = 0;
+        while (requests.isReady() && sent < 1_000) {
+            requests.onNext(message(sent++ + "\nline"));
+        }
+        assertThat(sent).isLessThanOrEqualTo(4 + 2);
+        assertThat(replies.texts).isEmpty();
+
+        requests.request(1);
+        assertThat(replies.texts).containsExactly("Echo: 0\nline");
+        requests.request(sent - 1);
+        assertThat(replies.texts).hasSize(sent).endsWith("Echo: " + (sent - 1) + "\nline");
+        assertThat(requests.isReady()).isTrue();
+    }
+
+    @Test
+    void coalescesQueuedReplyBatchesKeepingEveryEntry() throws Exception {
+        List<ChatProto.ChatBatch> batches = new CopyOnWriteArrayList<>();
+        ClientCallStreamObserver<ChatProto.ChatBatch> requests = (ClientCallStreamObserver<ChatProto.ChatBatch>)
+                stub(2, 4).chatBatch(new ClientResponseObserver<ChatProto.ChatBatch, ChatProto.ChatBatch>() {
+                    @Override
+                    public void beforeStart(ClientCallStreamObserver<ChatProto.ChatBatch> requestStream) {
+                        requestStream.disableAutoRequestWithInitial(0);
+                    }
+
+                    @Override
+                    public void onNext(ChatProto.ChatBatch value) {
+                        batches.add(value);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                    }
+                });
+
+        int sent = 0;
+        while (requests.isReady() && sent < 1_000) {
+            requests.onNext(ChatBatches.encode(List.of(message(sent + "a"), message(sent + "b"))));
+            sent++;
+        }
+
+        requests.request(1);
+        assertThat(batches).hasSize(1);
+        List<ChatProto.ChatMessage> entries = ChatBatches.decode(batches.get(0));
+        assertThat(entries).hasSize(sent * 2);
+        assertThat(entries.subList(0, 2)).extracting(ChatProto.ChatMessage::getText).containsExactly("Echo: 0a", "Echo: 0b");
+    }
+
+    @Test
+    void batchesBySizeAndEchoesTheBatchBack() throws Exception {
+        Replies replies = new Replies(true);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            ChatBatcher requests = ChatBatcher.chat(stub(64, 256), replies, 3, Duration.ofMinutes(1), scheduler);
+
+            requests.onNext(message("a"));
+            requests.onNext(message("b"));
+            assertThat(replies.texts).isEmpty();
+            requests.onNext(message("c"));
+            assertThat(replies.texts).containsExactly("Echo: a", "Echo: b", "Echo: c");
+            assertThat(replies.users).containsOnly("Server");
+
+            requests.onNext(message("d"));
+            requests.onCompleted();
+            assertThat(replies.texts).endsWith("Echo: d");
+            assertThat(replies.completed).isTrue();
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    void flushesAPartialBatchAfterTheLinger() throws Exception {
+        Replies replies = new Replies(true);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            ChatBatcher requests = ChatBatcher.chat(stub(64, 256), replies, 100, Duration.ofMillis(20), scheduler);
+
+            requests.onNext(message("a"));
+            Thread.sleep(500);
+            assertThat(replies.texts).containsExactly("Echo: a");
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    void encodesSharedUserAndTimestampDeltas() {
+        List<ChatProto.ChatMessage> messages = List.of(
+                message("a").toBuilder().setTimestamp(1_700_000_000_000L).build(),
+                message("b").toBuilder().setTimestamp(1_700_000_000_004L).build(),
+                message("c").toBuilder().setUser("bob").setTimestamp(1_700_000_000_005L).build());
+
+        ChatProto.ChatBatch batch = ChatBatches.encode(messages);
+
+        assertThat(batch.getUser()).isEqualTo("ann");
+        assertThat(batch.getBaseTimestamp()).isEqualTo(1_700_000_000_000L);
+        assertThat(batch.getMessagesList()).extracting(ChatProto.ChatBatch.Entry::hasUser)
+                .containsExactly(false, false, true);
+        assertThat(batch.getMessagesList()).extracting(ChatProto.ChatBatch.Entry::getTimestampDelta)
+                .containsExactly(0L, 4L, 1L);
+        assertThat(ChatBatches.decode(batch)).isEqualTo(messages);
+    }
+
+    @Test
+    void keepsAnEmptyUserAndOutOfOrderTimestampsApart() {
+        List<ChatProto.ChatMessage> messages = List.of(
+                message("a").toBuilder().setTimestamp(1_700_000_000_010L).build(),
+                message("b").toBuilder().setUser("").setTimestamp(1_700_000_000_003L).build());
+
+        ChatProto.ChatBatch batch = ChatBatches.encode(messages);
+
+        assertThat(batch.getMessages(1).hasUser()).isTrue();
+        assertThat(batch.getMessages(1).getTimestampDelta()).isEqualTo(-7L);
+        // Empty user 2 bytes, text 3, delta 2: an int64 -7 alone would take 11
+        assertThat(batch.getMessages(1).getSerializedSize()).isEqualTo(7);
+        assertThat(ChatBatches.decode(batch)).isEqualTo(messages);
+    }
+
+    private ClientCallStreamObserver<ChatProto.ChatMessage> connect(int window, int maxQueued, Replies replies)
+            throws Exception {
+        return (ClientCallStreamObserver<ChatProto.ChatMessage>) stub(window, maxQueued).chat(replies);
+    }
+
+    private ChatServiceGrpc.ChatServiceStub stub(int window, int maxQueued) throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(new ChatServiceImpl(new SimpleMeterRegistry(), window, maxQueued, 32))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        return ChatServiceGrpc.newStub(channel);
+    }
+
+    private static ChatProto.ChatMessage message(String text) {
+        return ChatProto.ChatMessage.newBuilder().setUser("ann").setText(text).build();
+    }
+
+    private static final class Replies implements ClientResponseObserver<ChatProto.ChatMessage, ChatProto.ChatMessage> {
+
+        private final boolean autoRequest;
+        final List<String> texts = new CopyOnWriteArrayList<>();
+        final List<String> users = new CopyOnWriteArrayList<>();
+        volatile boolean completed;
+
+        Replies(boolean autoRequest) {
+            this.autoRequest = autoRequest;
+        }
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<ChatProto.ChatMessage> requestStream) {
+            if (!autoRequest) {
+                requestStream.disableAutoRequestWithInitial(0);
+            }
+        }
+
+        @Override
+        public void onNext(ChatProto.ChatMessage value) {
+            texts.add(value.getText());
+            users.add(value.getUser());
+        }
+
+        @Override
+        public void onError(Throwable t) {
+        }
+
+        @Override
+        public void onCompleted() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.evolve.grpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.grpc.Channel;
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerInterceptors;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class GrpcChannelsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final GrpcChannels channels = new GrpcChannels(registry, Duration.ofSeconds(30), Duration.ofSeconds(10),
+            false, GrpcChannels.Executor.DIRECT, 0);
+    private final CallCounter first = new CallCounter();
+    private final CallCounter second = new CallCounter();
+    private Server serverA;
+    private Server serverB;
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        channels.stop();
+        serverA.shutdownNow();
+        serverB.shutdownNow();
+    }
+
+    @Test
+    void sharesOneChannelPerTargetAndSpreadsCallsRoundRobin() throws Exception {
+        serverA = start(first);
+        serverB = start(second);
+        String target = "localhost:" + serverA.getPort() + ",localhost:" + serverB.getPort();
+
+        Channel channel = channels.channel(target);
+        assertThat(channels.channel(target)).isSameAs(channel);
+        assertThat(channels.channelCount()).isEqualTo(1);
+
+        // Round-robin only picks connected subchannels; let both connect first
+        chat(channel, 1);
+        Thread.sleep(500);
+        first.calls.set(0);
+        second.calls.set(0);
+
+        chat(channel, 4);
+        assertThat(first.calls).hasValue(2);
+        assertThat(second.calls).hasValue(2);
+    }
+
+    @Test
+    void timesCallsAndGaugesTheStreamsInFlight() throws Exception {
+        serverA = start(first);
+        serverB = start(second);
+        String target = "localhost:" + serverA.getPort();
+        Channel channel = channels.channel(target);
+
+        CountDownLatch done = new CountDownLatch(1);
+        StreamObserver<ChatProto.ChatMessage> open = ChatServiceGrpc.newStub(channel).chat(completion(done));
+        assertThat(registry.get("grpc.channel.in-flight").tag("target", target).gauge().value()).isEqualTo(1);
+
+        open.onCompleted();
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(registry.get("grpc.channel.in-flight").tag("target", target).gauge().value()).isZero();
+        assertThat(registry.get("grpc.channel.calls")
+                .tags("target", target, "method", "ChatService/chat", "status", "OK")
+                .timer().count()).isEqualTo(1);
+
+        chat(channel, 2);
+        assertThat(registry.get("grpc.channel.calls").timers()).hasSize(1)
+                .singleElement().satisfies(timer -> assertThat(timer.count()).isEqualTo(3));
+    }
+
+    @Test
+    void refusesToOpenChannelsOnceStopped() throws Exception {
+        serverA = start(first);
+        serverB = start(second);
+        channels.channel("localhost:" + serverA.getPort());
+
+        channels.stop();
+
+        assertThat(channels.channelCount()).isZero();
+        assertThatThrownBy(() -> channels.channel("localhost:" + serverA.getPort()))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(channels.channelCount()).isZero();
+    }
+
+    private static Server start(CallCounter counter) throws Exception {
+        return Grpc.newServerBuilderForPort(0, InsecureServerCredentials.create())
+                .addService(ServerInterceptors.intercept(
+                        new ChatServiceImpl(new SimpleMeterRegistry(), 64, 256, 32), counter))
+                .build()
+                .start();
+    }
+
+    // Opens and completes {@code streams} chat streams one after another
+    private static void chat(Channel channel, int streams) throws InterruptedException {
+        for (int i = 0; i < streams; i++) {
+            CountDownLatch done = new CountDownLatch(1);
+            ChatServiceGrpc.newStub(channel).chat(completion(done)).onCompleted();
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    private static StreamObserver<ChatProto.ChatMessage> completion(CountDownLatch done) {
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(ChatProto.ChatMessage value) {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                done.countDown();
+            }
+
+            @Override
+            public void onCompleted() {
+                done.countDown();
+            }
+        };
+    }
+
+    private static final class CallCounter implements ServerInterceptor {
+
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                     ServerCallHandler<ReqT, RespT> next) {
+            calls.incrementAndGet();
+            return next.startCall(call, headers);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.evolve.handler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.core.publisher.Flux;
+
+class KeysetPaginationTest {
+
+    private DatabaseClient databaseClient;
+    private WebTestClient client;
+
+    @BeforeEach
+    void setup() {
+        ConnectionFactory factory = ConnectionFactories.get(
+                "r2dbc:h2:mem:///keysetPaginationTest;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).populate(factory).block();
+        databaseClient = DatabaseClient.create(factory);
+        KeysetPagination pagination = new KeysetPagination();
+        client = WebTestClient.bindToRouterFunction(RouterFunctions.route()
+                        .GET("/carts", req -> pagination.page(req, this::cartIds, id -> id))
+                        .GET("/carts/changing", req -> pagination.page(req, (after, pageable) -> databaseClient
+                                .sql("DELETE FROM carts WHERE id IN (3, 4)").then()
+                                .thenMany(cartIds(after, pageable)), id -> id))
+                        .build())
+                .build();
+    }
+
+    @AfterEach
+    void drop() {
+        databaseClient.sql("DROP ALL OBJECTS").then().block();
+    }
+
+    @Test
+    void walksEveryRowThroughTheNextCursor() {
+        seedCarts(25);
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = "0";
+        int pages = 0;
+        while (cursor != null) {
+            var result = client.get().uri("/carts?limit=10&after=" + cursor)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBodyList(Long.class).returnResult();
+            seen.addAll(result.getResponseBody());
+            cursor = result.getResponseHeaders().getFirst(KeysetPagination.NEXT_CURSOR);
+            pages++;
+        }
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).containsExactlyElementsOf(LongStream.rangeClosed(1, 25).boxed().toList());
+    }
+
+    @Test
+    void aFullLastPageHasNoNextCursor() {
+        seedCarts(10);
+
+        client.get().uri("/carts?limit=10")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(KeysetPagination.NEXT_CURSOR)
+                .expectBodyList(Long.class).hasSize(10);
+    }
+
+    @Test
+    void anUnpagedRequestIsCutAtTheDefaultLimitAndSaysSo() {
+        seedCarts(KeysetPagination.DEFAULT_LIMIT + 5);
+
+        client.get().uri("/carts")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(KeysetPagination.PAGE_LIMIT, String.valueOf(KeysetPagination.DEFAULT_LIMIT))
+                .expectHeader().valueEquals(KeysetPagination.NEXT_CURSOR, String.valueOf(KeysetPagination.DEFAULT_LIMIT))
+                .expectBodyList(Long.class).hasSize(KeysetPagination.DEFAULT_LIMIT);
+    }
+
+    @Test
+    void streamedPagesEndWithTheCursorOfTheLastRowStreamed() {
+        seedCarts(25);
+
+        List<String> lines = streamLines("/carts?limit=10&after=5");
+
+        assertThat(lines.subList(0, 10))
+                .containsExactlyElementsOf(LongStream.rangeClosed(6, 15).mapToObj(String::valueOf).toList());
+        assertThat(lines.get(10)).isEqualTo("{\"nextCursor\":15}");
+        assertThat(lines).hasSize(11);
+    }
+
+    @Test
+    void theCursorFollowsTheStreamedRowsWhateverChangedSince() {
+        seedCarts(25);
+
+        // Rows 3 and 4 go away as the page is read; a cursor worked out apart from the rows would say 10
+        List<String> lines = streamLines("/carts/changing?limit=10");
+
+        assertThat(lines.subList(0, 10)).containsExactly("1", "2", "5", "6", "7", "8", "9", "10", "11", "12");
+        assertThat(lines.get(10)).isEqualTo("{\"nextCursor\":12}");
+    }
+
+    @Test
+    void aStreamedLastPageHasNoCursorLine() {
+        seedCarts(25);
+
+        List<String> lines = streamLines("/carts?limit=10&after=15");
+
+        assertThat(lines).containsExactlyElementsOf(LongStream.rangeClosed(16, 25).mapToObj(String::valueOf).toList());
+    }
+
+    @Test
+    void streamedPagesMayExceedTheJsonLimit() {
+        client.get().uri("/carts?limit=" + (KeysetPagination.MAX_LIMIT + 1)).accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk();
+        client.get().uri("/carts?limit=" + (KeysetPagination.MAX_LIMIT + 1))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void rejectsLimitsOutOfRangeAndNonNumericParameters() {
+        client.get().uri("/carts?limit=0").exchange().expectStatus().isBadRequest();
+        client.get().uri("/carts?limit=" + (KeysetPagination.MAX_STREAM_LIMIT + 1)).accept(MediaType.APPLICATION_NDJSON)
+                .exchange().expectStatus().isBadRequest();
+        client.get().uri("/carts?after=abc").exchange().expectStatus().isBadRequest();
+    }
+
+    private List<String> streamLines(String uri) {
+        return client.get().uri(uri).accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectHeader().doesNotExist(KeysetPagination.NEXT_CURSOR)
+                .returnResult(String.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+    }
+
+    private Flux<Long> cartIds(Long after, Pageable pageable) {
+        return databaseClient.sql("SELECT id FROM carts WHERE id > :after ORDER BY id LIMIT :limit")
+                .bind("after", after)
+                .bind("limit", pageable.getPageSize())
+                .map(row -> row.get("id", Long.class))
+                .all();
+    }
+
+    private void seedCarts(int count) {
+        String rows = LongStream.rangeClosed(1, count).mapToObj(id -> "(1)").collect(Collectors.joining(", "));
+        databaseClient.sql("INSERT INTO carts (user_id) VALUES " + rows).then().block();
+    }
+}
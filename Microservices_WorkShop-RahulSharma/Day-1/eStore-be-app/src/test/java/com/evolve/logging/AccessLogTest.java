@@ -0,0 +1,68 @@
+package com.evolve.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AccessLogTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<String> lines = new ArrayList<>();
+
+    @Test
+    void dropsAndCountsWhatDoesNotFitInsteadOfBlocking() {
+        AccessLog accessLog = new AccessLog(4, 1.0, "", registry, lines::add);
+        for (int i = 0; i < 6; i++) {
+            accessLog.record(0, 8081, "GET", "/products/" + i, "/products/{id}", 200, 1_000, null);
+        }
+
+        assertThat(accessLog.pending()).isEqualTo(4);
+        assertThat(registry.get("access.log.dropped").counter().count()).isEqualTo(2);
+        assertThat(accessLog.drain()).isEqualTo(4);
+        assertThat(lines).first().asString().contains("\"path\":\"/products/0\"");
+
+        accessLog.record(0, 8081, "GET", "/products/6", "/products/{id}", 200, 1_000, null);
+        assertThat(accessLog.drain()).isEqualTo(1);
+        assertThat(lines).last().asString().contains("\"path\":\"/products/6\"");
+    }
+
+    @Test
+    void writesOneJsonObjectPerRecord() {
+        AccessLog accessLog = new AccessLog(8, 1.0, "", registry, lines::add);
+        accessLog.record(0, 8000, "POST", "/carts/\"1\"", null, 201, 1_234_567,
+                InetSocketAddress.createUnresolved("10.0.0.1", 5000));
+        accessLog.drain();
+
+        assertThat(lines).containsExactly("{\"time\":\"1970-01-01T00:00:00Z\",\"port\":8000,\"method\":\"POST\","
+                + "\"path\":\"/carts/\\\"1\\\"\",\"route\":null,\"status\":201,\"durationUs\":1234,"
+                + "\"remote\":\"10.0.0.1\"}");
+    }
+
+    @Test
+    void samplesPerRouteButKeepsServerErrors() {
+        AccessLog accessLog = new AccessLog(16, 1.0, "/products/{id}=0, /users = 1", registry, lines::add);
+        accessLog.record(0, 8081, "GET", "/products/1", "/products/{id}", 200, 0, null);
+        accessLog.record(0, 8081, "GET", "/products/2", "/products/{id}", 503, 0, null);
+        accessLog.record(0, 8081, "GET", "/users", "/users", 200, 0, null);
+        accessLog.drain();
+
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).contains("\"status\":503");
+        assertThat(lines.get(1)).contains("\"route\":\"/users\"");
+    }
+
+    @Test
+    void roundsTheBufferUpToAPowerOfTwo() {
+        assertThat(new AccessLog(1000, 1.0, "", registry, lines::add).capacity()).isEqualTo(1024);
+        assertThat(new AccessLog(1024, 1.0, "", new SimpleMeterRegistry(), lines::add).capacity()).isEqualTo(1024);
+        assertThatThrownBy(() -> AccessLog.parseRates("/users"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
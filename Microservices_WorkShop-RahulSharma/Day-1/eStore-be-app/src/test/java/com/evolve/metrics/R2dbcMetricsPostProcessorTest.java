@@ -0,0 +1,125 @@
+package com.evolve.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.repository.support.R2dbcRepositoryFactoryBean;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.evolve.repository.CartRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.core.publisher.Mono;
+
+class R2dbcMetricsPostProcessorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final R2dbcMetricsPostProcessor postProcessor = new R2dbcMetricsPostProcessor(registryProvider());
+    private ConnectionFactory connectionFactory;
+
+    @BeforeEach
+    void setup() {
+        ConnectionFactory h2 = ConnectionFactories.get(
+                "r2dbc:h2:mem:///r2dbcMetricsTest;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).populate(h2).block();
+        connectionFactory = (ConnectionFactory) postProcessor.postProcessAfterInitialization(h2, "connectionFactory");
+    }
+
+    @AfterEach
+    void drop() {
+        DatabaseClient.create(connectionFactory).sql("DROP ALL OBJECTS").then().block();
+    }
+
+    @Test
+    void wrapsTheConnectionFactoryOnce() {
+        assertThat(connectionFactory).isInstanceOf(MeteredConnectionFactory.class);
+        assertThat(postProcessor.postProcessAfterInitialization(connectionFactory, "connectionFactory"))
+                .isSameAs(connectionFactory);
+    }
+
+    @Test
+    void timesSpringDataRepositoriesAndTagsTheirAcquire() throws Exception {
+        R2dbcRepositoryFactoryBean<CartRepository, ?, Long> factoryBean = new R2dbcRepositoryFactoryBean<>(CartRepository.class);
+        factoryBean.setEntityOperations(new R2dbcEntityTemplate(connectionFactory));
+        factoryBean.setBeanFactory(new DefaultListableBeanFactory());
+        postProcessor.postProcessBeforeInitialization(factoryBean, "cartRepository");
+        factoryBean.afterPropertiesSet();
+
+        factoryBean.getObject().count().block();
+        factoryBean.getObject().count().block();
+
+        assertThat(registry.get(QueryMetricsInterceptor.QUERY)
+                .tags("repository", "CartRepository", "method", "count", "outcome", "success")
+                .timer().count()).isEqualTo(2);
+        assertThat(registry.get(MeteredConnectionFactory.ACQUIRE)
+                .tags("repository", "CartRepository", "method", "count", "outcome", "success")
+                .timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void proxiesHandWrittenRepositoriesUnderTheirClassName() {
+        Object bean = postProcessor.postProcessAfterInitialization(new Lookups(), "lookups");
+
+        assertThat(AopUtils.isAopProxy(bean)).isTrue();
+        Lookups lookups = (Lookups) bean;
+        lookups.find().block();
+        assertThatThrownBy(() -> lookups.fail().block()).hasMessage("boom");
+        assertThat(lookups.name()).isEqualTo("plain");
+
+        assertThat(registry.get(QueryMetricsInterceptor.QUERY)
+                .tags("repository", "Lookups", "method", "find", "outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(registry.get(QueryMetricsInterceptor.QUERY)
+                .tags("repository", "Lookups", "method", "fail", "outcome", "error").timer().count()).isEqualTo(1);
+        assertThat(registry.find(QueryMetricsInterceptor.QUERY).tag("method", "name").timers()).isEmpty();
+    }
+
+    @Test
+    void leavesOtherBeansAlone() {
+        Object bean = new Object();
+
+        assertThat(postProcessor.postProcessAfterInitialization(bean, "other")).isSameAs(bean);
+    }
+
+    @Test
+    void directCallersAreTaggedNone() {
+        DatabaseClient.create(connectionFactory).sql("SELECT 1").then().block();
+
+        assertThat(registry.get(MeteredConnectionFactory.ACQUIRE)
+                .tags("repository", "none", "method", "none", "outcome", "success").timer().count()).isEqualTo(1);
+    }
+
+    private ObjectProvider<MeterRegistry> registryProvider() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("meterRegistry", registry);
+        return beanFactory.getBeanProvider(MeterRegistry.class);
+    }
+
+    @Repository
+    static class Lookups {
+
+        public Mono<String> find() {
+            return Mono.just("found");
+        }
+
+        public Mono<String> fail() {
+            return Mono.error(new IllegalStateException("boom"));
+        }
+
+        public String name() {
+            return "plain";
+        }
+    }
+}
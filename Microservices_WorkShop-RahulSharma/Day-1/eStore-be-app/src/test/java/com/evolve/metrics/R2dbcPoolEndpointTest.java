@@ -0,0 +1,105 @@
+package com.evolve.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import reactor.core.publisher.Mono;
+
+class R2dbcPoolEndpointTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ConnectionPool pool;
+    private R2dbcPoolEndpoint endpoint;
+
+    @BeforeEach
+    void setup() {
+        pool = new ConnectionPool(ConnectionPoolConfiguration.builder(
+                        ConnectionFactories.get("r2dbc:h2:mem:///r2dbcPoolEndpointTest"))
+                .initialSize(0)
+                .maxSize(2)
+                .build());
+        endpoint = new R2dbcPoolEndpoint(new MeteredConnectionFactory(pool, registry), registry);
+    }
+
+    @AfterEach
+    void close() {
+        pool.dispose();
+    }
+
+    @Test
+    void reportsOccupancyThroughTheMeteredWrapper() {
+        Connection held = Mono.from(new MeteredConnectionFactory(pool, registry).create()).block();
+
+        Map<String, Object> body = endpoint.pool();
+
+        assertThat(body).containsEntry("maxSize", 2)
+                .containsEntry("acquired", 1)
+                .containsEntry("utilization", 0.5)
+                .containsEntry("saturated", false);
+        Mono.from(held.close()).block();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void mergesAcquireAndQueryTimesPerMethodSlowestAcquireFirst() {
+        record(MeteredConnectionFactory.ACQUIRE, "CartRepository", "findById", "success", 2);
+        record(MeteredConnectionFactory.ACQUIRE, "CartRepository", "findById", "error", 10);
+        record(QueryMetricsInterceptor.QUERY, "CartRepository", "findById", "success", 6);
+        record(MeteredConnectionFactory.ACQUIRE, "OrderRepository", "save", "success", 30);
+
+        List<Map<String, Object>> methods = (List<Map<String, Object>>) endpoint.pool().get("methods");
+
+        assertThat(methods).extracting(row -> row.get("method")).containsExactly("save", "findById");
+        Map<String, Object> findById = methods.get(1);
+        assertThat(findById).containsEntry("repository", "CartRepository")
+                .containsEntry("acquireCount", 2L)
+                .containsEntry("acquireMeanMs", 6.0)
+                .containsEntry("acquireMaxMs", 10.0)
+                .containsEntry("queryCount", 1L)
+                .containsEntry("queryMeanMs", 6.0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void aTimerWithoutSamplesReportsAZeroMeanAndNoTotal() {
+        Timer.builder(QueryMetricsInterceptor.QUERY)
+                .tags(Tags.of("repository", "CartRepository", "method", "count", "outcome", "success"))
+                .register(registry);
+
+        List<Map<String, Object>> methods = (List<Map<String, Object>>) endpoint.pool().get("methods");
+
+        assertThat(methods).singleElement().satisfies(row -> assertThat(row)
+                .containsEntry("queryCount", 0L)
+                .containsEntry("queryMeanMs", 0.0)
+                .doesNotContainKeys("queryTotalMs", "acquireMeanMs", "acquireTotalMs"));
+    }
+
+    @Test
+    void leavesOutPoolFieldsWithoutAPool() {
+        R2dbcPoolEndpoint unpooled = new R2dbcPoolEndpoint(
+                ConnectionFactories.get("r2dbc:h2:mem:///r2dbcPoolEndpointTest"), registry);
+
+        assertThat(unpooled.pool()).containsOnlyKeys("methods");
+    }
+
+    private void record(String meter, String repository, String method, String outcome, long millis) {
+        Timer.builder(meter)
+                .tags(Tags.of("repository", repository, "method", method, "outcome", outcome))
+                .register(registry)
+                .record(millis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,40 @@
+package com.evolve.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+class StartupReportTest {
+
+    @Test
+    void chargesNestedBeansToThemselvesNotTheirParent() throws InterruptedException {
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(16);
+        StartupStep refresh = startup.start("spring.context.refresh");
+        StartupStep handler = startup.start("spring.beans.instantiate").tag("beanName", "cartHandler");
+        StartupStep cache = startup.start("spring.beans.instantiate").tag("beanName", "cartCache");
+        Thread.sleep(60);
+        cache.end();
+        Thread.sleep(5);
+        handler.end();
+        refresh.end();
+
+        String report = StartupReport.report(startup.getBufferedTimeline(), 10);
+
+        assertThat(report).contains("3 steps recorded");
+        assertThat(report).containsPattern("spring\\.beans\\.instantiate\\s+\\d+ ms\\s+2 steps");
+        assertThat(report.indexOf("cartCache")).isLessThan(report.indexOf("cartHandler"));
+    }
+
+    @Test
+    void limitsTheBeanListToTheSlowest() {
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(16);
+        startup.start("spring.beans.instantiate").tag("beanName", "first").end();
+        startup.start("spring.beans.instantiate").tag("beanName", "second").end();
+
+        String report = StartupReport.report(startup.getBufferedTimeline(), 1);
+
+        assertThat(report.split("slowest beans")[1].lines().count()).isEqualTo(2);
+    }
+}
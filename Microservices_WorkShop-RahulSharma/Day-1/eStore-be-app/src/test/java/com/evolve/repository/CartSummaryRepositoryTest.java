@@ -0,0 +1,104 @@
+package com.evolve.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+
+import com.evolve.dto.CartLineTotal;
+import com.evolve.dto.CartSummary;
+import com.evolve.handler.CartItemHandler;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+
+class CartSummaryRepositoryTest {
+
+    private DatabaseClient databaseClient;
+    private CartSummaryRepository repository;
+
+    @BeforeEach
+    void setup() {
+        ConnectionFactory factory = ConnectionFactories.get(
+                "r2dbc:h2:mem:///cartSummaryTest;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).populate(factory).block();
+        databaseClient = DatabaseClient.create(factory);
+        repository = new CartSummaryRepository(databaseClient);
+    }
+
+    @AfterEach
+    void drop() {
+        databaseClient.sql("DROP ALL OBJECTS").then().block();
+    }
+
+    @Test
+    void totalsComeFromTheQuery() {
+        execute("INSERT INTO carts (id, user_id) VALUES (7, 1), (8, 1)");
+        execute("INSERT INTO products (id, name, price) VALUES (10, 'Pen', 1.5), (11, 'Lamp', 20)");
+        execute("INSERT INTO cart_items (cart_id, product_id, quantity) VALUES (7, 10, 4), (7, 11, 1), (8, 11, 9)");
+
+        CartSummary summary = repository.findSummary(7L).block();
+
+        assertThat(summary.getCartId()).isEqualTo(7L);
+        assertThat(summary.getLineCount()).isEqualTo(2);
+        assertThat(summary.getItemCount()).isEqualTo(5);
+        assertThat(summary.getSubtotal()).isEqualTo(26.0);
+        assertThat(summary.getLines()).extracting(CartLineTotal::getProductName).containsExactly("Pen", "Lamp");
+        assertThat(summary.getLines()).extracting(CartLineTotal::getLineTotal).containsExactly(6.0, 20.0);
+    }
+
+    @Test
+    void aCartWithoutItemsHasAnEmptySummary() {
+        execute("INSERT INTO carts (id, user_id) VALUES (7, 1)");
+
+        CartSummary summary = repository.findSummary(7L).block();
+
+        assertThat(summary.getCartId()).isEqualTo(7L);
+        assertThat(summary.getLines()).isEmpty();
+        assertThat(summary.getItemCount()).isZero();
+        assertThat(summary.getSubtotal()).isZero();
+    }
+
+    @Test
+    void anUnknownCartHasNoSummary() {
+        execute("INSERT INTO cart_items (cart_id, product_id, quantity) VALUES (7, 10, 1)");
+
+        assertThat(repository.findSummary(7L).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void theHandlerAnswersAnUnknownCartWith404() {
+        execute("INSERT INTO carts (id, user_id) VALUES (7, 1)");
+        CartItemHandler handler = new CartItemHandler(null, null, null, repository);
+        WebTestClient client = WebTestClient.bindToRouterFunction(RouterFunctions.route()
+                        .GET("/carts/{cartId}/summary", handler::summary)
+                        .build())
+                .build();
+
+        client.get().uri("/carts/7/summary").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.cartId").isEqualTo(7);
+        client.get().uri("/carts/99/summary").exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void aMissingProductLeavesItsLineWithoutAPrice() {
+        execute("INSERT INTO carts (id, user_id) VALUES (7, 1)");
+        execute("INSERT INTO cart_items (cart_id, product_id, quantity) VALUES (7, 99, 1)");
+
+        CartSummary summary = repository.findSummary(7L).block();
+
+        assertThat(summary.getLines()).singleElement()
+                .satisfies(line -> assertThat(line.getUnitPrice()).isNull());
+    }
+
+    private void execute(String sql) {
+        databaseClient.sql(sql).then().block();
+    }
+}
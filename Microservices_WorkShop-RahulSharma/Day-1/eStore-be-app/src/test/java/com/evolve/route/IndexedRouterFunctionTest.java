@@ -0,0 +1,83 @@
+package com.evolve.route;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class IndexedRouterFunctionTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final IndexedRouterFunction router = new IndexedRouterFunction(List.of(
+            RouterFunctions.route(RequestPredicates.GET("/carts/{id}"), reply("cart"))
+                    .andRoute(RequestPredicates.GET("/carts/user/{userId}"), reply("user carts")),
+            RouterFunctions.route(RequestPredicates.GET("/carts/{cartId}/items"), reply("items"))
+                    .andRoute(RequestPredicates.POST("/carts/{cartId}/items"), reply("add item")),
+            RouterFunctions.route(RequestPredicates.GET("/{anything}"), reply("catch-all")),
+            RouterFunctions.route(RequestPredicates.GET("/a").or(RequestPredicates.GET("/b")), reply("a or b")),
+            RouterFunctions.nest(RequestPredicates.path("/orders"),
+                    RouterFunctions.route(RequestPredicates.GET("/{id}"), reply("order")))),
+            meterRegistry);
+
+    @Test
+    void routesAcrossBeansByMethodAndSegment() {
+        assertThat(handle(HttpMethod.GET, "/carts/7")).isEqualTo("cart");
+        assertThat(handle(HttpMethod.GET, "/carts/7/items")).isEqualTo("items");
+        assertThat(handle(HttpMethod.POST, "/carts/7/items")).isEqualTo("add item");
+        assertThat(handle(HttpMethod.DELETE, "/carts/7/items")).isNull();
+    }
+
+    @Test
+    void keepsBeanOrderBetweenIndexedAndPatternRoutes() {
+        assertThat(handle(HttpMethod.GET, "/carts/user/3")).isEqualTo("user carts");
+        assertThat(handle(HttpMethod.GET, "/products")).isEqualTo("catch-all");
+    }
+
+    @Test
+    void fallsBackForPredicatesItCannotIndex() {
+        assertThat(handle(HttpMethod.GET, "/b")).isEqualTo("catch-all");
+        assertThat(handle(HttpMethod.GET, "/orders/5")).isEqualTo("order");
+    }
+
+    @Test
+    void timesEachRouteByPatternAndStatus() {
+        handle(HttpMethod.GET, "/carts/7");
+        handle(HttpMethod.GET, "/carts/8");
+
+        assertThat(meterRegistry.get("http.route")
+                .tag("method", "GET").tag("route", "/carts/{id}").tag("status", "200")
+                .timer().count()).isEqualTo(2);
+    }
+
+    private String handle(HttpMethod method, String path) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.method(method, path));
+        ServerRequest request = ServerRequest.create(exchange, ServerCodecConfigurer.create().getReaders());
+        HandlerFunction<ServerResponse> handler = router.route(request).block();
+        if (handler == null) {
+            return null;
+        }
+        handler.handle(request).block();
+        return (String) request.attributes().get("reply");
+    }
+
+    private static HandlerFunction<ServerResponse> reply(String name) {
+        return request -> {
+            request.attributes().put("reply", name);
+            return ServerResponse.ok().build();
+        };
+    }
+}
@@ -0,0 +1,159 @@
+package com.evolve.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import com.evolve.cache.ProductCache;
+import com.evolve.dto.CartItemBulkResult;
+import com.evolve.model.CartItem;
+import com.evolve.model.Product;
+import com.evolve.repository.CartItemBatchRepository;
+import com.evolve.repository.CartItemRepository;
+import com.evolve.repository.ProductRepository;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class CartItemBulkImporterTest {
+
+    private static final List<Long> PRODUCTS = List.of(10L, 11L);
+
+    private DatabaseClient databaseClient;
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final CartItemRepository cartItemRepository = mock(CartItemRepository.class);
+
+    @BeforeEach
+    void setup() {
+        ConnectionFactory factory = ConnectionFactories.get(
+                "r2dbc:h2:mem:///cartItemBulkImporterTest;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).populate(factory).block();
+        databaseClient = DatabaseClient.create(factory);
+        when(productRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Iterable<Long> ids = invocation.getArgument(0);
+            return Flux.fromStream(StreamSupport.stream(ids.spliterator(), false)
+                    .filter(PRODUCTS::contains)
+                    .map(CartItemBulkImporterTest::product));
+        });
+    }
+
+    @AfterEach
+    void drop() {
+        databaseClient.sql("DROP ALL OBJECTS").then().block();
+    }
+
+    @Test
+    void writesEachBatchInOneStatement() {
+        CartItemBulkImporter importer = importer(new CartItemBatchRepository(databaseClient), 2);
+
+        List<CartItemBulkResult> results = importer
+                .importItems(7L, Flux.just(item(10L, 1), item(11L, 2), item(10L, 3)))
+                .collectList().block();
+
+        assertThat(results).extracting(CartItemBulkResult::getStatus).containsOnly("created");
+        assertThat(results).extracting(CartItemBulkResult::getIndex).containsExactly(0L, 1L, 2L);
+        assertThat(count("SELECT COUNT(*) FROM cart_items WHERE cart_id = 7")).isEqualTo(3);
+        verify(cartItemRepository, never()).save(any(CartItem.class));
+    }
+
+    @Test
+    void rejectsInvalidRowsAndUnknownProductsWithoutWritingThem() {
+        CartItemBulkImporter importer = importer(new CartItemBatchRepository(databaseClient), 10);
+
+        List<CartItemBulkResult> results = importer
+                .importItems(7L, Flux.just(item(10L, 1), item(null, 1), item(11L, 0), item(99L, 1)))
+                .collectList().block();
+
+        assertThat(results).filteredOn(result -> result.getStatus().equals("failed"))
+                .extracting(CartItemBulkResult::getIndex, CartItemBulkResult::getError)
+                .containsExactly(
+                        tuple(1L, "productId is required"),
+                        tuple(2L, "quantity must be greater than 0"),
+                        tuple(3L, "Unknown product 99"));
+        assertThat(count("SELECT COUNT(*) FROM cart_items")).isEqualTo(1);
+    }
+
+    @Test
+    void aFailedBatchIsRetriedRowByRow() {
+        CartItemBatchRepository failing = mock(CartItemBatchRepository.class);
+        when(failing.insertAll(anyList())).thenReturn(Flux.error(new IllegalStateException("batch failed")));
+        when(cartItemRepository.save(any(CartItem.class))).thenAnswer(invocation -> {
+            CartItem item = invocation.getArgument(0);
+            if (item.getQuantity() == 2) {
+                return Mono.error(new IllegalStateException("row failed"));
+            }
+            item.setId(100L + item.getQuantity());
+            return Mono.just(item);
+        });
+        CartItemBulkImporter importer = importer(failing, 10);
+
+        List<CartItemBulkResult> results = importer
+                .importItems(7L, Flux.just(item(10L, 1), item(11L, 2), item(10L, 3)))
+                .collectList().block();
+
+        assertThat(results).extracting(CartItemBulkResult::getIndex, CartItemBulkResult::getStatus,
+                        CartItemBulkResult::getId, CartItemBulkResult::getError)
+                .containsExactly(
+                        tuple(0L, "created", 101L, null),
+                        tuple(1L, "failed", null, "row failed"),
+                        tuple(2L, "created", 103L, null));
+    }
+
+    @Test
+    void aPartialBatchIsWrittenOnceTheWindowPasses() {
+        CartItemBulkImporter importer = importer(new CartItemBatchRepository(databaseClient), 100);
+        Sinks.Many<CartItem> upload = Sinks.many().unicast().onBackpressureBuffer();
+
+        StepVerifier.create(importer.importItems(7L, upload.asFlux()))
+                .then(() -> upload.tryEmitNext(item(10L, 1)))
+                .assertNext(result -> assertThat(result.getStatus()).isEqualTo("created"))
+                .then(upload::tryEmitComplete)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private CartItemBulkImporter importer(CartItemBatchRepository batchRepository, int batchSize) {
+        return new CartItemBulkImporter(batchRepository, cartItemRepository,
+                new ProductCache(productRepository, 100, Duration.ofMinutes(1)), batchSize, Duration.ofMillis(50));
+    }
+
+    private long count(String sql) {
+        return databaseClient.sql(sql).map(row -> row.get(0, Long.class)).one().block();
+    }
+
+    private static CartItem item(Long productId, int quantity) {
+        CartItem item = new CartItem();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    private static Product product(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setPrice(1.0);
+        return product;
+    }
+}
@@ -0,0 +1,109 @@
+package com.evolve.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.StreamSupport;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.evolve.cache.ProductCache;
+import com.evolve.dto.CartItemWithProduct;
+import com.evolve.model.CartItem;
+import com.evolve.model.Product;
+import com.evolve.repository.ProductRepository;
+
+import reactor.core.publisher.Flux;
+
+class CartItemEnricherTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final List<List<Long>> lookups = new ArrayList<>();
+    private CartItemEnricher enricher;
+
+    @BeforeEach
+    void setup() {
+        // Answers out of request order, the way an IN (...) query may
+        when(productRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Iterable<Long> ids = invocation.getArgument(0);
+            List<Long> requested = StreamSupport.stream(ids.spliterator(), false).toList();
+            lookups.add(requested);
+            return Flux.fromIterable(requested).filter(id -> id < 1000).map(CartItemEnricherTest::product)
+                    .sort((a, b) -> Long.compare(b.getId(), a.getId()));
+        });
+        enricher = new CartItemEnricher(new ProductCache(productRepository, 10_000, Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void keepsTheOrderItemsArriveIn() {
+        List<CartItemWithProduct> enriched = enricher.enrich(Flux.just(item(1L, 30L), item(2L, 10L), item(3L, 20L)))
+                .collectList().block();
+
+        assertThat(enriched).extracting(CartItemWithProduct::getId).containsExactly(1L, 2L, 3L);
+        assertThat(enriched).extracting(dto -> dto.getProduct().getId()).containsExactly(30L, 10L, 20L);
+    }
+
+    @Test
+    void looksUpEachDistinctProductOnce() {
+        List<CartItemWithProduct> enriched = enricher.enrich(List.of(item(1L, 10L), item(2L, 10L), item(3L, 20L)))
+                .collectList().block();
+
+        assertThat(enriched).extracting(dto -> dto.getProduct().getId()).containsExactly(10L, 10L, 20L);
+        assertThat(lookups).containsExactly(List.of(10L, 20L));
+        verify(productRepository, times(1)).findAllById(anyIterable());
+    }
+
+    @Test
+    void failsOnAMissingProduct() {
+        Flux<CartItemWithProduct> enriched = enricher.enrich(Flux.just(item(1L, 10L), item(2L, 1000L)));
+
+        assertThatThrownBy(() -> enriched.collectList().block())
+                .hasMessage("Product not found: 1000");
+    }
+
+    @Test
+    void enrichesAStreamOneChunkAtATime() {
+        int items = CartItemEnricher.CHUNK_SIZE * 2 + 1;
+        Flux<CartItem> stream = Flux.range(0, items).map(i -> item((long) i, (long) i));
+
+        List<CartItemWithProduct> enriched = enricher.enrich(stream).collectList().block();
+
+        assertThat(enriched).hasSize(items);
+        assertThat(lookups).hasSize(3);
+        assertThat(lookups).allSatisfy(ids -> assertThat(ids).hasSizeLessThanOrEqualTo(CartItemEnricher.CHUNK_SIZE));
+        assertThat(Set.copyOf(lookups.get(0))).doesNotContainAnyElementsOf(lookups.get(1));
+    }
+
+    @Test
+    void anEmptyCartNeedsNoLookup() {
+        assertThat(enricher.enrich(Flux.empty()).collectList().block()).isEmpty();
+        verify(productRepository, times(0)).findAllById(anyIterable());
+    }
+
+    private static CartItem item(Long id, Long productId) {
+        CartItem item = new CartItem();
+        item.setId(id);
+        item.setCartId(7L);
+        item.setProductId(productId);
+        item.setQuantity(1);
+        return item;
+    }
+
+    private static Product product(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setPrice(1.0);
+        return product;
+    }
+}
@@ -0,0 +1,176 @@
+package com.evolve.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.repository.support.R2dbcRepositoryFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+
+import com.evolve.cache.CartCache;
+import com.evolve.handler.CartHandler;
+import com.evolve.handler.KeysetPagination;
+import com.evolve.model.Cart;
+import com.evolve.model.Order;
+import com.evolve.repository.CartRepository;
+import com.evolve.repository.OrderRepository;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
+import reactor.core.scheduler.Schedulers;
+
+class CheckoutServiceTest {
+
+    private DatabaseClient databaseClient;
+    private CartRepository cartRepository;
+    private OrderRepository orderRepository;
+    private TransactionalOperator transactionalOperator;
+    private final CartCache cartCache = mock(CartCache.class);
+
+    @BeforeEach
+    void setup() {
+        ConnectionFactory factory = ConnectionFactories.get(
+                "r2dbc:h2:mem:///checkoutServiceTest;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).populate(factory).block();
+        databaseClient = DatabaseClient.create(factory);
+        R2dbcRepositoryFactory repositories = new R2dbcRepositoryFactory(new R2dbcEntityTemplate(factory));
+        cartRepository = repositories.getRepository(CartRepository.class);
+        orderRepository = repositories.getRepository(OrderRepository.class);
+        transactionalOperator = TransactionalOperator.create(new R2dbcTransactionManager(factory));
+        when(cartCache.put(any(Cart.class))).thenReturn(Mono.empty());
+        execute("INSERT INTO carts (id, user_id, status) VALUES (1, 42, 'active')");
+    }
+
+    @AfterEach
+    void drop() {
+        databaseClient.sql("DROP ALL OBJECTS").then().block();
+    }
+
+    @Test
+    void checkingOutClosesTheCartAndCreatesAnOrder() {
+        Order order = service(orderRepository).checkout(1L).block();
+
+        assertThat(order.getId()).isNotNull();
+        assertThat(order.getUserId()).isEqualTo(42L);
+        assertThat(order.getStatus()).isEqualTo(CheckoutService.ORDER_CREATED);
+        assertThat(cartStatus(1L)).isEqualTo(CheckoutService.CHECKED_OUT);
+    }
+
+    @Test
+    void theCacheIsUpdatedOnlyAfterCommit() {
+        // Read on a separate connection, which only sees committed rows
+        AtomicReference<String> statusSeenByCache = new AtomicReference<>();
+        AtomicReference<Cart> cached = new AtomicReference<>();
+        when(cartCache.put(any(Cart.class))).thenAnswer(invocation -> {
+            cached.set(invocation.getArgument(0));
+            return Mono.defer(() -> Mono.fromCallable(() -> cartStatus(1L)).subscribeOn(Schedulers.boundedElastic()))
+                    .doOnNext(statusSeenByCache::set)
+                    .then();
+        });
+
+        service(orderRepository).checkout(1L).block(Duration.ofSeconds(5));
+
+        assertThat(cached.get().getStatus()).isEqualTo(CheckoutService.CHECKED_OUT);
+        assertThat(statusSeenByCache.get()).isEqualTo(CheckoutService.CHECKED_OUT);
+    }
+
+    @Test
+    void aFailedOrderSaveRollsTheCartBack() {
+        OrderRepository failing = mock(OrderRepository.class);
+        when(failing.save(any(Order.class))).thenReturn(Mono.error(new IllegalArgumentException("orders unavailable")));
+
+        assertThatThrownBy(() -> service(failing).checkout(1L).block())
+                .hasMessage("orders unavailable");
+
+        assertThat(cartStatus(1L)).isEqualTo(CheckoutService.ACTIVE);
+        assertThat(orderRepository.count().block()).isZero();
+        verify(cartCache, never()).put(any(Cart.class));
+    }
+
+    @Test
+    void aSecondCheckoutIsRejected() {
+        CheckoutService service = service(orderRepository);
+        service.checkout(1L).block();
+
+        assertThatThrownBy(() -> service.checkout(1L).block())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Cart 1 is checked_out");
+        assertThat(orderRepository.count().block()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentCheckoutsCreateOneOrder() {
+        CheckoutService service = service(orderRepository);
+
+        List<Signal<Order>> outcomes = Flux.merge(
+                        service.checkout(1L).subscribeOn(Schedulers.parallel()).materialize(),
+                        service.checkout(1L).subscribeOn(Schedulers.parallel()).materialize())
+                .filter(signal -> !signal.isOnComplete())
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertThat(outcomes).filteredOn(Signal::isOnNext).hasSize(1);
+        assertThat(outcomes).filteredOn(Signal::isOnError).singleElement()
+                .satisfies(signal -> assertThat(signal.getThrowable()).isInstanceOf(IllegalStateException.class));
+        assertThat(orderRepository.count().block()).isEqualTo(1);
+    }
+
+    @Test
+    void anUnknownCartIsEmpty() {
+        assertThat(service(orderRepository).checkout(99L).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void theHandlerAnswersADoubleCheckoutWith409() {
+        CartHandler handler = new CartHandler(cartRepository, cartCache, mock(CartUpdateStream.class),
+                mock(KeysetPagination.class), service(orderRepository));
+        WebTestClient client = WebTestClient.bindToRouterFunction(RouterFunctions.route()
+                        .POST("/carts/{id}/checkout", handler::checkout)
+                        .build())
+                .build();
+
+        client.post().uri("/carts/1/checkout").exchange().expectStatus().isOk();
+        client.post().uri("/carts/1/checkout").exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT)
+                .expectBody(String.class).isEqualTo("Cart 1 is checked_out");
+        client.post().uri("/carts/99/checkout").exchange().expectStatus().isNotFound();
+    }
+
+    private CheckoutService service(OrderRepository orders) {
+        return new CheckoutService(cartRepository, orders, cartCache, transactionalOperator);
+    }
+
+    private String cartStatus(Long id) {
+        return databaseClient.sql("SELECT status FROM carts WHERE id = :id")
+                .bind("id", id)
+                .map(row -> row.get("status", String.class))
+                .one()
+                .block();
+    }
+
+    private void execute(String sql) {
+        databaseClient.sql(sql).then().block();
+    }
+}
@@ -0,0 +1,152 @@
+package com.evolve.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+
+import com.evolve.config.EmbeddedRedisConfig;
+import com.evolve.websocket.ChatRooms.SlowConsumer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import redis.embedded.RedisServer;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class ChatClusterRelayTest {
+
+    private static final int REDIS_PORT = 6392;
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory redisFactory;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ChatClusterRelay relayA = relay(registry, 10_000);
+    private final ChatClusterRelay relayB = relay(new SimpleMeterRegistry(), 10_000);
+    private final ChatRooms nodeA = new ChatRooms(registry, 16, SlowConsumer.DROP_OLDEST, relayA);
+    private final ChatRooms nodeB = new ChatRooms(new SimpleMeterRegistry(), 16, SlowConsumer.DROP_OLDEST, relayB);
+
+    @BeforeAll
+    static void startRedis() {
+        redisServer = new RedisServer(REDIS_PORT);
+        redisServer.start();
+        redisFactory = new LettuceConnectionFactory("localhost", REDIS_PORT);
+        redisFactory.afterPropertiesSet();
+        redisFactory.start();
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        redisFactory.destroy();
+        redisServer.stop();
+    }
+
+    @AfterEach
+    void stopRelays() {
+        relayA.stop();
+        relayB.stop();
+    }
+
+    @Test
+    void deliversToTheRoomOnEveryNodeInBatches() {
+        StepVerifier.create(nodeB.join("cart-7").take(3))
+                .then(() -> StepVerifier.create(nodeA.join("cart-7").take(3))
+                        .then(() -> awaitSubscriptions("cart-7"))
+                        .then(() -> {
+                            nodeA.publish("cart-7", "1");
+                            nodeA.publish("other", "elsewhere");
+                            nodeA.publish("cart-7", "2");
+                            nodeB.publish("cart-7", "3");
+                        })
+                        .expectNextCount(3)
+                        .expectComplete()
+                        .verify(Duration.ofSeconds(5)))
+                .expectNextCount(3)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        // Node A's three messages (two rooms) went out in at most one batch per room per window
+        assertThat(registry.get("chat.cluster.messages").counter().count()).isEqualTo(3);
+        // Delivery can beat the publish's completion, which is what counts the batch
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(registry.get("chat.cluster.batches").tag("result", "ok").counter().count())
+                        .isBetween(2.0, 3.0));
+    }
+
+    @Test
+    void dropsMessagesPastMaxPendingPerRoom() {
+        SimpleMeterRegistry stalled = new SimpleMeterRegistry();
+        ChatClusterRelay relay = relay(stalled, 2);
+        relay.stop();
+
+        relay.publish("cart-7", "1");
+        relay.publish("cart-7", "2");
+        relay.publish("cart-7", "3");
+        relay.publish("lobby", "4");
+
+        assertThat(stalled.get("chat.cluster.messages").counter().count()).isEqualTo(3);
+        assertThat(stalled.get("chat.cluster.dropped").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void subscribesOncePerRoomAndDropsTheSubscriptionWithTheRoom() {
+        var first = nodeA.join("lobby").subscribe();
+        var second = nodeA.join("lobby").subscribe();
+        assertThat(registry.get("chat.cluster.subscriptions").gauge().value()).isEqualTo(1);
+
+        first.dispose();
+        assertThat(registry.get("chat.cluster.subscriptions").gauge().value()).isEqualTo(1);
+        second.dispose();
+        assertThat(registry.get("chat.cluster.subscriptions").gauge().value()).isZero();
+        assertThat(nodeA.roomCount()).isZero();
+    }
+
+    @Test
+    void aRoomRejoinedAfterItsLastReaderLeftGetsEachMessageOnce() {
+        relayA.messages(ChatRooms.channel("lobby")).subscribe().dispose();
+        assertThat(registry.get("chat.cluster.subscriptions").gauge().value()).isZero();
+
+        StepVerifier.create(nodeA.join("lobby"))
+                .then(() -> relayA.subscribed(ChatRooms.channel("lobby")).block(Duration.ofSeconds(5)))
+                .then(() -> nodeA.publish("lobby", "once"))
+                .expectNext("once")
+                .expectNoEvent(Duration.ofMillis(300))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void theServletChatHasItsOwnChannel() {
+        StepVerifier.create(relayA.messages(ChatHandler.CHANNEL))
+                .then(() -> relayA.subscribed(ChatHandler.CHANNEL).block(Duration.ofSeconds(5)))
+                .then(() -> {
+                    nodeB.publish(ChatWebSocketHandler.DEFAULT_ROOM, "reactive");
+                    relayB.publish(ChatHandler.CHANNEL, "servlet");
+                })
+                .expectNext("servlet")
+                .expectNoEvent(Duration.ofMillis(300))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private static ChatClusterRelay relay(SimpleMeterRegistry registry, int maxPending) {
+        ChatClusterRelay relay = new ChatClusterRelay(
+                new EmbeddedRedisConfig(false).reactiveChatBatchRedisTemplate(redisFactory),
+                new ReactiveRedisMessageListenerContainer(redisFactory), registry, Duration.ofMillis(50), maxPending);
+        relay.start();
+        return relay;
+    }
+
+    // Redis SUBSCRIBE completes asynchronously after the room is joined
+    private void awaitSubscriptions(String room) {
+        Mono.when(relayA.subscribed(ChatRooms.channel(room)), relayB.subscribed(ChatRooms.channel(room)))
+                .block(Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,95 @@
+package com.evolve.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import com.evolve.websocket.ChatRooms.SlowConsumer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ChatHandlerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CountDownLatch sending = new CountDownLatch(1);
+    private final CountDownLatch unblock = new CountDownLatch(1);
+
+    @Test
+    void aBlockedSessionDoesNotHoldUpTheOthers() throws Exception {
+        ChatHandler handler = new ChatHandler(registry, 2, SlowConsumer.DROP_OLDEST);
+        WebSocketSession slow = blockingSession("slow");
+        WebSocketSession fast = session("fast");
+        handler.afterConnectionEstablished(slow);
+        handler.afterConnectionEstablished(fast);
+
+        handler.handleTextMessage(fast, new TextMessage("1"));
+        sending.await();
+        for (int i = 2; i <= 5; i++) {
+            handler.handleTextMessage(fast, new TextMessage(String.valueOf(i)));
+            verify(fast, timeout(1_000)).sendMessage(new TextMessage("Echo: " + i));
+        }
+
+        assertThat(registry.get("chat.outbox.queued").gauge().value()).isEqualTo(2);
+        assertThat(registry.get("chat.messages").tag("result", "dropped").counter().count()).isEqualTo(2);
+        unblock.countDown();
+        verify(slow, timeout(1_000)).sendMessage(new TextMessage("Echo: 5"));
+    }
+
+    @Test
+    void closesASessionThatFallsBehindWhenThePolicyIsDisconnect() throws Exception {
+        ChatHandler handler = new ChatHandler(registry, 1, SlowConsumer.DISCONNECT);
+        WebSocketSession slow = blockingSession("slow");
+        handler.afterConnectionEstablished(slow);
+
+        for (int i = 1; i <= 4; i++) {
+            handler.handleTextMessage(slow, new TextMessage(String.valueOf(i)));
+        }
+
+        // Closed by the session's own writer, once its blocked send is interrupted
+        verify(slow, timeout(1_000)).close(CloseStatus.POLICY_VIOLATION.withReason("slow consumer"));
+        assertThat(registry.get("chat.sessions.disconnected").counter().count()).isEqualTo(1);
+        handler.afterConnectionClosed(slow, CloseStatus.POLICY_VIOLATION);
+        assertThat(registry.get("chat.outbox.queued").gauge().value()).isZero();
+    }
+
+    @Test
+    void closesASessionWhoseWriterFails() throws Exception {
+        ChatHandler handler = new ChatHandler(registry, 2, SlowConsumer.DROP_OLDEST);
+        WebSocketSession broken = session("broken");
+        doThrow(new IllegalStateException("not writable")).when(broken).sendMessage(any());
+        handler.afterConnectionEstablished(broken);
+
+        handler.handleTextMessage(broken, new TextMessage("1"));
+
+        verify(broken, timeout(1_000)).close(CloseStatus.SERVER_ERROR);
+    }
+
+    private static WebSocketSession session(String id) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        when(session.isOpen()).thenReturn(true);
+        return session;
+    }
+
+    private WebSocketSession blockingSession(String id) throws Exception {
+        WebSocketSession session = session(id);
+        doAnswer(invocation -> {
+            sending.countDown();
+            unblock.await();
+            return null;
+        }).when(session).sendMessage(any());
+        return session;
+    }
+}
@@ -0,0 +1,125 @@
+package com.evolve.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.evolve.websocket.ChatRooms.SlowConsumer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.Exceptions;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+class ChatRoomsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void broadcastsWithinARoomOnly() {
+        ChatRooms rooms = rooms(16, SlowConsumer.DROP_OLDEST);
+
+        StepVerifier.create(rooms.join("a").take(2))
+                .then(() -> rooms.publish("a", "hi"))
+                .then(() -> rooms.publish("b", "elsewhere"))
+                .then(() -> rooms.publish("a", "bye"))
+                .expectNext("hi", "bye")
+                .verifyComplete();
+        assertThat(rooms.roomCount()).isZero();
+    }
+
+    @Test
+    void slowSessionLosesItsOldestMessagesWithoutHoldingUpTheRoom() {
+        ChatRooms rooms = rooms(2, SlowConsumer.DROP_OLDEST);
+
+        StepVerifier.create(rooms.join("a"), 0)
+                .then(() -> StepVerifier.create(rooms.join("a").take(4))
+                        .then(() -> publish(rooms, "1", "2", "3", "4"))
+                        .expectNext("1", "2", "3", "4")
+                        .verifyComplete())
+                .thenRequest(2)
+                .expectNext("3", "4")
+                .thenCancel()
+                .verify();
+        assertThat(registry.get("chat.messages").tag("result", "dropped").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void slowSessionIsCutOffWhenThePolicyIsDisconnect() {
+        ChatRooms rooms = rooms(2, SlowConsumer.DISCONNECT);
+
+        StepVerifier.create(rooms.join("a"), 0)
+                .then(() -> publish(rooms, "1", "2", "3"))
+                .thenRequest(2)
+                .expectErrorMatches(Exceptions::isOverflow)
+                .verify();
+        assertThat(rooms.roomCount()).isZero();
+        assertThat(registry.get("chat.sessions.disconnected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentPublishersToOneRoomAreDeliveredInOrderWithoutFailing() throws Exception {
+        ChatRooms rooms = new ChatRooms(registry, 10_000, SlowConsumer.DROP_OLDEST, null, Schedulers.parallel());
+        int publishers = 4;
+        int perPublisher = 1_000;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(publishers);
+
+        List<String> received;
+        try {
+            var messages = rooms.join("a").take(publishers * perPublisher).collectList().toFuture();
+            for (int p = 0; p < publishers; p++) {
+                String publisher = p + ":";
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    for (int i = 0; i < perPublisher; i++) {
+                        rooms.publish("a", publisher + i);
+                    }
+                });
+            }
+            start.countDown();
+            received = messages.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int p = 0; p < publishers; p++) {
+            String publisher = p + ":";
+            assertThat(received).filteredOn(message -> message.startsWith(publisher))
+                    .extracting(message -> Integer.parseInt(message.substring(publisher.length())))
+                    .isSorted()
+                    .hasSize(perPublisher);
+        }
+        assertThat(registry.get("chat.messages").tag("result", "dropped").counter().count()).isZero();
+    }
+
+    @Test
+    void readsTheDecodedRoomFromTheQuery() {
+        assertThat(ChatWebSocketHandler.room(URI.create("ws://localhost/ws/chat?room=cart-7"))).isEqualTo("cart-7");
+        assertThat(ChatWebSocketHandler.room(URI.create("ws://localhost/ws/chat"))).isEqualTo("lobby");
+        assertThat(ChatWebSocketHandler.room(URI.create("ws://localhost/ws/chat?room=caf%C3%A9%207"))).isEqualTo("café 7");
+        assertThat(ChatWebSocketHandler.room(URI.create("ws://localhost/ws/chat?room=%20"))).isEqualTo("lobby");
+    }
+
+    // Drains inline, so every publish has reached the sessions when it returns
+    private ChatRooms rooms(int bufferSize, SlowConsumer slowConsumer) {
+        return new ChatRooms(registry, bufferSize, slowConsumer, null, Schedulers.immediate());
+    }
+
+    private static void publish(ChatRooms rooms, String... messages) {
+        for (String message : messages) {
+            rooms.publish("a", message);
+        }
+    }
+}
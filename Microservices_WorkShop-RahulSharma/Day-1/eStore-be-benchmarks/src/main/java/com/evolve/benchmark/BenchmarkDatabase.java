@@ -0,0 +1,134 @@
+package com.evolve.benchmark;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.repository.support.R2dbcRepositoryFactory;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import com.evolve.model.Cart;
+import com.evolve.model.CartItem;
+import com.evolve.model.Product;
+import com.evolve.repository.CartItemRepository;
+import com.evolve.repository.CartRepository;
+import com.evolve.repository.ProductRepository;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * In-memory H2 database with the application schema and repositories built
+ * without a Spring context, counting every statement sent to the driver.
+ * Connections come from a pool sized like {@code spring.r2dbc.pool}.
+ */
+public class BenchmarkDatabase {
+
+    private final AtomicLong statements = new AtomicLong();
+    private final ConnectionPool connectionFactory;
+    private final DatabaseClient databaseClient;
+    private final R2dbcRepositoryFactory repositoryFactory;
+
+    private BenchmarkDatabase(ConnectionPool connectionFactory) {
+        this.connectionFactory = connectionFactory;
+        this.databaseClient = DatabaseClient.builder()
+                .connectionFactory(connectionFactory)
+                .executeFunction(statement -> {
+                    statements.incrementAndGet();
+                    return statement.execute();
+                })
+                .build();
+        this.repositoryFactory = new R2dbcRepositoryFactory(
+                new R2dbcEntityTemplate(databaseClient, H2Dialect.INSTANCE));
+    }
+
+    public static BenchmarkDatabase inMemory(String name) {
+        return open("r2dbc:h2:mem:///" + name + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+    }
+
+    /** File-backed H2 under {@code target/benchmark-h2}; {@link #drop()} deletes the files. */
+    public static BenchmarkDatabase file(String name) {
+        return open("r2dbc:h2:file:///./target/benchmark-h2/" + name + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+    }
+
+    private static BenchmarkDatabase open(String url) {
+        ConnectionFactory factory = ConnectionFactories.get(url);
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).populate(factory).block();
+        return new BenchmarkDatabase(new ConnectionPool(ConnectionPoolConfiguration.builder(factory)
+                .initialSize(5)
+                .maxSize(20)
+                .maxAcquireTime(Duration.ofSeconds(5))
+                // H2 runs queries on the thread that receives the connection; without this
+                // one releasing thread ends up running every waiting caller's query
+                .customizer(pool -> pool.acquisitionScheduler(Schedulers.boundedElastic()))
+                .build()));
+    }
+
+    public <T> T repository(Class<T> repositoryInterface) {
+        return repositoryFactory.getRepository(repositoryInterface);
+    }
+
+    /**
+     * Saves an active cart for user 1 holding {@code items} new products,
+     * {@code quantity} of each, and returns the cart's id.
+     */
+    public Long seedCart(int items, int quantity) {
+        Cart cart = new Cart();
+        cart.setUserId(1L);
+        cart.setStatus("active");
+        Long cartId = repository(CartRepository.class).save(cart).block().getId();
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setDescription("Benchmark product");
+            product.setPrice(10.0 + i);
+            products.add(product);
+        }
+        List<CartItem> cartItems = new ArrayList<>();
+        for (Product product : repository(ProductRepository.class).saveAll(products).collectList().block()) {
+            CartItem item = new CartItem();
+            item.setCartId(cartId);
+            item.setProductId(product.getId());
+            item.setQuantity(quantity);
+            cartItems.add(item);
+        }
+        repository(CartItemRepository.class).saveAll(cartItems).blockLast();
+        return cartId;
+    }
+
+    public ConnectionFactory connectionFactory() {
+        return connectionFactory;
+    }
+
+    public DatabaseClient databaseClient() {
+        return databaseClient;
+    }
+
+    public long statements() {
+        return statements.get();
+    }
+
+    public void resetStatements() {
+        statements.set(0);
+    }
+
+    /** Prints the statements sent per call since {@link #resetStatements()}, for a trial over a cart of {@code items}. */
+    public void printStatementsPerCall(int items, long calls) {
+        System.out.printf("%n%d items: %.1f statements per call%n", items, (double) statements() / Math.max(1, calls));
+    }
+
+    public void drop() {
+        databaseClient.sql("DROP ALL OBJECTS DELETE FILES").then().block();
+        connectionFactory.dispose();
+    }
+}
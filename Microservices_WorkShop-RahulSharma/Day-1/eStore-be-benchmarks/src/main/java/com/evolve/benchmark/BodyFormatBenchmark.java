@@ -0,0 +1,112 @@
+package com.evolve.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Decoder;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.DecoderHttpMessageReader;
+import org.springframework.http.codec.EncoderHttpMessageWriter;
+import org.springframework.http.codec.ServerCodecConfigurer;
+
+import com.evolve.config.WebFluxConfig;
+import com.evolve.model.CartItem;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * A cart item listing through each body format {@link WebFluxConfig}
+ * registers, using the codecs the server would pick for that media type.
+ * The encoded size of the listing is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BodyFormatBenchmark {
+
+    private static final ResolvableType CART_ITEM = ResolvableType.forClass(CartItem.class);
+    private static final ResolvableType CART_ITEMS = ResolvableType.forClassWithGenerics(List.class, CartItem.class);
+    private static final DefaultDataBufferFactory BUFFERS = DefaultDataBufferFactory.sharedInstance;
+
+    @Param({"application/json", "application/cbor", "application/x-jackson-smile", "application/x-protobuf"})
+    private String format;
+
+    @Param({"20"})
+    private int items;
+
+    private MediaType mediaType;
+    private Encoder<Object> encoder;
+    private Decoder<?> decoder;
+    private List<CartItem> listing;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        ServerCodecConfigurer codecs = ServerCodecConfigurer.create();
+        new WebFluxConfig().configureHttpMessageCodecs(codecs);
+        mediaType = MediaType.parseMediaType(format);
+        encoder = codecs.getWriters().stream()
+                .filter(writer -> writer instanceof EncoderHttpMessageWriter<?>)
+                .filter(writer -> writer.canWrite(CART_ITEMS, mediaType))
+                .map(writer -> (Encoder<Object>) ((EncoderHttpMessageWriter<?>) writer).getEncoder())
+                .findFirst().orElseThrow();
+        decoder = codecs.getReaders().stream()
+                .filter(reader -> reader instanceof DecoderHttpMessageReader<?>)
+                .filter(reader -> reader.canRead(CART_ITEM, mediaType))
+                .map(reader -> ((DecoderHttpMessageReader<?>) reader).getDecoder())
+                .findFirst().orElseThrow();
+
+        listing = new ArrayList<>();
+        for (long i = 1; i <= items; i++) {
+            CartItem item = new CartItem();
+            item.setId(i);
+            item.setCartId(42L);
+            item.setProductId(1_000 + i);
+            item.setQuantity((int) (i % 5) + 1);
+            listing.add(item);
+        }
+        encoded = encode();
+        System.out.printf("%s: %d items in %d bytes%n", format, items, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        DataBuffer buffer = encoder.encodeValue(listing, BUFFERS, CART_ITEMS, mediaType, null);
+        byte[] bytes = new byte[buffer.readableByteCount()];
+        buffer.read(bytes);
+        DataBufferUtils.release(buffer);
+        return bytes;
+    }
+
+    // Protobuf lists are a delimited stream; the Jackson formats read one array value
+    @Benchmark
+    public Object decode() {
+        DataBuffer buffer = BUFFERS.wrap(encoded);
+        if (MediaType.APPLICATION_PROTOBUF.equalsTypeAndSubtype(mediaType)) {
+            return decoder.decode(Flux.just(buffer), CART_ITEM, mediaType, null).collectList().block();
+        }
+        return decoder.decode(buffer, CART_ITEMS, mediaType, null);
+    }
+}
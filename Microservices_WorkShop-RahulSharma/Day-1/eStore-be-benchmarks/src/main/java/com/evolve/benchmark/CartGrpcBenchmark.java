@@ -0,0 +1,162 @@
+package com.evolve.benchmark;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.evolve.cache.ProductCache;
+import com.evolve.config.WebFluxConfig;
+import com.evolve.grpc.CartProto;
+import com.evolve.grpc.CartServiceGrpc;
+import com.evolve.grpc.CartServiceImpl;
+import com.evolve.grpc.ModelProto;
+import com.evolve.handler.CartItemHandler;
+import com.evolve.repository.CartItemRepository;
+import com.evolve.repository.CartRepository;
+import com.evolve.repository.ProductRepository;
+import com.evolve.route.CartItemRouter;
+import com.evolve.service.CartItemEnricher;
+
+import io.grpc.Grpc;
+import io.grpc.InsecureChannelCredentials;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.stub.StreamObserver;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * One cart and its items over loopback, from the WebFlux routes (JSON over
+ * HTTP/1.1 on Reactor Netty) and from {@code CartService} (protobuf over
+ * gRPC), both on the same H2 database, repositories and warm product
+ * cache. The REST cart read is the repository lookup behind
+ * {@code GET /carts/{id}}, without its Redis cache, to match
+ * {@code GetCart}. {@code ListCartItems} streams the default 100 items per
+ * message. Client and server share the JVM and its CPUs, so
+ * compare the pairs rather than reading the absolute numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartGrpcBenchmark {
+
+    @Param({"1", "50", "500"})
+    int items;
+
+    private BenchmarkDatabase db;
+    private DisposableServer httpServer;
+    private HttpClient httpClient;
+    private Server grpcServer;
+    private ManagedChannel channel;
+    private CartServiceGrpc.CartServiceBlockingStub stub;
+    private CartServiceGrpc.CartServiceStub asyncStub;
+    private Long cartId;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        db = BenchmarkDatabase.inMemory("cartGrpc" + items);
+        CartRepository cartRepo = db.repository(CartRepository.class);
+        CartItemRepository cartItemRepo = db.repository(CartItemRepository.class);
+        ProductRepository productRepo = db.repository(ProductRepository.class);
+        CartItemEnricher enricher = new CartItemEnricher(
+                new ProductCache(productRepo, 10_000, Duration.ofMinutes(10)));
+        cartId = db.seedCart(items, 1);
+
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(new WebFluxConfig()::configureHttpMessageCodecs)
+                .build();
+        var routes = new CartItemRouter().cartItemRoutes(new CartItemHandler(cartItemRepo, enricher, null, null))
+                .andRoute(RequestPredicates.GET("/carts/{id}"), req -> cartRepo
+                        .findById(Long.parseLong(req.pathVariable("id")))
+                        .flatMap(cart -> ServerResponse.ok().bodyValue(cart))
+                        .switchIfEmpty(ServerResponse.notFound().build()));
+        httpServer = HttpServer.create().host("127.0.0.1").port(0)
+                .handle(new ReactorHttpHandlerAdapter(RouterFunctions.toHttpHandler(routes, strategies)))
+                .bindNow();
+        httpClient = HttpClient.create().baseUrl("http://127.0.0.1:" + httpServer.port());
+
+        grpcServer = Grpc.newServerBuilderForPort(0, InsecureServerCredentials.create())
+                .addService(new CartServiceImpl(cartRepo, cartItemRepo, enricher, null, 100, 1000))
+                .build()
+                .start();
+        channel = Grpc.newChannelBuilderForAddress("127.0.0.1", grpcServer.getPort(),
+                InsecureChannelCredentials.create()).build();
+        stub = CartServiceGrpc.newBlockingStub(channel);
+        asyncStub = CartServiceGrpc.newStub(channel);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        grpcServer.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        httpServer.disposeNow();
+        db.drop();
+    }
+
+    @Benchmark
+    public String restGetCart() {
+        return httpClient.get().uri("/carts/" + cartId).responseContent().aggregate().asString().block();
+    }
+
+    @Benchmark
+    public ModelProto.Cart grpcGetCart() {
+        return stub.getCart(CartProto.GetCartRequest.newBuilder().setCartId(cartId).build());
+    }
+
+    @Benchmark
+    public String restListItems() {
+        return httpClient.get().uri("/carts/" + cartId + "/items").responseContent().aggregate().asString().block();
+    }
+
+    @Benchmark
+    public List<CartProto.CartItemPage> grpcListItems() throws Exception {
+        CompletableFuture<List<CartProto.CartItemPage>> done = new CompletableFuture<>();
+        asyncStub.listCartItems(CartProto.ListCartItemsRequest.newBuilder().setCartId(cartId).build(),
+                new StreamObserver<>() {
+                    private final List<CartProto.CartItemPage> received = new ArrayList<>();
+
+                    @Override
+                    public void onNext(CartProto.CartItemPage page) {
+                        received.add(page);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        done.completeExceptionally(t);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        done.complete(received);
+                    }
+                });
+        return done.get();
+    }
+}
@@ -0,0 +1,102 @@
+package com.evolve.benchmark;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.evolve.cache.ProductCache;
+import com.evolve.dto.CartItemWithProduct;
+import com.evolve.repository.CartItemRepository;
+import com.evolve.repository.ProductRepository;
+import com.evolve.service.CartItemEnricher;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * GET /carts/{cartId}/items enrichment: one findById per item (the old path)
+ * against the batched product lookup, with a cold and a warm product near
+ * cache. SampleTime mode reports p99; the statements-per-call count is
+ * printed at the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartItemListBenchmark {
+
+    @Param({"1", "50", "500"})
+    int items;
+
+    private BenchmarkDatabase db;
+    private CartItemRepository cartItemRepo;
+    private ProductRepository productRepo;
+    private ProductCache productCache;
+    private CartItemEnricher enricher;
+    private Long cartId;
+    private final AtomicLong calls = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        db = BenchmarkDatabase.inMemory("cartItemList" + items);
+        cartItemRepo = db.repository(CartItemRepository.class);
+        productRepo = db.repository(ProductRepository.class);
+        productCache = new ProductCache(productRepo, 10_000, Duration.ofMinutes(10));
+        enricher = new CartItemEnricher(productCache);
+
+        cartId = db.seedCart(items, 1);
+
+        db.resetStatements();
+        calls.set(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        db.printStatementsPerCall(items, calls.get());
+        db.drop();
+    }
+
+    @Benchmark
+    public List<CartItemWithProduct> perItemLookup() {
+        calls.incrementAndGet();
+        return cartItemRepo.findAllByCartId(cartId)
+                .flatMap(item -> productRepo.findById(item.getProductId())
+                        .switchIfEmpty(Mono.error(new RuntimeException("Product not found: " + item.getProductId())))
+                        .map(product -> CartItemEnricher.toDto(item, product)))
+                .collectList()
+                .block();
+    }
+
+    @Benchmark
+    public List<CartItemWithProduct> batchedLookup() {
+        calls.incrementAndGet();
+        productCache.invalidateAll();
+        return enricher.enrich(cartItemRepo.findAllByCartId(cartId))
+                .collectList()
+                .block();
+    }
+
+    @Benchmark
+    public List<CartItemWithProduct> cachedLookup() {
+        calls.incrementAndGet();
+        return enricher.enrich(cartItemRepo.findAllByCartId(cartId))
+                .collectList()
+                .block();
+    }
+}
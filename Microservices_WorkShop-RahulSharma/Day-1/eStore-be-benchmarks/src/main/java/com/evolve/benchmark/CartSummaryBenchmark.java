@@ -0,0 +1,101 @@
+package com.evolve.benchmark;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.evolve.cache.ProductCache;
+import com.evolve.dto.CartItemWithProduct;
+import com.evolve.dto.CartSummary;
+import com.evolve.repository.CartItemRepository;
+import com.evolve.repository.CartSummaryRepository;
+import com.evolve.repository.ProductRepository;
+import com.evolve.service.CartItemEnricher;
+
+/**
+ * Cart total: GET /carts/{cartId}/summary (one aggregate query) against what
+ * clients did before, fetching enriched items and summing
+ * {@code price * quantity} themselves, with a cold and a warm product cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartSummaryBenchmark {
+
+    @Param({"1", "50", "500"})
+    int items;
+
+    private BenchmarkDatabase db;
+    private CartItemRepository cartItemRepo;
+    private CartSummaryRepository summaryRepo;
+    private ProductCache productCache;
+    private CartItemEnricher enricher;
+    private Long cartId;
+    private final AtomicLong calls = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        db = BenchmarkDatabase.inMemory("cartSummary" + items);
+        ProductRepository productRepo = db.repository(ProductRepository.class);
+        cartItemRepo = db.repository(CartItemRepository.class);
+        summaryRepo = new CartSummaryRepository(db.databaseClient());
+        productCache = new ProductCache(productRepo, 10_000, Duration.ofMinutes(10));
+        enricher = new CartItemEnricher(productCache);
+
+        cartId = db.seedCart(items, 2);
+
+        db.resetStatements();
+        calls.set(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        db.printStatementsPerCall(items, calls.get());
+        db.drop();
+    }
+
+    @Benchmark
+    public CartSummary aggregateQuery() {
+        calls.incrementAndGet();
+        return summaryRepo.findSummary(cartId).block();
+    }
+
+    @Benchmark
+    public double enrichAndSum() {
+        calls.incrementAndGet();
+        productCache.invalidateAll();
+        return sum(enricher.enrich(cartItemRepo.findAllByCartId(cartId)).collectList().block());
+    }
+
+    @Benchmark
+    public double cachedEnrichAndSum() {
+        calls.incrementAndGet();
+        return sum(enricher.enrich(cartItemRepo.findAllByCartId(cartId)).collectList().block());
+    }
+
+    private static double sum(List<CartItemWithProduct> enriched) {
+        double subtotal = 0;
+        for (CartItemWithProduct item : enriched) {
+            subtotal += item.getProduct().getPrice() * item.getQuantity();
+        }
+        return subtotal;
+    }
+}
@@ -0,0 +1,170 @@
+package com.evolve.benchmark;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.evolve.grpc.ChatBatcher;
+import com.evolve.grpc.ChatProto.ChatMessage;
+import com.evolve.grpc.ChatServiceGrpc;
+import com.evolve.grpc.ChatServiceImpl;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ClientStreamTracer;
+import io.grpc.Grpc;
+import io.grpc.InsecureChannelCredentials;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Server;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Chat messages echoed per second over a real gRPC connection, one
+ * {@code ChatMessage} per stream message ({@code batch = 0}, the
+ * {@code chat} RPC) against {@code chatBatch} with up to {@code batch}
+ * messages per {@code ChatBatch}. Each operation is one message sent and
+ * its echo received. Wire bytes per message, both directions and counting
+ * the 5-byte gRPC frame header, are printed at the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChatBatchBenchmark {
+
+    private static final int MESSAGES = 1_000;
+    private static final int FRAME_HEADER = 5;
+
+    @Param({"0", "16", "128"})
+    int batch;
+
+    private Server server;
+    private ManagedChannel channel;
+    private ScheduledExecutorService scheduler;
+    private StreamObserver<ChatMessage> requests;
+    private final Semaphore echoed = new Semaphore(0);
+    private final AtomicLong wireBytes = new AtomicLong();
+    private long messages;
+    private ChatMessage message;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        server = Grpc.newServerBuilderForPort(0, InsecureServerCredentials.create())
+                .addService(new ChatServiceImpl(new SimpleMeterRegistry(), 64, 256, 32))
+                .build()
+                .start();
+        channel = Grpc.newChannelBuilderForAddress("localhost", server.getPort(), InsecureChannelCredentials.create())
+                .intercept(new WireBytes())
+                .build();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        message = ChatMessage.newBuilder()
+                .setUser("ann")
+                .setText("hello, is this in stock?")
+                .setTimestamp(System.currentTimeMillis())
+                .build();
+
+        ChatServiceGrpc.ChatServiceStub stub = ChatServiceGrpc.newStub(channel);
+        Echoes echoes = new Echoes();
+        requests = batch > 0
+                ? ChatBatcher.chat(stub, echoes, batch, Duration.ofMillis(1), scheduler)
+                : stub.chat(echoes);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        System.out.printf("%nwire bytes per message: %.1f%n", (double) wireBytes.get() / messages);
+        requests.onCompleted();
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        scheduler.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void echo() throws InterruptedException {
+        for (int i = 0; i < MESSAGES; i++) {
+            requests.onNext(message.toBuilder().setTimestamp(message.getTimestamp() + i).build());
+        }
+        if (requests instanceof ChatBatcher batcher) {
+            batcher.flush();
+        }
+        echoed.acquire(MESSAGES);
+        messages += MESSAGES;
+    }
+
+    // The unbatched server coalesces queued replies into one message, a line per echo
+    private final class Echoes implements ClientResponseObserver<ChatMessage, ChatMessage> {
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<ChatMessage> requestStream) {
+        }
+
+        @Override
+        public void onNext(ChatMessage reply) {
+            echoed.release((int) reply.getText().lines().count());
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            t.printStackTrace();
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+    }
+
+    private final class WireBytes implements ClientInterceptor {
+
+        @Override
+        public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                                   CallOptions callOptions, Channel next) {
+            return next.newCall(method, callOptions.withStreamTracerFactory(new ClientStreamTracer.Factory() {
+                @Override
+                public ClientStreamTracer newClientStreamTracer(ClientStreamTracer.StreamInfo info,
+                                                                Metadata headers) {
+                    return new ClientStreamTracer() {
+                        @Override
+                        public void outboundWireSize(long bytes) {
+                            wireBytes.addAndGet(bytes + FRAME_HEADER);
+                        }
+
+                        @Override
+                        public void inboundWireSize(long bytes) {
+                            wireBytes.addAndGet(bytes + FRAME_HEADER);
+                        }
+                    };
+                }
+            }));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.evolve.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.evolve.grpc.ChatProto.ChatMessage;
+import com.google.protobuf.InvalidProtocolBufferException;
+
+/**
+ * {@code ChatMessage} protobuf encoding and decoding, the per-message work
+ * of the gRPC chat stream, for a short and a long text.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChatMessageProtoBenchmark {
+
+    @Param({"16", "1024"})
+    int textLength;
+
+    private ChatMessage message;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        message = ChatMessage.newBuilder()
+                .setUser("ann")
+                .setText("x".repeat(textLength))
+                .setTimestamp(1_700_000_000_000L)
+                .build();
+        encoded = message.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return message.toByteArray();
+    }
+
+    @Benchmark
+    public ChatMessage decode() throws InvalidProtocolBufferException {
+        return ChatMessage.parseFrom(encoded);
+    }
+
+    @Benchmark
+    public byte[] buildAndEncode() {
+        return ChatMessage.newBuilder()
+                .setUser("ann")
+                .setText(message.getText())
+                .setTimestamp(System.currentTimeMillis())
+                .build()
+                .toByteArray();
+    }
+}
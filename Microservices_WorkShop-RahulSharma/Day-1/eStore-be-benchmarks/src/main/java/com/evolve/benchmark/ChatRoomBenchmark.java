@@ -0,0 +1,153 @@
+package com.evolve.benchmark;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.reactive.socket.client.ReactorNettyWebSocketClient;
+import org.springframework.web.reactive.socket.server.WebSocketService;
+import org.springframework.web.reactive.socket.server.support.HandshakeWebSocketService;
+import org.springframework.web.reactive.socket.server.upgrade.ReactorNettyRequestUpgradeStrategy;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+
+import com.evolve.websocket.ChatRooms;
+import com.evolve.websocket.ChatWebSocketHandler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Load test of one {@code /ws/chat} room: {@code sockets} WebSocket
+ * clients join the same room on a Reactor Netty server running
+ * {@link ChatWebSocketHandler}, and each op is one message sent by one of
+ * them and received by every client that reads. {@code stalled} of the
+ * clients never read after their first message, so the server's buffer
+ * for them fills and {@code slowConsumer} kicks in; the time per op should
+ * not move with it.
+ *
+ * <p>Client and server share the JVM, so 10k sockets need
+ * {@code ulimit -n} above 20k; pass {@code -p sockets=...} to go lower.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class ChatRoomBenchmark {
+
+    @Param({"10000"})
+    private int sockets;
+
+    @Param({"0", "100"})
+    private int stalled;
+
+    @Param({"DROP_OLDEST", "DISCONNECT"})
+    private ChatRooms.SlowConsumer slowConsumer;
+
+    private DisposableServer server;
+    private LoopResources clientLoops;
+    private final List<Disposable> clients = new ArrayList<>();
+    private final Sinks.Many<String> outbound = Sinks.many().unicast().onBackpressureBuffer();
+    private volatile CountDownLatch received = new CountDownLatch(0);
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setup() throws InterruptedException, TimeoutException {
+        ChatRooms rooms = new ChatRooms(new SimpleMeterRegistry(), 32, slowConsumer);
+        ChatWebSocketHandler handler = new ChatWebSocketHandler(rooms);
+        WebSocketService service = new HandshakeWebSocketService(new ReactorNettyRequestUpgradeStrategy());
+        HttpHandler httpHandler = WebHttpHandlerBuilder
+                .webHandler(exchange -> service.handleRequest(exchange, handler))
+                .build();
+        server = HttpServer.create().host("127.0.0.1").port(0)
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+
+        // The clients get their own loops, as separate devices would
+        clientLoops = LoopResources.create("chat-client", 2, true);
+        ReactorNettyWebSocketClient client = new ReactorNettyWebSocketClient(
+                HttpClient.create(ConnectionProvider.newConnection()).runOn(clientLoops));
+        URI uri = URI.create("ws://127.0.0.1:" + server.port() + "/ws/chat?room=bench");
+
+        CountDownLatch joined = new CountDownLatch(sockets);
+        clients.add(client.execute(uri, session -> {
+            joined.countDown();
+            return session.send(outbound.asFlux().map(session::textMessage)).and(read(session));
+        }).subscribe());
+        // At most 256 handshakes at a time, so the accept queue never overflows
+        Semaphore connecting = new Semaphore(256);
+        for (int i = 1; i < sockets; i++) {
+            boolean stalls = i <= stalled;
+            connecting.acquire();
+            clients.add(client.execute(uri, session -> {
+                connecting.release();
+                joined.countDown();
+                return stalls ? stall(session) : read(session);
+            }).doOnError(e -> connecting.release()).subscribe());
+        }
+        if (!joined.await(5, TimeUnit.MINUTES)) {
+            throw new TimeoutException(joined.getCount() + " of " + sockets + " sockets did not connect");
+        }
+        // Joining the room happens just after the handshake
+        Thread.sleep(1_000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        clients.forEach(Disposable::dispose);
+        server.disposeNow();
+        clientLoops.disposeLater().block();
+    }
+
+    @Benchmark
+    public long broadcast() throws InterruptedException, TimeoutException {
+        CountDownLatch latch = new CountDownLatch(sockets - stalled);
+        received = latch;
+        outbound.tryEmitNext("message " + ++sequence);
+        if (!latch.await(30, TimeUnit.SECONDS)) {
+            throw new TimeoutException(latch.getCount() + " readers missed message " + sequence);
+        }
+        return sequence;
+    }
+
+    private Mono<Void> read(WebSocketSession session) {
+        return session.receive()
+                .doOnNext(message -> received.countDown())
+                .then();
+    }
+
+    // Takes one message and then never asks for more, so the TCP window fills up
+    private static Mono<Void> stall(WebSocketSession session) {
+        return session.receive()
+                .concatMap(message -> Mono.never(), 1)
+                .then();
+    }
+}
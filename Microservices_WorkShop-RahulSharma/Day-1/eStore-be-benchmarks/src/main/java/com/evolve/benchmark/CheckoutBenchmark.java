@@ -0,0 +1,139 @@
+package com.evolve.benchmark;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.evolve.cache.CartCache;
+import com.evolve.config.EmbeddedRedisConfig;
+import com.evolve.model.Cart;
+import com.evolve.model.Order;
+import com.evolve.repository.CartRepository;
+import com.evolve.repository.OrderRepository;
+import com.evolve.service.CartUpdateStream;
+import com.evolve.service.CheckoutService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import redis.embedded.RedisServer;
+
+/**
+ * POST /carts/{id}/checkout throughput with 8 threads, against an embedded
+ * Redis on port 6391. Each operation re-activates a cart and checks it out;
+ * {@code sameCart} points every thread at one cart (row contention, most
+ * checkouts rejected), {@code differentCarts} gives each thread its own.
+ * Orders created and checkouts rejected are printed at the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class CheckoutBenchmark {
+
+    private static final int REDIS_PORT = 6391;
+
+    private RedisServer redisServer;
+    private LettuceConnectionFactory redisFactory;
+    private BenchmarkDatabase db;
+    private CartRepository cartRepo;
+    private CartCache cartCache;
+    private CheckoutService checkoutService;
+    private Long sharedCartId;
+    private final AtomicLong userIds = new AtomicLong();
+    private final AtomicLong ordered = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    @State(Scope.Thread)
+    public static class OwnCart {
+        Long cartId;
+
+        @Setup(Level.Trial)
+        public void setup(CheckoutBenchmark benchmark) {
+            cartId = benchmark.newCart();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        redisServer = new RedisServer(REDIS_PORT);
+        redisServer.start();
+        redisFactory = new LettuceConnectionFactory("localhost", REDIS_PORT);
+        redisFactory.afterPropertiesSet();
+        redisFactory.start();
+
+        EmbeddedRedisConfig redisConfig = new EmbeddedRedisConfig(false);
+        ReactiveRedisTemplate<String, Cart> cartTemplate = redisConfig.reactiveRedisTemplate(redisFactory);
+        CartUpdateStream cartUpdates = new CartUpdateStream(cartTemplate,
+                new ReactiveRedisMessageListenerContainer(redisFactory), Duration.ofSeconds(30));
+
+        db = BenchmarkDatabase.inMemory("checkout");
+        cartRepo = db.repository(CartRepository.class);
+        cartCache = new CartCache(cartRepo, cartTemplate, redisConfig.reactiveCartListRedisTemplate(redisFactory),
+                cartUpdates, new SimpleMeterRegistry(), CartCache.WriteMode.WRITE_THROUGH,
+                Duration.ofMinutes(30), Duration.ofMillis(200), 64, 10_000);
+        checkoutService = new CheckoutService(cartRepo, db.repository(OrderRepository.class), cartCache,
+                TransactionalOperator.create(new R2dbcTransactionManager(db.connectionFactory())));
+        sharedCartId = newCart();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%norders created: %d, checkouts rejected: %d%n", ordered.get(), rejected.get());
+        ordered.set(0);
+        rejected.set(0);
+        db.drop();
+        redisFactory.destroy();
+        redisServer.stop();
+    }
+
+    Long newCart() {
+        Cart cart = new Cart();
+        cart.setUserId(userIds.incrementAndGet());
+        cart.setStatus(CheckoutService.ACTIVE);
+        return cartRepo.save(cart).block().getId();
+    }
+
+    @Benchmark
+    public Order sameCart() {
+        return reactivateAndCheckout(sharedCartId);
+    }
+
+    @Benchmark
+    public Order differentCarts(OwnCart own) {
+        return reactivateAndCheckout(own.cartId);
+    }
+
+    private Order reactivateAndCheckout(Long cartId) {
+        cartRepo.transitionStatus(cartId, CheckoutService.CHECKED_OUT, CheckoutService.ACTIVE).block();
+        try {
+            Order order = checkoutService.checkout(cartId).block();
+            ordered.incrementAndGet();
+            return order;
+        } catch (RuntimeException e) {
+            // lost the race (cart already checked out) or timed out waiting for the row lock
+            rejected.incrementAndGet();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.evolve.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.evolve.config.WebFluxConfig;
+import com.evolve.dto.CartItemWithProduct;
+import com.evolve.dto.CartLineTotal;
+import com.evolve.dto.CartSummary;
+import com.evolve.model.Product;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Jackson's reflective bean codecs against the ones generated from
+ * {@code @JsonCodec} at compile time, on the two large list bodies: a cart
+ * listing of {@code items} items, each with its product, and a cart
+ * summary with as many lines. Add {@code -prof gc} for bytes allocated
+ * per op.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeneratedJsonCodecBenchmark {
+
+    private static final TypeReference<List<CartItemWithProduct>> ITEMS = new TypeReference<>() { };
+
+    @Param({"bean", "generated"})
+    private String codecs;
+
+    @Param({"100"})
+    private int items;
+
+    private ObjectMapper mapper;
+    private JavaType itemsType;
+    private List<CartItemWithProduct> itemList;
+    private CartSummary summary;
+    private byte[] itemsJson;
+    private byte[] summaryJson;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        mapper = "generated".equals(codecs) ? new WebFluxConfig().customObjectMapper() : new ObjectMapper();
+        itemsType = mapper.getTypeFactory().constructType(ITEMS);
+        itemList = new ArrayList<>();
+        List<CartLineTotal> lines = new ArrayList<>();
+        int itemCount = 0;
+        double subtotal = 0;
+        for (long i = 1; i <= items; i++) {
+            Product product = new Product();
+            product.setId(i);
+            product.setName("Product " + i);
+            product.setDescription("A product worth " + i + " dollars");
+            product.setPrice(i + 0.99);
+
+            CartItemWithProduct item = new CartItemWithProduct();
+            item.setId(i);
+            item.setCartId(1L);
+            item.setQuantity((int) (i % 5) + 1);
+            item.setProduct(product);
+            itemList.add(item);
+
+            CartLineTotal line = new CartLineTotal();
+            line.setItemId(i);
+            line.setProductId(i);
+            line.setProductName(product.getName());
+            line.setQuantity(item.getQuantity());
+            line.setUnitPrice(product.getPrice());
+            line.setLineTotal(item.getQuantity() * product.getPrice());
+            lines.add(line);
+            itemCount += line.getQuantity();
+            subtotal += line.getLineTotal();
+        }
+        summary = CartSummary.of(1L, lines, itemCount, subtotal);
+        itemsJson = mapper.writeValueAsBytes(itemList);
+        summaryJson = mapper.writeValueAsBytes(summary);
+    }
+
+    @Benchmark
+    public byte[] encodeItems() throws IOException {
+        return mapper.writeValueAsBytes(itemList);
+    }
+
+    @Benchmark
+    public List<CartItemWithProduct> decodeItems() throws IOException {
+        return mapper.readValue(itemsJson, itemsType);
+    }
+
+    @Benchmark
+    public byte[] encodeSummary() throws IOException {
+        return mapper.writeValueAsBytes(summary);
+    }
+
+    @Benchmark
+    public CartSummary decodeSummary() throws IOException {
+        return mapper.readValue(summaryJson, CartSummary.class);
+    }
+}
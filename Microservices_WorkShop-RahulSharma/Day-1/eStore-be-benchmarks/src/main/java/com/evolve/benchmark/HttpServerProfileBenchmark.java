@@ -0,0 +1,110 @@
+package com.evolve.benchmark;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.evolve.config.HttpServerProfile;
+
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Load test of the Reactor Netty server under the library defaults and
+ * under the {@code tuned} profile from application.yml. Sixteen client
+ * threads share a keep-alive pool and fetch a 50-user JSON listing. With
+ * {@code gzip} the client asks for compression, which only the tuned server
+ * applies. Client and server share the JVM and its CPUs, so compare the
+ * runs rather than reading the absolute numbers. {@code -p protocol=H2C}
+ * only works against the tuned server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Threads(16)
+@Fork(1)
+public class HttpServerProfileBenchmark {
+
+    @Param({"default", "tuned"})
+    private String profile;
+
+    @Param({"HTTP11"})
+    private HttpProtocol protocol;
+
+    @Param({"true", "false"})
+    private boolean gzip;
+
+    private HttpServerProfile serverProfile;
+    private DisposableServer server;
+    private ConnectionProvider connections;
+    private LoopResources clientLoops;
+    private HttpClient client;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        serverProfile = "tuned".equals(profile)
+                ? new HttpServerProfile(true, 1, 0, true, 1024, Duration.ofSeconds(60), Duration.ofSeconds(30),
+                        10_000, 1_000, 1_024)
+                : new HttpServerProfile(true, 0, 0, false, -1, Duration.ZERO, Duration.ZERO, 0, 0, 0);
+        String body = listing(50);
+        server = serverProfile.apply(HttpServer.create().host("127.0.0.1").port(0))
+                .route(routes -> routes.get("/users", (request, response) -> response
+                        .header("Content-Type", "application/json")
+                        .sendString(Mono.just(body))))
+                .bindNow();
+        // The client gets its own loops, as a separate load generator would
+        connections = ConnectionProvider.create("load", 64);
+        clientLoops = LoopResources.create("load", 2, true);
+        client = HttpClient.create(connections)
+                .runOn(clientLoops)
+                .protocol(protocol)
+                .compress(gzip)
+                .baseUrl("http://127.0.0.1:" + server.port());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        connections.disposeLater().block();
+        clientLoops.disposeLater().block();
+        server.disposeNow();
+        serverProfile.stop();
+    }
+
+    @Benchmark
+    public String getUsers() {
+        return client.get().uri("/users").responseContent().aggregate().asString().block();
+    }
+
+    private static String listing(int users) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 1; i <= users; i++) {
+            if (i > 1) {
+                json.append(',');
+            }
+            json.append("{\"email\":\"User number ").append(i)
+                    .append("\",\"name\":\"user").append(i).append("@example.com\"}");
+        }
+        return json.append(']').toString();
+    }
+}
@@ -0,0 +1,126 @@
+package com.evolve.benchmark;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.evolve.model.Cart;
+import com.evolve.model.CartItem;
+import com.evolve.model.Order;
+import com.evolve.model.Usr;
+import com.evolve.repository.CartItemRepository;
+import com.evolve.repository.CartRepository;
+import com.evolve.repository.OrderRepository;
+import com.evolve.repository.UserRepository;
+
+/**
+ * The hot-path derived queries at production-like sizes, 16 concurrent
+ * callers, with and without the secondary indexes from schema.sql.
+ *
+ * <p>{@code rows} users, carts and orders and three times as many cart items
+ * are seeded in SQL with {@code SYSTEM_RANGE}. Reports throughput and
+ * latency percentiles. Smaller runs: {@code -p rows=100000}; file-backed
+ * H2: {@code -p storage=file}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RepositoryQueryBenchmark {
+
+    // Everything schema.sql adds beyond primary keys
+    private static final List<String> SECONDARY_INDEXES = List.of(
+            "idx_users_name", "idx_orders_user_id", "idx_carts_user_id", "idx_cart_items_cart_id");
+
+    @Param({"1000000"})
+    int rows;
+
+    @Param({"true", "false"})
+    boolean indexed;
+
+    @Param({"mem"})
+    String storage;
+
+    private BenchmarkDatabase db;
+    private UserRepository userRepo;
+    private CartRepository cartRepo;
+    private CartItemRepository cartItemRepo;
+    private OrderRepository orderRepo;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        String name = "repositoryQuery" + rows + indexed;
+        db = "file".equals(storage) ? BenchmarkDatabase.file(name) : BenchmarkDatabase.inMemory(name);
+        seed("INSERT INTO users (name, email) SELECT 'user' || X, 'user' || X || '@example.com' "
+                + "FROM SYSTEM_RANGE(1, :rows)");
+        seed("INSERT INTO carts (user_id, status) "
+                + "SELECT MOD(X * 7919, :rows) + 1, CASE WHEN MOD(X, 4) = 0 THEN 'checked_out' ELSE 'active' END "
+                + "FROM SYSTEM_RANGE(1, :rows)");
+        seed("INSERT INTO cart_items (cart_id, product_id, quantity) "
+                + "SELECT MOD(X * 104729, :rows) + 1, 1, 1 + MOD(X, 3) FROM SYSTEM_RANGE(1, 3 * :rows)");
+        seed("INSERT INTO orders (user_id, status) SELECT MOD(X * 15485863, :rows) + 1, 'created' "
+                + "FROM SYSTEM_RANGE(1, :rows)");
+        if (!indexed) {
+            for (String index : SECONDARY_INDEXES) {
+                db.databaseClient().sql("DROP INDEX " + index).then().block();
+            }
+        }
+        db.databaseClient().sql("ANALYZE").then().block();
+
+        userRepo = db.repository(UserRepository.class);
+        cartRepo = db.repository(CartRepository.class);
+        cartItemRepo = db.repository(CartItemRepository.class);
+        orderRepo = db.repository(OrderRepository.class);
+    }
+
+    private void seed(String sql) {
+        db.databaseClient().sql(sql).bind("rows", rows).then().block();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        db.drop();
+    }
+
+    private long randomKey() {
+        return ThreadLocalRandom.current().nextLong(1, rows + 1L);
+    }
+
+    @Benchmark
+    public List<Cart> cartsFindAllByUserId() {
+        return cartRepo.findAllByUserId(randomKey()).collectList().block();
+    }
+
+    @Benchmark
+    public List<CartItem> cartItemsFindAllByCartId() {
+        return cartItemRepo.findAllByCartId(randomKey()).collectList().block();
+    }
+
+    @Benchmark
+    public List<Order> ordersFindAllByUserId() {
+        return orderRepo.findAllByUserId(randomKey()).collectList().block();
+    }
+
+    @Benchmark
+    public List<Usr> usersFindByName() {
+        return userRepo.findByName("user" + randomKey()).collectList().block();
+    }
+}
@@ -0,0 +1,99 @@
+package com.evolve.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.adapter.DefaultServerWebExchange;
+import org.springframework.web.server.i18n.AcceptHeaderLocaleContextResolver;
+import org.springframework.web.server.i18n.LocaleContextResolver;
+import org.springframework.web.server.session.DefaultWebSessionManager;
+import org.springframework.web.server.session.WebSessionManager;
+
+import com.evolve.handler.CartHandler;
+import com.evolve.handler.CartItemHandler;
+import com.evolve.handler.OrderHandler;
+import com.evolve.handler.ProductHandler;
+import com.evolve.handler.SessionHandler;
+import com.evolve.handler.UserHandler;
+import com.evolve.route.CartItemRouter;
+import com.evolve.route.CartRouter;
+import com.evolve.route.IndexedRouterFunction;
+import com.evolve.route.OrderRouter;
+import com.evolve.route.ProductRouter;
+import com.evolve.route.SessionRouter;
+import com.evolve.route.UserRouter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Route lookup only: every route bean either chained in bean order (as
+ * Boot's RouterFunctionMapping sees them) or behind the
+ * {@link IndexedRouterFunction} that CombinedRouter builds, resolving a
+ * path to its handler. Handlers are never invoked, so they are built
+ * without dependencies. {@code /missing} matches nothing.
+ * Each call builds a fresh exchange the way the server does, sharing codecs
+ * and the session manager, since matching stores path variables on it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouterDispatchBenchmark {
+
+    @Param({"/users", "/carts/42", "/orders/user/7", "/missing"})
+    String path;
+
+    @Param({"chained", "indexed"})
+    String router;
+
+    private RouterFunction<ServerResponse> routes;
+    private ServerCodecConfigurer codecs;
+    private WebSessionManager sessions;
+    private LocaleContextResolver locales;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<RouterFunction<ServerResponse>> beans = List.of(
+                new UserRouter().route(new UserHandler(null, null)),
+                new CartRouter().cartRoutes(new CartHandler(null, null, null, null, null)),
+                new CartItemRouter().cartItemRoutes(new CartItemHandler(null, null, null, null)),
+                new OrderRouter().orderRoutes(new OrderHandler(null, null, null)),
+                new ProductRouter().productRoutes(new ProductHandler(null, null, null)),
+                new SessionRouter().sessionRoutes(new SessionHandler()));
+        routes = "indexed".equals(router)
+                ? new IndexedRouterFunction(beans, new SimpleMeterRegistry())
+                : beans.stream().reduce(RouterFunction::and).orElseThrow();
+        codecs = ServerCodecConfigurer.create();
+        sessions = new DefaultWebSessionManager();
+        locales = new AcceptHeaderLocaleContextResolver();
+    }
+
+    @Benchmark
+    public HandlerFunction<ServerResponse> dispatch() {
+        ServerWebExchange exchange = new DefaultServerWebExchange(MockServerHttpRequest.get(path).build(),
+                new MockServerHttpResponse(), sessions, codecs, locales);
+        return routes.route(ServerRequest.create(exchange, codecs.getReaders())).block();
+    }
+}
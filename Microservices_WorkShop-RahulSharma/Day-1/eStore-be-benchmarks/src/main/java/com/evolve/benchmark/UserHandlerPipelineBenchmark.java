@@ -0,0 +1,92 @@
+package com.evolve.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+
+import com.evolve.config.WebFluxConfig;
+import com.evolve.handler.KeysetPagination;
+import com.evolve.handler.UserHandler;
+import com.evolve.repository.UserRepository;
+import com.evolve.route.UserRouter;
+
+/**
+ * A whole request through the user routes without a socket: routing,
+ * {@link UserHandler}, the in-memory H2 repository and the JSON codecs
+ * from {@link WebFluxConfig}, ending with the response body as a string.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserHandlerPipelineBenchmark {
+
+    private static final int USERS = 10_000;
+
+    private BenchmarkDatabase db;
+    private HttpHandler httpHandler;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        db = BenchmarkDatabase.inMemory("userHandlerPipeline");
+        db.databaseClient().sql("INSERT INTO users (name, email) "
+                        + "SELECT 'user' || X, 'user' || X || '@example.com' FROM SYSTEM_RANGE(1, :users)")
+                .bind("users", USERS)
+                .then()
+                .block();
+        UserHandler handler = new UserHandler(db.repository(UserRepository.class), new KeysetPagination());
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(new WebFluxConfig()::configureHttpMessageCodecs)
+                .build();
+        httpHandler = RouterFunctions.toHttpHandler(new UserRouter().route(handler), strategies);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        db.drop();
+    }
+
+    @Benchmark
+    public String getById() {
+        long id = ThreadLocalRandom.current().nextLong(1, USERS + 1L);
+        return exchange(MockServerHttpRequest.get("/users/{id}", id).build());
+    }
+
+    @Benchmark
+    public String getAllPage() {
+        return exchange(MockServerHttpRequest.get("/users?limit=100").build());
+    }
+
+    @Benchmark
+    public String create() {
+        return exchange(MockServerHttpRequest.post("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("{\"name\":\"ann@example.com\",\"email\":\"Ann\"}"));
+    }
+
+    private String exchange(MockServerHttpRequest request) {
+        MockServerHttpResponse response = new MockServerHttpResponse();
+        httpHandler.handle(request, response).block();
+        return response.getBodyAsString().block();
+    }
+}
@@ -0,0 +1,115 @@
+package com.evolve.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.evolve.config.WebFluxConfig;
+import com.evolve.model.Usr;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+/**
+ * The streaming {@code Usr} codec registered by {@link WebFluxConfig} against
+ * the tree-model codec it replaced (kept below, stdout logging included;
+ * stdout goes to a null stream during the run). Add {@code -prof gc} for
+ * bytes allocated per op ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UsrCodecBenchmark {
+
+    private static final byte[] JSON = "{\"id\":1,\"name\":\"ann@example.com\",\"email\":\"Ann\"}".getBytes();
+
+    private ObjectMapper streaming;
+    private ObjectMapper tree;
+    private Usr user;
+    private PrintStream stdout;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        streaming = new WebFluxConfig().customObjectMapper();
+        tree = new ObjectMapper().registerModule(new SimpleModule()
+                .addSerializer(Usr.class, new TreeUserSerializer())
+                .addDeserializer(Usr.class, new TreeUserDeserializer()));
+        user = new Usr();
+        user.setId(1L);
+        user.setName("Ann");
+        user.setEmail("ann@example.com");
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public Usr decodeStreaming() throws IOException {
+        return streaming.readValue(JSON, Usr.class);
+    }
+
+    @Benchmark
+    public Usr decodeTree() throws IOException {
+        return tree.readValue(JSON, Usr.class);
+    }
+
+    @Benchmark
+    public byte[] encodeStreaming() throws IOException {
+        return streaming.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] encodeTree() throws IOException {
+        return tree.writeValueAsBytes(user);
+    }
+
+    static class TreeUserDeserializer extends JsonDeserializer<Usr> {
+        @Override
+        public Usr deserialize(JsonParser parser, DeserializationContext ctx) throws IOException {
+            JsonNode node = parser.getCodec().readTree(parser);
+            Usr user = new Usr();
+            user.setEmail(node.get("name").asText());
+            user.setName(node.get("email").asText());
+            System.out.println("Values De-serialized");
+            return user;
+        }
+    }
+
+    static class TreeUserSerializer extends JsonSerializer<Usr> {
+        @Override
+        public void serialize(Usr user, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            gen.writeStringField("email", user.getEmail());
+            gen.writeStringField("name", user.getName());
+            System.out.println("Values Serialized");
+            gen.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.evolve.codegen;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates a Jackson serializer and deserializer for the annotated class
+ * at compile time, see {@link JsonCodecProcessor}.
+ *
+ * <p>The class needs a no-arg constructor and bean accessors for its
+ * instance fields ({@code @Data} is enough); properties are the fields in
+ * declaration order, renamed by {@code @JsonProperty} and skipped by
+ * {@code @JsonIgnore}, as Jackson's bean serializer would see them.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface JsonCodec {
+}
@@ -0,0 +1,450 @@
+package com.evolve.codegen;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Writes a {@code StdSerializer} and a {@code StdDeserializer} for every
+ * {@link JsonCodec} class, next to it as {@code <Type>JsonSerializer} and
+ * {@code <Type>JsonDeserializer}, plus one {@code SimpleModule} registering
+ * them all, named by the {@code jsoncodec.module} option.
+ *
+ * <p>The generated code calls the getters and setters directly and writes
+ * pre-encoded field names. String, Long, Integer, Double and Boolean
+ * properties (and their primitives) are read and written straight off the
+ * token stream, with Jackson's own deserializer as the fallback for any
+ * other non-null token so coercion stays as configured. Every
+ * other property type is written through the provider and read by a
+ * deserializer resolved once per mapper; both find the generated codecs
+ * for nested {@code @JsonCodec} classes. Unknown
+ * properties go to {@code handleUnknownProperty}, so
+ * {@code FAIL_ON_UNKNOWN_PROPERTIES} applies as it does for beans.
+ */
+@SupportedAnnotationTypes("com.evolve.codegen.JsonCodec")
+@SupportedOptions(JsonCodecProcessor.MODULE_OPTION)
+public class JsonCodecProcessor extends AbstractProcessor {
+
+    static final String MODULE_OPTION = "jsoncodec.module";
+
+    private static final String JSON_PROPERTY = "com.fasterxml.jackson.annotation.JsonProperty";
+    private static final String JSON_IGNORE = "com.fasterxml.jackson.annotation.JsonIgnore";
+
+    private final List<TypeElement> generated = new ArrayList<>();
+    private boolean moduleWritten;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        List<TypeElement> found = new ArrayList<>();
+        for (Element element : round.getElementsAnnotatedWith(JsonCodec.class)) {
+            TypeElement type = (TypeElement) element;
+            List<Property> properties = properties(type);
+            if (properties != null) {
+                write(type, "JsonSerializer", serializer(type, properties));
+                write(type, "JsonDeserializer", deserializer(type, properties));
+                found.add(type);
+            }
+        }
+        if (found.isEmpty()) {
+            return true;
+        }
+        if (moduleWritten) {
+            error(found.get(0), "@JsonCodec types must all be compiled in the first round");
+            return true;
+        }
+        generated.addAll(found);
+        writeModule();
+        return true;
+    }
+
+    private List<Property> properties(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT)) {
+            error(type, "@JsonCodec needs a concrete class");
+            return null;
+        }
+        if (!"java.lang.Object".equals(type.getSuperclass().toString())) {
+            error(type, "@JsonCodec does not read inherited properties; " + type.getSimpleName()
+                    + " must extend Object");
+            return null;
+        }
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+        boolean noArg = constructors.stream().anyMatch(c -> c.getParameters().isEmpty()
+                && c.getModifiers().contains(Modifier.PUBLIC));
+        if (!noArg) {
+            error(type, "@JsonCodec needs a public no-arg constructor");
+            return null;
+        }
+        List<Property> properties = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            Set<Modifier> modifiers = field.getModifiers();
+            if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)
+                    || annotation(field, JSON_IGNORE) != null) {
+                continue;
+            }
+            String fieldName = field.getSimpleName().toString();
+            String name = fieldName;
+            AnnotationMirror renamed = annotation(field, JSON_PROPERTY);
+            if (renamed != null) {
+                String value = annotationValue(renamed);
+                if (value != null && !value.isEmpty()) {
+                    name = value;
+                }
+            }
+            properties.add(new Property(name, fieldName, field.asType(), properties.size()));
+        }
+        return properties;
+    }
+
+    private String serializer(TypeElement type, List<Property> properties) {
+        String simple = type.getSimpleName().toString();
+        Source out = new Source(packageOf(type));
+        out.line("import java.io.IOException;");
+        out.line("");
+        out.line("import javax.annotation.processing.Generated;");
+        out.line("");
+        out.line("import com.fasterxml.jackson.core.JsonGenerator;");
+        out.line("import com.fasterxml.jackson.core.io.SerializedString;");
+        out.line("import com.fasterxml.jackson.databind.SerializerProvider;");
+        out.line("import com.fasterxml.jackson.databind.ser.std.StdSerializer;");
+        out.line("");
+        out.line("@Generated(\"" + getClass().getName() + "\")");
+        out.line("public final class " + simple + "JsonSerializer extends StdSerializer<" + simple + "> {");
+        out.line("");
+        for (Property property : properties) {
+            out.line("    private static final SerializedString " + property.constant()
+                    + " = new SerializedString(\"" + escape(property.name) + "\");");
+        }
+        out.line("");
+        out.line("    public " + simple + "JsonSerializer() {");
+        out.line("        super(" + simple + ".class);");
+        out.line("    }");
+        out.line("");
+        out.line("    @Override");
+        out.line("    public void serialize(" + simple + " value, JsonGenerator gen, SerializerProvider provider)"
+                + " throws IOException {");
+        out.line("        gen.writeStartObject(value);");
+        for (Property property : properties) {
+            String get = "value." + property.getter() + "()";
+            out.line("        gen.writeFieldName(" + property.constant() + ");");
+            Scalar scalar = Scalar.of(property.type);
+            if (scalar == null) {
+                out.line("        provider.defaultSerializeValue(" + get + ", gen);");
+            } else if (property.type.getKind().isPrimitive()) {
+                out.line("        gen." + scalar.write + "(" + get + ");");
+            } else {
+                String local = "p" + property.index;
+                out.line("        " + scalar.boxed + " " + local + " = " + get + ";");
+                out.line("        if (" + local + " == null) {");
+                out.line("            gen.writeNull();");
+                out.line("        } else {");
+                out.line("            gen." + scalar.write + "(" + local + ");");
+                out.line("        }");
+            }
+        }
+        out.line("        gen.writeEndObject();");
+        out.line("    }");
+        out.line("}");
+        return out.toString();
+    }
+
+    private String deserializer(TypeElement type, List<Property> properties) {
+        String simple = type.getSimpleName().toString();
+        Source out = new Source(packageOf(type));
+        out.line("import java.io.IOException;");
+        out.line("import java.util.Collection;");
+        out.line("import java.util.List;");
+        out.line("");
+        out.line("import javax.annotation.processing.Generated;");
+        out.line("");
+        out.line("import com.fasterxml.jackson.core.JsonParser;");
+        out.line("import com.fasterxml.jackson.core.JsonToken;");
+        out.line("import com.fasterxml.jackson.core.type.TypeReference;");
+        out.line("import com.fasterxml.jackson.databind.DeserializationContext;");
+        out.line("import com.fasterxml.jackson.databind.JavaType;");
+        out.line("import com.fasterxml.jackson.databind.JsonDeserializer;");
+        out.line("import com.fasterxml.jackson.databind.JsonMappingException;");
+        out.line("import com.fasterxml.jackson.databind.deser.ResolvableDeserializer;");
+        out.line("import com.fasterxml.jackson.databind.deser.std.StdDeserializer;");
+        out.line("import com.fasterxml.jackson.databind.type.TypeFactory;");
+        out.line("");
+        out.line("@Generated(\"" + getClass().getName() + "\")");
+        out.line("public final class " + simple + "JsonDeserializer extends StdDeserializer<" + simple + ">");
+        out.line("        implements ResolvableDeserializer {");
+        out.line("");
+        StringBuilder known = new StringBuilder();
+        List<Property> resolved = new ArrayList<>();
+        for (Property property : properties) {
+            known.append(known.length() == 0 ? "" : ", ").append('"').append(escape(property.name)).append('"');
+            if (property.resolved()) {
+                out.line("    private static final JavaType " + property.constant()
+                        + " = TypeFactory.defaultInstance().constructType(new TypeReference<" + property.type
+                        + ">() { });");
+                resolved.add(property);
+            }
+        }
+        out.line("    private static final List<Object> KNOWN_PROPERTIES = List.of(" + known + ");");
+        out.line("");
+        for (Property property : resolved) {
+            out.line("    private JsonDeserializer<Object> " + property.field + "Deserializer;");
+        }
+        if (!resolved.isEmpty()) {
+            out.line("");
+        }
+        out.line("    public " + simple + "JsonDeserializer() {");
+        out.line("        super(" + simple + ".class);");
+        out.line("    }");
+        out.line("");
+        out.line("    // Looked up once, as the bean deserializer does for its properties");
+        out.line("    @Override");
+        out.line("    public void resolve(DeserializationContext ctx) throws JsonMappingException {");
+        for (Property property : resolved) {
+            out.line("        " + property.field + "Deserializer = ctx.findRootValueDeserializer("
+                    + property.constant() + ");");
+        }
+        out.line("    }");
+        out.line("");
+        out.line("    @Override");
+        out.line("    public boolean isCachable() {");
+        out.line("        return true;");
+        out.line("    }");
+        out.line("");
+        out.line("    @Override");
+        out.line("    @SuppressWarnings(\"unchecked\")");
+        out.line("    public " + simple + " deserialize(JsonParser parser, DeserializationContext ctx)"
+                + " throws IOException {");
+        out.line("        JsonToken token = parser.currentToken();");
+        out.line("        if (token == JsonToken.START_OBJECT) {");
+        out.line("            token = parser.nextToken();");
+        out.line("        }");
+        out.line("        " + simple + " value = new " + simple + "();");
+        out.line("        for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {");
+        out.line("            String field = parser.currentName();");
+        out.line("            parser.nextToken();");
+        out.line("            switch (field) {");
+        for (Property property : properties) {
+            out.line("                case \"" + escape(property.name) + "\" -> value." + property.setter() + "("
+                    + read(property) + ");");
+        }
+        out.line("                default -> ctx.handleUnknownProperty(parser, this, " + simple + ".class, field);");
+        out.line("            }");
+        out.line("        }");
+        out.line("        if (token != JsonToken.END_OBJECT) {");
+        out.line("            return (" + simple + ") ctx.handleUnexpectedToken(" + simple + ".class, parser);");
+        out.line("        }");
+        out.line("        return value;");
+        out.line("    }");
+        out.line("");
+        out.line("    @Override");
+        out.line("    public Collection<Object> getKnownPropertyNames() {");
+        out.line("        return KNOWN_PROPERTIES;");
+        out.line("    }");
+        out.line("}");
+        return out.toString();
+    }
+
+    private static String read(Property property) {
+        TypeMirror type = property.type;
+        Scalar scalar = Scalar.of(type);
+        boolean primitive = type.getKind().isPrimitive();
+        if (scalar == null) {
+            return primitive
+                    ? "ctx.readValue(parser, " + type + ".class)"
+                    : "parser.currentToken() == JsonToken.VALUE_NULL ? null : (" + type + ") "
+                            + property.field + "Deserializer.deserialize(parser, ctx)";
+        }
+        if (primitive) {
+            return scalar.token + " ? " + scalar.read + " : ctx.readValue(parser, " + type + ".class)";
+        }
+        // Jackson's scalar deserializers expect the caller to have handled null, as the bean deserializer does
+        return scalar.token + " ? " + scalar.boxed + ".valueOf(" + scalar.read + ")"
+                + " : parser.currentToken() == JsonToken.VALUE_NULL ? null : ctx.readValue(parser, "
+                + scalar.boxed + ".class)";
+    }
+
+    private void writeModule() {
+        String module = processingEnv.getOptions().get(MODULE_OPTION);
+        if (module == null || module.isEmpty()) {
+            error(generated.get(0), "set -A" + MODULE_OPTION + "=<class name> for the generated Jackson module");
+            return;
+        }
+        int dot = module.lastIndexOf('.');
+        String simple = module.substring(dot + 1);
+        Source out = new Source(dot < 0 ? "" : module.substring(0, dot));
+        out.line("import javax.annotation.processing.Generated;");
+        out.line("");
+        out.line("import com.fasterxml.jackson.databind.module.SimpleModule;");
+        out.line("");
+        out.line("/** Registers the codecs generated for every {@code @JsonCodec} class. */");
+        out.line("@Generated(\"" + getClass().getName() + "\")");
+        out.line("public final class " + simple + " extends SimpleModule {");
+        out.line("");
+        out.line("    public " + simple + "() {");
+        out.line("        super(\"" + simple + "\");");
+        for (TypeElement type : generated) {
+            String name = type.getQualifiedName().toString();
+            out.line("        addSerializer(" + name + ".class, new " + name + "JsonSerializer());");
+            out.line("        addDeserializer(" + name + ".class, new " + name + "JsonDeserializer());");
+        }
+        out.line("    }");
+        out.line("}");
+        try (Writer writer = processingEnv.getFiler()
+                .createSourceFile(module, generated.toArray(new Element[0])).openWriter()) {
+            writer.write(out.toString());
+        } catch (IOException e) {
+            error(generated.get(0), "could not write " + module + ": " + e.getMessage());
+        }
+        moduleWritten = true;
+    }
+
+    private void write(TypeElement type, String suffix, String source) {
+        String name = type.getQualifiedName() + suffix;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(name, type).openWriter()) {
+            writer.write(source);
+        } catch (IOException e) {
+            error(type, "could not write " + name + ": " + e.getMessage());
+        }
+    }
+
+    private String packageOf(TypeElement type) {
+        return processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+    }
+
+    private static AnnotationMirror annotation(Element element, String name) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(name)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private static String annotationValue(AnnotationMirror mirror) {
+        for (var entry : mirror.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals("value")) {
+                AnnotationValue value = entry.getValue();
+                return (String) value.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    /** One bean property: JSON name, backing field, declared type and position. */
+    private record Property(String name, String field, TypeMirror type, int index) {
+
+        String getter() {
+            String prefix = type.getKind() == TypeKind.BOOLEAN ? "is" : "get";
+            return prefix + capitalized();
+        }
+
+        String setter() {
+            return "set" + capitalized();
+        }
+
+        // Neither a scalar nor a primitive: read by a deserializer resolved up front
+        boolean resolved() {
+            return Scalar.of(type) == null && !type.getKind().isPrimitive();
+        }
+
+        // cartId -> CART_ID
+        String constant() {
+            return field.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT);
+        }
+
+        private String capitalized() {
+            return Character.toUpperCase(field.charAt(0)) + field.substring(1);
+        }
+    }
+
+    /** Types read and written straight off the token stream. */
+    private enum Scalar {
+        STRING("java.lang.String", null, "writeString",
+                "parser.currentToken() == JsonToken.VALUE_STRING", "parser.getText()"),
+        LONG("java.lang.Long", TypeKind.LONG, "writeNumber",
+                "parser.currentToken() == JsonToken.VALUE_NUMBER_INT", "parser.getLongValue()"),
+        INTEGER("java.lang.Integer", TypeKind.INT, "writeNumber",
+                "parser.currentToken() == JsonToken.VALUE_NUMBER_INT", "parser.getIntValue()"),
+        DOUBLE("java.lang.Double", TypeKind.DOUBLE, "writeNumber",
+                "parser.currentToken() == JsonToken.VALUE_NUMBER_FLOAT", "parser.getDoubleValue()"),
+        BOOLEAN("java.lang.Boolean", TypeKind.BOOLEAN, "writeBoolean",
+                "parser.currentToken().isBoolean()", "parser.getBooleanValue()");
+
+        final String boxed;
+        final TypeKind primitive;
+        final String write;
+        final String token;
+        final String read;
+
+        Scalar(String boxed, TypeKind primitive, String write, String token, String read) {
+            this.boxed = boxed;
+            this.primitive = primitive;
+            this.write = write;
+            this.token = token;
+            this.read = read;
+        }
+
+        static Scalar of(TypeMirror type) {
+            for (Scalar scalar : values()) {
+                if (type.getKind() == scalar.primitive || type.toString().equals(scalar.boxed)) {
+                    return scalar;
+                }
+            }
+            return null;
+        }
+    }
+
+    /** A generated compilation unit. */
+    private static final class Source {
+
+        private final StringBuilder text = new StringBuilder();
+
+        Source(String packageName) {
+            if (!packageName.isEmpty()) {
+                line("package " + packageName + ";");
+                line("");
+            }
+        }
+
+        void line(String line) {
+            text.append(line).append('\n');
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+}